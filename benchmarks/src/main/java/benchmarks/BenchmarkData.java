@@ -0,0 +1,111 @@
+package benchmarks;
+
+import model.Customer;
+import model.Parcel;
+import model.ParcelIdCodec;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Deterministic depot data for the benchmarks: parcel IDs spread evenly over the codec's code space (so every prefix
+// and last digit, and with them every discount rule, appears), realistic weights, ages, sizes and a collected share
+public final class BenchmarkData {
+    // Forked JVMs use 7-digit IDs so 10M parcels fit the structured scheme, and keep the log off the console
+    public static final String ID_DIGITS = "-Ddepot.parcel.id.digits=7";
+    public static final String QUIET_LOG = "-Ddepot.log.console=false";
+    public static final String HEAP = "-Xmx6g";
+
+    private static final String[] DIMENSIONS = {"10x10x10", "12x12x12", "15x15x15", "20x20x20", "8x8x8", "40x40x40", "25x10x5", "30x20x10"};
+    private static final String[] NAMES = {"Ann Jones", "Blair Foster", "Bob Dawson", "Cara Singh", "Dev Patel", "Eve Moore", "Finn Walsh", "Gia Rossi"};
+    private static final double COLLECTED_SHARE = 0.10;
+    private static final long SEED = 42;
+
+    private BenchmarkData() {
+    }
+
+    // Parcel IDs for the scale, in insertion order
+    public static String[] parcelIDs(int count) {
+        ParcelIdCodec codec = ParcelIdCodec.getDefault();
+        long capacity = codec.capacity();
+        if (count > capacity) {
+            throw new IllegalArgumentException(count + " parcels do not fit " + codec.getDigits() + "-digit IDs; run with " + ID_DIGITS);
+        }
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = codec.decode((int) (i * capacity / count));
+        }
+        return ids;
+    }
+
+    // Parcels for the given IDs
+    public static List<Parcel> parcels(String[] ids) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Parcel> parcels = new ArrayList<>(ids.length);
+        for (String id : ids) {
+            parcels.add(new Parcel(id, weight(random), DIMENSIONS[random.nextInt(DIMENSIONS.length)], status(random), random.nextInt(31)));
+        }
+        return parcels;
+    }
+
+    // Customers queued for every tenth parcel, the share of a busy day's pickups
+    public static List<Customer> customers(String[] ids) {
+        List<Customer> customers = new ArrayList<>(ids.length / 10 + 1);
+        for (int i = 0; i < ids.length; i += 10) {
+            customers.add(new Customer(NAMES[(i / 10) % NAMES.length], customers.size() + 1, ids[i]));
+        }
+        return customers;
+    }
+
+    // Writes a parcel file in the loader's format: ID,weight,WxHxL,status,days
+    public static Path writeParcelFile(Path directory, String[] ids) throws IOException {
+        SplittableRandom random = new SplittableRandom(SEED);
+        Path file = directory.resolve("parcels-" + ids.length + ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (String id : ids) {
+                writer.write(id + "," + weight(random) + "," + DIMENSIONS[random.nextInt(DIMENSIONS.length)] + ","
+                        + status(random) + "," + random.nextInt(31));
+                writer.newLine();
+            }
+        }
+        return file;
+    }
+
+    // Writes a customer file in the loader's format: name,parcelID
+    public static Path writeCustomerFile(Path directory, String[] ids) throws IOException {
+        Path file = directory.resolve("customers-" + ids.length + ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (Customer customer : customers(ids)) {
+                writer.write(customer.getName() + "," + customer.getParcelID());
+                writer.newLine();
+            }
+        }
+        return file;
+    }
+
+    // Deletes a directory written by the benchmarks and everything in it
+    public static void delete(Path directory) throws IOException {
+        if (directory == null || !Files.exists(directory)) {
+            return;
+        }
+        try (var paths = Files.walk(directory)) {
+            for (Path path : paths.sorted((a, b) -> b.compareTo(a)).toArray(Path[]::new)) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    // Weights between 0.5 and 25 kg, in half kilos
+    private static double weight(SplittableRandom random) {
+        return 0.5 * (1 + random.nextInt(50));
+    }
+
+    private static String status(SplittableRandom random) {
+        return random.nextDouble() < COLLECTED_SHARE ? Parcel.STATUS_COLLECTED : Parcel.STATUS_PENDING;
+    }
+}
@@ -0,0 +1,67 @@
+package benchmarks;
+
+import controller.DepotWorker;
+import model.Parcel;
+import model.ParcelMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// DepotWorker.calculateFee and calculateDiscount walking the stored parcels in order, so larger scales read columns
+// that no longer fit in cache
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkData.ID_DIGITS, BenchmarkData.QUIET_LOG, BenchmarkData.HEAP})
+public class FeeBenchmark {
+    @Param({"1000", "100000", "10000000"})
+    public int parcels;
+
+    private DepotWorker worker;
+    private ParcelMap parcelMap;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        worker = new DepotWorker("BenchmarkWorker");
+        parcelMap = new ParcelMap();
+        parcelMap.addAll(BenchmarkData.parcels(BenchmarkData.parcelIDs(parcels)));
+    }
+
+    private Parcel nextParcel() {
+        int index = next;
+        next = index + 1 == parcels ? 0 : index + 1;
+        return parcelMap.getParcelAt(index);
+    }
+
+    @Benchmark
+    public double calculateFee() {
+        return worker.calculateFee(nextParcel());
+    }
+
+    @Benchmark
+    public double calculateDiscount() {
+        Parcel parcel = nextParcel();
+        return worker.calculateDiscount(parcel.getParcelID(), 10.0);
+    }
+
+    // Fee then discount, as collecting a parcel does
+    @Benchmark
+    public double feeAfterDiscount() {
+        Parcel parcel = nextParcel();
+        double fee = worker.calculateFee(parcel);
+        return fee - worker.calculateDiscount(parcel.getParcelID(), fee);
+    }
+}
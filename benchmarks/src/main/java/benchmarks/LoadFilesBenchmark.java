@@ -0,0 +1,59 @@
+package benchmarks;
+
+import controller.Manager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Manager.loadFiles into a fresh Manager from generated customer and parcel files; one operation is one full load
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkData.ID_DIGITS, BenchmarkData.QUIET_LOG, BenchmarkData.HEAP})
+public class LoadFilesBenchmark {
+    @Param({"1000", "100000", "10000000"})
+    public int parcels;
+
+    private Path directory;
+    private String customerFile;
+    private String parcelFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        String[] ids = BenchmarkData.parcelIDs(parcels);
+        directory = Files.createTempDirectory("depot-load-bench");
+        customerFile = BenchmarkData.writeCustomerFile(directory, ids).toString();
+        parcelFile = BenchmarkData.writeParcelFile(directory, ids).toString();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        BenchmarkData.delete(directory);
+    }
+
+    @Benchmark
+    public Manager loadFiles() {
+        Manager manager = new Manager();
+        manager.loadFiles(customerFile, parcelFile);
+        if (manager.getParcelMap().size() != parcels) {
+            throw new IllegalStateException("Loaded " + manager.getParcelMap().size() + " of " + parcels + " parcels");
+        }
+        return manager;
+    }
+}
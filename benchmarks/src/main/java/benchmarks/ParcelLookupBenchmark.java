@@ -0,0 +1,63 @@
+package benchmarks;
+
+import model.Parcel;
+import model.ParcelMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// ParcelMap.findParcel for IDs that are present and IDs that are not, probed in a random order that defeats the caches
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkData.ID_DIGITS, BenchmarkData.QUIET_LOG, BenchmarkData.HEAP})
+public class ParcelLookupBenchmark {
+    private static final int PROBES = 1 << 16;
+
+    @Param({"1000", "100000", "10000000"})
+    public int parcels;
+
+    private ParcelMap parcelMap;
+    private String[] hits;
+    private String[] misses;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        String[] ids = BenchmarkData.parcelIDs(parcels);
+        parcelMap = new ParcelMap();
+        parcelMap.addAll(BenchmarkData.parcels(ids));
+
+        // Fresh String copies, as IDs arriving from a form or a request would be
+        SplittableRandom random = new SplittableRandom(7);
+        hits = new String[PROBES];
+        misses = new String[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            hits[i] = new String(ids[random.nextInt(ids.length)]);
+            misses[i] = "Z" + ids[random.nextInt(ids.length)].substring(1);
+        }
+    }
+
+    @Benchmark
+    public Parcel findExisting() {
+        return parcelMap.findParcel(hits[next++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public Parcel findMissing() {
+        return parcelMap.findParcel(misses[next++ & (PROBES - 1)]);
+    }
+}
@@ -0,0 +1,65 @@
+package benchmarks;
+
+import model.Customer;
+import model.QueueOfCustomers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// QueueOfCustomers.removeCustomerByParcelID at a steady queue length: each operation removes a customer from anywhere
+// in the queue and queues them again at the back, as a customer sent away to fetch ID would be
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkData.ID_DIGITS, BenchmarkData.QUIET_LOG, BenchmarkData.HEAP})
+public class QueueBenchmark {
+    private static final int PROBES = 1 << 16;
+
+    @Param({"1000", "100000", "10000000"})
+    public int customers;
+
+    private QueueOfCustomers queue;
+    private Customer[] probes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        // Every parcel has a queued customer here, so the queue is as long as the scale
+        String[] ids = BenchmarkData.parcelIDs(customers);
+        queue = new QueueOfCustomers();
+        List<Customer> all = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            all.add(new Customer("Customer " + i, i + 1, ids[i]));
+        }
+        queue.addAll(all);
+
+        SplittableRandom random = new SplittableRandom(11);
+        probes = new Customer[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probes[i] = all.get(random.nextInt(all.size()));
+        }
+    }
+
+    @Benchmark
+    public boolean removeAndRequeue() {
+        Customer customer = probes[next++ & (PROBES - 1)];
+        boolean removed = queue.removeCustomerByParcelID(customer.getParcelID());
+        queue.add(customer);
+        return removed;
+    }
+}
@@ -0,0 +1,68 @@
+package benchmarks;
+
+import controller.Manager;
+import model.Parcel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Manager.writeReport (the file behind generateReport, without its dialog) over the whole depot, and
+// Manager.generateReceipt for single parcels into a receipt archive in a temporary directory
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {BenchmarkData.ID_DIGITS, BenchmarkData.QUIET_LOG, BenchmarkData.HEAP})
+public class ReportBenchmark {
+    @Param({"1000", "100000", "10000000"})
+    public int parcels;
+
+    private Manager manager;
+    private Path receipts;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        manager = new Manager();
+        manager.getParcelMap().addAll(BenchmarkData.parcels(BenchmarkData.parcelIDs(parcels)));
+        receipts = Files.createTempDirectory("depot-receipt-bench");
+        manager.openReceiptArchive(receipts.toString());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        manager.closeReceiptArchive();
+        BenchmarkData.delete(receipts);
+        Files.deleteIfExists(new File("reports", "benchmark-report.txt").toPath());
+    }
+
+    @Benchmark
+    public File generateReport() throws IOException {
+        return manager.writeReport("benchmark-report.txt");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public String generateReceipt() {
+        int index = next;
+        next = index + 1 == parcels ? 0 : index + 1;
+        Parcel parcel = manager.getParcelMap().getParcelAt(index);
+        return manager.generateReceipt(parcel, 12.5);
+    }
+}
@@ -1,8 +1,11 @@
+import api.DepotApiServer;
 import controller.Manager;
 import util.DirectoryManager;
+import util.Journal;
 import view.MainUI;
 
 import javax.swing.*;
+import java.io.IOException;
 
 public class DepotSystemDemo {
     public static void main(String[] args) {
@@ -13,16 +16,31 @@ public class DepotSystemDemo {
         DirectoryManager.getDirectory(DirectoryManager.LOGS_DIR);
         DirectoryManager.getDirectory(DirectoryManager.RECEIPTS_DIR);
         DirectoryManager.getDirectory(DirectoryManager.REPORTS_DIR);
+        DirectoryManager.getDirectory(DirectoryManager.JOURNAL_DIR);
+        DirectoryManager.getDirectory(DirectoryManager.SNAPSHOT_DIR);
 
         // Initialize the Manager
         Manager manager = new Manager();
 
-        String customerFile = "Custs (1).csv";
-        String parcelFile = "Parcels.csv";
+        // Receipts are appended to segment files in the receipts directory
+        String receiptsDir = System.getProperty("depot.receipts.dir", DirectoryManager.RECEIPTS_DIR);
         try {
-            manager.loadFiles(customerFile, parcelFile);
-        } catch (Exception e) {
-            System.err.println("Error loading initial files: " + e.getMessage());
+            manager.openReceiptArchive(receiptsDir);
+        } catch (IOException e) {
+            System.err.println("Error opening receipt archive " + receiptsDir + ": " + e.getMessage());
+        }
+
+        // Load in the background so the UI opens at once; the tables fill in as rows arrive
+        manager.loadInBackground(() -> loadDepot(manager));
+
+        // Serve the HTTP API for kiosks and scanners alongside the UI when a port is configured
+        Integer apiPort = Integer.getInteger("depot.api.port");
+        if (apiPort != null) {
+            try {
+                new DepotApiServer(manager, apiPort).start();
+            } catch (IOException e) {
+                System.err.println("Error starting the HTTP API on port " + apiPort + ": " + e.getMessage());
+            }
         }
 
         // Launch the Main UI
@@ -30,4 +48,29 @@ public class DepotSystemDemo {
 
         System.out.println("Depot System Application launched successfully.");
     }
+
+    // Loads the snapshot or CSV seed files, replays the journal on top and schedules snapshots; runs on the loader thread
+    private static void loadDepot(Manager manager) {
+        // Start from the binary snapshot when there is a valid one, otherwise from the CSV files
+        String snapshotFile = System.getProperty("depot.snapshot.file", DirectoryManager.SNAPSHOT_DIR + "/depot.snapshot");
+        boolean fromSnapshot = manager.loadSnapshot(snapshotFile);
+        if (!fromSnapshot) {
+            String customerFile = "Custs (1).csv";
+            String parcelFile = "Parcels.csv";
+            manager.loadFilesProgressively(customerFile, parcelFile);
+        }
+
+        // Replay today's changes on top of the snapshot or CSV seed files and journal everything from here on
+        String journalFile = System.getProperty("depot.journal.file", DirectoryManager.JOURNAL_DIR + "/depot.journal");
+        Journal.Durability durability = Journal.Durability.valueOf(System.getProperty("depot.journal.durability", "BATCHED").toUpperCase());
+        try {
+            manager.openJournal(journalFile, durability);
+        } catch (IOException e) {
+            System.err.println("Error opening journal " + journalFile + ": " + e.getMessage());
+        }
+
+        // Snapshot in the background: straight away after a CSV load so the next start is fast, then periodically
+        long snapshotMinutes = Long.getLong("depot.snapshot.intervalMinutes", 10);
+        manager.scheduleSnapshots(snapshotFile, fromSnapshot ? snapshotMinutes : 0, snapshotMinutes);
+    }
 }
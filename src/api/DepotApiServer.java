@@ -0,0 +1,367 @@
+package api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import controller.FeeQuote;
+import controller.Manager;
+import controller.Receipt;
+import model.Customer;
+import model.Dimensions;
+import model.ParcelMap;
+import util.DirectoryManager;
+import util.Journal;
+import util.Json;
+import util.Log;
+import util.VirtualThreads;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+
+// Embedded HTTP/JSON API over the Manager for kiosks and handheld scanners; no Swing involved. Each request runs on
+// its own virtual thread where the JVM has them (JDK 21+), otherwise on a pooled daemon thread.
+//   GET  /health                      depot counts and load state
+//   GET  /parcels/{id}                parcel lookup
+//   GET  /parcels/{id}/quote          fee quote with discount
+//   POST /parcels/{id}/collect        collect at the quoted fee; returns the quote and the receipt
+//   POST /queue                       check in {"name": ..., "parcelID": ...}
+//   GET  /receipts/{number}           receipt by number
+//   GET  /receipts?parcelID={id}      every receipt for a parcel
+public class DepotApiServer {
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    static {
+        // The JDK server writes headers and body separately; with Nagle on, every keep-alive response after the
+        // first waits out the client's delayed ACK (about 40 ms). Read once when the server classes load
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final Manager manager;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final Log log = Log.getInstance();
+
+    // Constructor for DepotApiServer; binds the port but does not start serving
+    public DepotApiServer(Manager manager, int port) throws IOException {
+        this.manager = manager;
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        this.executor = VirtualThreads.newThreadPerTaskExecutor("api");
+        server.setExecutor(executor);
+        server.createContext("/health", handler(this::health));
+        server.createContext("/parcels/", handler(this::parcels));
+        server.createContext("/queue", handler(this::queue));
+        server.createContext("/receipts", handler(this::receipts));
+    }
+
+    // Starts serving requests
+    public void start() {
+        server.start();
+        log.logInfo("Depot API listening on port " + getPort() + (VirtualThreads.isSupported() ? " with virtual threads." : " with platform threads."));
+    }
+
+    // Stops accepting requests, giving in-flight ones up to the delay to finish
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        log.logInfo("Depot API stopped after " + requests.sum() + " requests (" + failures.sum() + " server errors).");
+    }
+
+    // Port actually bound, useful when constructed with port 0
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // GET /health
+    private Response health(HttpExchange exchange, String[] path) {
+        requireMethod(exchange, "GET");
+        String body = new Json.ObjectWriter()
+                .field("status", "ok")
+                .field("parcels", manager.getParcelMap().size())
+                .field("queue", manager.getQueueOfCustomers().size())
+                .field("collected", manager.getReportSummary().getCollections())
+                .field("loading", manager.getLoadProgress().isRunning())
+                .field("acceptingChanges", manager.isAcceptingChanges())
+                .field("requests", requests.sum())
+                .toString();
+        return new Response(200, body);
+    }
+
+    // /parcels/{id}, /parcels/{id}/quote and /parcels/{id}/collect
+    private Response parcels(HttpExchange exchange, String[] path) {
+        if (path.length < 2 || path.length > 3) {
+            return error(404, "Unknown path " + exchange.getRequestURI().getPath());
+        }
+        // Lookups read the columns at the parcel's position instead of creating a Parcel view per request
+        int index = manager.lookupParcelIndex(path[1]);
+        if (index < 0) {
+            return error(404, "Parcel with ID " + path[1] + " not found.");
+        }
+        if (path.length == 2) {
+            requireMethod(exchange, "GET");
+            return new Response(200, parcelJson(manager.getParcelMap(), index));
+        }
+        switch (path[2]) {
+            case "quote":
+                requireMethod(exchange, "GET");
+                return new Response(200, quoteJson(manager.quoteFeeAt(index)));
+            case "collect": {
+                requireMethod(exchange, "POST");
+                if (!manager.isAcceptingChanges()) {
+                    return loading();
+                }
+                try {
+                    Receipt receipt = manager.collectParcel(manager.getParcelMap().getParcelIDAt(index));
+                    String body = new Json.ObjectWriter()
+                            .raw("quote", quoteJson(manager.quoteFeeAt(index)))
+                            .raw("receipt", receiptJson(receipt))
+                            .toString();
+                    return new Response(200, body);
+                } catch (IllegalStateException e) {
+                    // A journal failure part-way through is not a conflict; the collection was not acknowledged
+                    return manager.isAcceptingChanges() ? error(409, e.getMessage()) : loading();
+                }
+            }
+            default:
+                return error(404, "Unknown path " + exchange.getRequestURI().getPath());
+        }
+    }
+
+    // GET /queue for its length, POST /queue to check a customer in
+    private Response queue(HttpExchange exchange, String[] path) throws IOException {
+        if (path.length != 1) {
+            return error(404, "Unknown path " + exchange.getRequestURI().getPath());
+        }
+        if ("GET".equals(exchange.getRequestMethod())) {
+            return new Response(200, new Json.ObjectWriter().field("length", manager.getQueueOfCustomers().size()).toString());
+        }
+        requireMethod(exchange, "POST");
+        if (!manager.isAcceptingChanges()) {
+            return loading();
+        }
+        Map<String, Object> request = Json.parseObject(readBody(exchange));
+        String name = stringField(request, "name");
+        String parcelID = stringField(request, "parcelID");
+        manager.addCustomer(name, parcelID);
+        Customer customer = manager.getQueueOfCustomers().findByParcelID(parcelID);
+        if (customer == null) {
+            return error(409, "Customer for parcel " + parcelID + " left the queue before the response was sent.");
+        }
+        String body = new Json.ObjectWriter()
+                .field("name", customer.getName())
+                .field("parcelID", customer.getParcelID())
+                .field("queueNumber", customer.getQueueNumber())
+                .toString();
+        return new Response(201, body);
+    }
+
+    // GET /receipts/{number} or GET /receipts?parcelID={id}
+    private Response receipts(HttpExchange exchange, String[] path) throws IOException {
+        requireMethod(exchange, "GET");
+        if (path.length == 2) {
+            long number;
+            try {
+                number = Long.parseLong(path[1]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Receipt number must be a whole number: " + path[1]);
+            }
+            Receipt receipt = manager.findReceipt(number);
+            return receipt == null ? error(404, "Receipt " + number + " not found.") : new Response(200, receiptJson(receipt));
+        }
+        String parcelID = queryParameter(exchange.getRequestURI(), "parcelID");
+        if (path.length != 1 || parcelID == null) {
+            return error(400, "Ask for /receipts/{number} or /receipts?parcelID={id}.");
+        }
+        List<String> items = new ArrayList<>();
+        for (Receipt receipt : manager.findReceipts(parcelID)) {
+            items.add(receiptJson(receipt));
+        }
+        return new Response(200, new Json.ObjectWriter().field("parcelID", parcelID).raw("receipts", Json.array(items)).toString());
+    }
+
+    private static String parcelJson(ParcelMap parcels, int index) {
+        Dimensions dimensions = parcels.getDimensionsAt(index);
+        return new Json.ObjectWriter()
+                .field("parcelID", parcels.getParcelIDAt(index))
+                .field("weight", parcels.getWeightAt(index))
+                .field("dimensions", dimensions != null ? dimensions.getText() : null)
+                .field("status", parcels.getStatusAt(index))
+                .field("daysInDepot", parcels.getDaysInDepotAt(index))
+                .toString();
+    }
+
+    private static String quoteJson(FeeQuote quote) {
+        return new Json.ObjectWriter()
+                .field("parcelID", quote.getParcelID())
+                .field("baseFee", quote.getBaseFee())
+                .field("weightFee", quote.getWeightFee())
+                .field("depotFee", quote.getDepotFee())
+                .field("discount", quote.getDiscount())
+                .field("total", quote.getTotal())
+                .toString();
+    }
+
+    private static String receiptJson(Receipt receipt) {
+        return new Json.ObjectWriter()
+                .field("number", receipt.getNumber())
+                .field("issuedMillis", receipt.getIssuedMillis())
+                .field("parcelID", receipt.getParcelID())
+                .field("weight", receipt.getWeight())
+                .field("dimensions", receipt.getDimensions())
+                .field("status", receipt.getStatus())
+                .field("daysInDepot", receipt.getDaysInDepot())
+                .field("fee", receipt.getFee())
+                .field("text", receipt.render())
+                .toString();
+    }
+
+    // 503 for changes attempted before the startup load has replayed the journal, or after the journal has failed
+    private Response loading() {
+        return error(503, manager.getRefusalMessage());
+    }
+
+    private static Response error(int status, String message) {
+        return new Response(status, new Json.ObjectWriter().field("error", message).toString());
+    }
+
+    // Wraps a route: splits the path, maps validation failures to 4xx and anything unexpected to 500
+    private HttpHandler handler(Route route) {
+        return exchange -> {
+            requests.increment();
+            Response response;
+            try {
+                String[] path = exchange.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/+");
+                response = route.handle(exchange, path);
+            } catch (MethodNotAllowed e) {
+                response = error(405, e.getMessage());
+            } catch (IllegalArgumentException e) {
+                response = error(400, e.getMessage());
+            } catch (IOException | RuntimeException e) {
+                if (e instanceof IllegalStateException && !manager.isAcceptingChanges()) {
+                    response = loading();   // The journal failed while this change was being made
+                } else {
+                    failures.increment();
+                    log.logError("API " + exchange.getRequestMethod() + " " + exchange.getRequestURI() + " failed: " + e);
+                    response = error(500, "Internal error");
+                }
+            }
+            send(exchange, response);
+        };
+    }
+
+    private void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] bytes = response.body.getBytes(StandardCharsets.UTF_8);
+        try {
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(response.status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } finally {
+            exchange.close();
+        }
+        if (log.isDebugEnabled()) {
+            log.logDebug(exchange.getRequestMethod() + " " + exchange.getRequestURI() + " -> " + response.status);
+        }
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) {
+        if (!method.equals(exchange.getRequestMethod())) {
+            throw new MethodNotAllowed(exchange.getRequestMethod() + " is not supported here; use " + method + ".");
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("Request body is larger than " + MAX_BODY_BYTES + " bytes.");
+            }
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String stringField(Map<String, Object> request, String name) {
+        Object value = request.get(name);
+        if (value != null && !(value instanceof String)) {
+            throw new IllegalArgumentException("Field '" + name + "' must be a string.");
+        }
+        return (String) value;
+    }
+
+    private static String queryParameter(URI uri, String name) {
+        String query = uri.getQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return pair.substring(eq + 1);
+            }
+        }
+        return null;
+    }
+
+    // One endpoint; path holds the non-empty segments of the request path, starting with the context name
+    private interface Route {
+        Response handle(HttpExchange exchange, String[] path) throws IOException;
+    }
+
+    private static final class Response {
+        private final int status;
+        private final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    // Thrown by requireMethod and turned into a 405 by the route handler
+    private static final class MethodNotAllowed extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        MethodNotAllowed(String message) {
+            super(message);
+        }
+    }
+
+    // Serves the API without the Swing UI.
+    // Usage: java api.DepotApiServer [port] [customerFile] [parcelFile]
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        String customerFile = args.length > 1 ? args[1] : "Custs (1).csv";
+        String parcelFile = args.length > 2 ? args[2] : "Parcels.csv";
+
+        DirectoryManager.getDirectory(DirectoryManager.RECEIPTS_DIR);
+        DirectoryManager.getDirectory(DirectoryManager.JOURNAL_DIR);
+        Manager manager = new Manager();
+        manager.loadFiles(customerFile, parcelFile);
+        manager.openJournal(System.getProperty("depot.journal.file", DirectoryManager.JOURNAL_DIR + "/depot.journal"),
+                Journal.Durability.valueOf(System.getProperty("depot.journal.durability", "BATCHED").toUpperCase()));
+        manager.openReceiptArchive(System.getProperty("depot.receipts.dir", DirectoryManager.RECEIPTS_DIR));
+
+        DepotApiServer api = new DepotApiServer(manager, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            api.stop(1);
+            manager.closeJournal();
+            manager.closeReceiptArchive();
+            manager.getLog().flush();
+        }, "api-shutdown"));
+        api.start();
+        System.out.println("Depot API listening on port " + api.getPort() + " with " + manager.getParcelMap().size() + " parcels.");
+    }
+}
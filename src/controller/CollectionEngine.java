@@ -0,0 +1,187 @@
+package controller;
+
+import model.Customer;
+import util.Log;
+import util.VirtualThreads;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Headless multi-counter collection: each DepotWorker drains the shared queue on its own (virtual) thread
+public class CollectionEngine {
+    private final Manager manager;
+    private final List<DepotWorker> workers;
+    private final boolean emitReceipts;
+    private final Log log = Log.getInstance();
+
+    // Constructor for CollectionEngine with workers named "Counter-1".."Counter-n"
+    public CollectionEngine(Manager manager, int workerCount, boolean emitReceipts) {
+        this(manager, createWorkers(workerCount), emitReceipts);
+    }
+
+    // Constructor for CollectionEngine with the given workers
+    public CollectionEngine(Manager manager, List<DepotWorker> workers, boolean emitReceipts) {
+        if (workers.isEmpty()) {
+            throw new IllegalArgumentException("At least one worker is required");
+        }
+        this.manager = manager;
+        this.workers = Collections.unmodifiableList(new ArrayList<>(workers));
+        this.emitReceipts = emitReceipts;
+    }
+
+    private static List<DepotWorker> createWorkers(int workerCount) {
+        List<DepotWorker> workers = new ArrayList<>(workerCount);
+        for (int i = 1; i <= workerCount; i++) {
+            workers.add(new DepotWorker("Counter-" + i));
+        }
+        return workers;
+    }
+
+    // Retrieves the workers used by this engine
+    public List<DepotWorker> getWorkers() {
+        return workers;
+    }
+
+    // Serves customers until the queue is empty and returns the run's totals
+    public Result run() throws InterruptedException {
+        log.logInfo("Collection engine starting with " + workers.size() + " workers" +
+                (VirtualThreads.isSupported() ? " on virtual threads." : " on platform threads."));
+        long[] processedBefore = new long[workers.size()];
+        long[] failedBefore = new long[workers.size()];
+        double[] feesBefore = new double[workers.size()];
+        for (int i = 0; i < workers.size(); i++) {
+            processedBefore[i] = workers.get(i).getProcessedCount();
+            failedBefore[i] = workers.get(i).getFailedCount();
+            feesBefore[i] = workers.get(i).getFeesCharged();
+        }
+
+        long start = System.nanoTime();
+        List<Thread> threads = new ArrayList<>(workers.size());
+        for (DepotWorker worker : workers) {
+            threads.add(VirtualThreads.start(worker.getName(), () -> {
+                Customer customer;
+                try {
+                    while ((customer = manager.takeNextCustomer()) != null) {
+                        worker.processCustomer(customer, manager, emitReceipts);
+                    }
+                } catch (IllegalStateException e) {
+                    // The manager refuses further changes once the journal fails; stop this worker instead of dying
+                    log.logError(worker.getName() + " stopped: " + e.getMessage());
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        List<WorkerStats> stats = new ArrayList<>(workers.size());
+        for (int i = 0; i < workers.size(); i++) {
+            DepotWorker worker = workers.get(i);
+            stats.add(new WorkerStats(worker.getName(),
+                    worker.getProcessedCount() - processedBefore[i],
+                    worker.getFailedCount() - failedBefore[i],
+                    worker.getFeesCharged() - feesBefore[i],
+                    elapsed));
+        }
+        Result result = new Result(stats, elapsed);
+        log.logInfo(result.toString());
+        return result;
+    }
+
+    // Per-worker counters for one run
+    public static class WorkerStats {
+        private final String name;
+        private final long processed;
+        private final long failed;
+        private final double fees;
+        private final long elapsedNanos;
+
+        public WorkerStats(String name, long processed, long failed, double fees, long elapsedNanos) {
+            this.name = name;
+            this.processed = processed;
+            this.failed = failed;
+            this.fees = fees;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getProcessed() {
+            return processed;
+        }
+
+        public long getFailed() {
+            return failed;
+        }
+
+        public double getFees() {
+            return fees;
+        }
+
+        public double getThroughputPerSecond() {
+            return elapsedNanos == 0 ? 0 : processed * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d collected, %d failed, £%.2f, %.0f/sec", name, processed, failed, fees, getThroughputPerSecond());
+        }
+    }
+
+    // Totals for one run of the engine
+    public static class Result {
+        private final List<WorkerStats> workers;
+        private final long elapsedNanos;
+
+        public Result(List<WorkerStats> workers, long elapsedNanos) {
+            this.workers = Collections.unmodifiableList(workers);
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public List<WorkerStats> getWorkers() {
+            return workers;
+        }
+
+        public long getProcessed() {
+            long total = 0;
+            for (WorkerStats w : workers) {
+                total += w.getProcessed();
+            }
+            return total;
+        }
+
+        public long getFailed() {
+            long total = 0;
+            for (WorkerStats w : workers) {
+                total += w.getFailed();
+            }
+            return total;
+        }
+
+        public double getFees() {
+            double total = 0;
+            for (WorkerStats w : workers) {
+                total += w.getFees();
+            }
+            return total;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(String.format("Collection run: %d collected, %d failed, £%.2f in %.1f ms",
+                    getProcessed(), getFailed(), getFees(), elapsedNanos / 1_000_000.0));
+            for (WorkerStats w : workers) {
+                sb.append("\n  ").append(w);
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,551 @@
+package controller;
+
+import model.Customer;
+import model.Dimensions;
+import model.Parcel;
+import model.ParcelMap;
+import model.QueueOfCustomers;
+import util.Log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class CsvLoader {
+    private static final int MIN_CHUNK_BYTES = 1 << 20;      // Below this a chunk is not worth a thread
+    private static final long MAX_CHUNK_BYTES = 1L << 30;    // A single mapping must stay under 2GB
+    private static final int MAX_FIELDS = 8;
+    private static final int MAX_REJECTED_SAMPLES = 5;       // Rejected lines logged in full per chunk
+    private static final long PROGRESSIVE_CHUNK_BYTES = 4L << 20;   // Chunk size when rows are inserted as they are parsed
+    private static final int INSERT_BATCH_ROWS = 8192;       // Rows per insert when loading progressively; each insert is one change event
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final int parallelism;
+    private final Log log = Log.getInstance();
+
+    // Constructor for CsvLoader using all available cores
+    public CsvLoader() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    // Constructor for CsvLoader with a fixed number of parser threads
+    public CsvLoader(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    // Loads customers into the queue, numbering them in file order starting at 1
+    public LoadResult loadCustomers(String filename, QueueOfCustomers queue) throws IOException {
+        long start = System.nanoTime();
+        ParsedFile<Customer> parsed = parseFile(filename, CsvLoader::parseCustomer, 0, null, null);
+
+        List<Customer> customers = new ArrayList<>(parsed.rows);
+        int queueNumber = 1;
+        for (ChunkResult<Customer> chunk : parsed.chunks) {
+            for (Customer c : chunk.rows) {
+                c.setQueueNumber(queueNumber++);
+                customers.add(c);
+            }
+        }
+        queue.addAll(customers);
+
+        return report(filename, parsed, System.nanoTime() - start);
+    }
+
+    // Loads parcels into the parcel map, keeping file order
+    public LoadResult loadParcels(String filename, ParcelMap parcelMap) throws IOException {
+        long start = System.nanoTime();
+        ParsedFile<Parcel> parsed = parseFile(filename, CsvLoader::parseParcel, 0, null, null);
+
+        List<Parcel> parcels = new ArrayList<>(parsed.rows);
+        for (ChunkResult<Parcel> chunk : parsed.chunks) {
+            parcels.addAll(chunk.rows);
+        }
+        parcelMap.addAll(parcels);
+
+        return report(filename, parsed, System.nanoTime() - start);
+    }
+
+    // Loads customers chunk by chunk in file order, adding each batch to the queue as soon as it is parsed
+    public LoadResult loadCustomersProgressively(String filename, QueueOfCustomers queue, LoadProgress progress) throws IOException {
+        long start = System.nanoTime();
+        int[] queueNumber = {1};
+        ParsedFile<Customer> parsed = parseFile(filename, CsvLoader::parseCustomer, PROGRESSIVE_CHUNK_BYTES, progress, batch -> {
+            for (Customer c : batch) {
+                c.setQueueNumber(queueNumber[0]++);
+            }
+            queue.addAll(batch);
+        });
+        return report(filename, parsed, System.nanoTime() - start);
+    }
+
+    // Loads parcels chunk by chunk in file order, adding each batch to the map as soon as it is parsed
+    public LoadResult loadParcelsProgressively(String filename, ParcelMap parcelMap, LoadProgress progress) throws IOException {
+        long start = System.nanoTime();
+        ParsedFile<Parcel> parsed = parseFile(filename, CsvLoader::parseParcel, PROGRESSIVE_CHUNK_BYTES, progress, parcelMap::addAll);
+        return report(filename, parsed, System.nanoTime() - start);
+    }
+
+    // Logs rejected line samples and the load summary
+    private <T> LoadResult report(String filename, ParsedFile<T> parsed, long elapsedNanos) {
+        long lineOffset = 0;
+        for (ChunkResult<T> chunk : parsed.chunks) {
+            for (int i = 0; i < chunk.sampleCount; i++) {
+                log.logError("Invalid data at " + filename + ":" + (lineOffset + chunk.sampleLines[i]) + ": " + chunk.sampleText[i]);
+            }
+            lineOffset += chunk.lines;
+        }
+
+        LoadResult result = new LoadResult(filename, parsed.rows, parsed.rejected, parsed.bytes, parsed.chunks.size(), elapsedNanos);
+        log.logInfo(result.toString());
+        return result;
+    }
+
+    // Memory-maps the file and parses newline-aligned chunks in parallel. With a sink, chunks no larger than
+    // targetChunkBytes are handed to it in file order as they complete, at most two per thread are parsed ahead,
+    // and their rows are dropped once inserted; without one every chunk is kept for the caller
+    private <T> ParsedFile<T> parseFile(String filename, RowParser<T> rowParser, long targetChunkBytes,
+                                        LoadProgress progress, RowSink<T> sink) throws IOException {
+        Path path = Paths.get(filename);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] bounds = chunkBounds(channel, size, targetChunkBytes);
+            int chunkCount = bounds.length - 1;
+            if (progress != null) {
+                progress.begin("Loading", path.getFileName().toString(), size);
+            }
+
+            List<ChunkResult<T>> chunks = new ArrayList<>(chunkCount);
+            int rows = 0;
+            int rejected = 0;
+            ExecutorService pool = chunkCount == 1 ? null : Executors.newFixedThreadPool(Math.min(parallelism, chunkCount));
+            try {
+                int window = sink == null ? chunkCount : parallelism * 2;
+                List<Future<ChunkResult<T>>> futures = new ArrayList<>(chunkCount);
+                for (int i = 0; i < chunkCount; i++) {
+                    while (pool != null && futures.size() < Math.min(chunkCount, i + window)) {
+                        long from = bounds[futures.size()];
+                        long to = bounds[futures.size() + 1];
+                        futures.add(pool.submit(() -> parseChunk(channel, from, to, rowParser)));
+                    }
+                    ChunkResult<T> chunk = pool == null ? parseChunk(channel, bounds[0], bounds[1], rowParser) : futures.get(i).get();
+                    if (pool != null) {
+                        futures.set(i, null);
+                    }
+                    if (sink != null) {
+                        insert(chunk, rows, bounds[i], bounds[i + 1], progress, sink);
+                    }
+                    rows += chunk.rowCount;
+                    rejected += chunk.rejected;
+                    chunks.add(chunk);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while loading " + filename, e);
+            } catch (ExecutionException e) {
+                throw new IOException("Failed to parse " + filename + ": " + e.getCause().getMessage(), e.getCause());
+            } finally {
+                if (pool != null) {
+                    pool.shutdownNow();
+                }
+            }
+            return new ParsedFile<>(chunks, rows, rejected, size);
+        }
+    }
+
+    // Hands a parsed chunk to the sink in batches, reporting progress after each, then releases its rows
+    private <T> void insert(ChunkResult<T> chunk, int rowsBefore, long from, long to, LoadProgress progress, RowSink<T> sink) {
+        int n = chunk.rows.size();
+        for (int start = 0; start < n; start += INSERT_BATCH_ROWS) {
+            int end = Math.min(n, start + INSERT_BATCH_ROWS);
+            sink.accept(chunk.rows.subList(start, end));
+            if (progress != null) {
+                progress.advance(from + (to - from) * end / n, rowsBefore + end);
+            }
+        }
+        if (progress != null) {
+            progress.advance(to, rowsBefore + n);
+        }
+        chunk.rows.clear();
+        chunk.rows.trimToSize();
+    }
+
+    // Splits the file into chunk boundaries that each start just after a newline; targetChunkBytes > 0 caps the chunk size
+    private long[] chunkBounds(FileChannel channel, long size, long targetChunkBytes) throws IOException {
+        int chunkCount = (int) Math.max(1, Math.min(parallelism, size / MIN_CHUNK_BYTES));
+        if (targetChunkBytes > 0) {
+            chunkCount = (int) Math.max(chunkCount, (size + targetChunkBytes - 1) / targetChunkBytes);
+        }
+        chunkCount = (int) Math.max(chunkCount, (size + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+
+        long[] bounds = new long[chunkCount + 1];
+        bounds[chunkCount] = size;
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        for (int i = 1; i < chunkCount; i++) {
+            long pos = Math.max(bounds[i - 1], size / chunkCount * i);
+            bounds[i] = nextLineStart(channel, pos, size, probe);
+        }
+        return bounds;
+    }
+
+    // Returns the offset just past the first newline at or after pos
+    private long nextLineStart(FileChannel channel, long pos, long size, ByteBuffer probe) throws IOException {
+        while (pos < size) {
+            probe.clear();
+            int read = channel.read(probe, pos);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += read;
+        }
+        return size;
+    }
+
+    // Parses all lines in [from, to) of the mapped file
+    private <T> ChunkResult<T> parseChunk(FileChannel channel, long from, long to, RowParser<T> rowParser) throws IOException {
+        ChunkResult<T> result = new ChunkResult<>();
+        if (to <= from) {
+            return result;
+        }
+
+        MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        LineParser line = new LineParser(buf);
+        int limit = buf.limit();
+        int pos = 0;
+        while (pos < limit) {
+            int end = pos;
+            while (end < limit && buf.get(end) != '\n') {
+                end++;
+            }
+            result.lines++;
+
+            T row = line.split(pos, end) ? rowParser.parse(line) : null;
+            if (row != null) {
+                result.rows.add(row);
+                result.rowCount++;
+            } else {
+                result.reject(result.lines, line.text(pos, end));
+            }
+            pos = end + 1;
+        }
+        return result;
+    }
+
+    // Builds a customer from "name,parcelID"
+    private static Customer parseCustomer(LineParser line) {
+        if (line.fieldCount < 2) {
+            return null;
+        }
+        return new Customer(line.string(0), line.string(1));
+    }
+
+    // Builds a parcel from "parcelID,weight,dimensions,status,days"
+    private static Parcel parseParcel(LineParser line) {
+        if (line.fieldCount < 5) {
+            return null;
+        }
+        double weight = line.parseDouble(1);
+        int days = line.parseInt(4);
+        if (Double.isNaN(weight) || days == Integer.MIN_VALUE) {
+            return null;
+        }
+        return new Parcel(line.string(0), weight, line.dimensions(2), line.status(3), days);
+    }
+
+    // Receives parsed rows in file order during a progressive load
+    private interface RowSink<T> {
+        void accept(List<T> rows);
+    }
+
+    // Converts one split line into a row, or null to reject it
+    private interface RowParser<T> {
+        T parse(LineParser line);
+    }
+
+    // Byte-level field splitter and parser reused for every line in a chunk
+    private static final class LineParser {
+        private final ByteBuffer buf;
+        private final int[] starts = new int[MAX_FIELDS];
+        private final int[] ends = new int[MAX_FIELDS];
+        private final byte[] scratch = new byte[256];
+        private final Dimensions[] internKeys = new Dimensions[256];
+        private final byte[][] internBytes = new byte[256][];
+        private int fieldCount;
+
+        LineParser(ByteBuffer buf) {
+            this.buf = buf;
+        }
+
+        // Records trimmed field offsets; drops trailing empty fields like String.split
+        boolean split(int from, int to) {
+            if (to > from && buf.get(to - 1) == '\r') {
+                to--;
+            }
+            fieldCount = 0;
+            int fieldStart = from;
+            for (int i = from; i <= to && fieldCount < MAX_FIELDS; i++) {
+                if (i == to || buf.get(i) == ',') {
+                    starts[fieldCount] = fieldStart;
+                    ends[fieldCount] = i;
+                    fieldCount++;
+                    fieldStart = i + 1;
+                }
+            }
+            while (fieldCount > 0 && starts[fieldCount - 1] == ends[fieldCount - 1]) {
+                fieldCount--;
+            }
+            for (int f = 0; f < fieldCount; f++) {
+                int s = starts[f];
+                int e = ends[f];
+                while (s < e && (buf.get(s) & 0xFF) <= ' ') {
+                    s++;
+                }
+                while (e > s && (buf.get(e - 1) & 0xFF) <= ' ') {
+                    e--;
+                }
+                starts[f] = s;
+                ends[f] = e;
+            }
+            return fieldCount > 0;
+        }
+
+        // Decodes a field into a new String
+        String string(int field) {
+            int len = ends[field] - starts[field];
+            byte[] bytes = len <= scratch.length ? scratch : new byte[len];
+            buf.get(starts[field], bytes, 0, len);
+            return new String(bytes, 0, len, StandardCharsets.UTF_8);
+        }
+
+        // Parses a "WxHxL" field once per distinct value; repeated sizes share one cached Dimensions
+        Dimensions dimensions(int field) {
+            int s = starts[field];
+            int len = ends[field] - s;
+            int hash = 0;
+            for (int i = 0; i < len; i++) {
+                hash = 31 * hash + buf.get(s + i);
+            }
+            int slot = (hash ^ (hash >>> 16)) & (internKeys.length - 1);
+            byte[] cached = internBytes[slot];
+            if (cached != null && cached.length == len) {
+                boolean same = true;
+                for (int i = 0; i < len && same; i++) {
+                    same = cached[i] == buf.get(s + i);
+                }
+                if (same) {
+                    return internKeys[slot];
+                }
+            }
+            Dimensions value = Dimensions.parse(string(field));
+            byte[] copy = new byte[len];
+            buf.get(s, copy, 0, len);
+            internBytes[slot] = copy;
+            internKeys[slot] = value;
+            return value;
+        }
+
+        // Maps the common status values onto shared constants
+        String status(int field) {
+            if (matches(field, "Pending")) {
+                return "Pending";
+            }
+            if (matches(field, "Collected")) {
+                return "Collected";
+            }
+            return string(field);
+        }
+
+        private boolean matches(int field, String ascii) {
+            int s = starts[field];
+            if (ends[field] - s != ascii.length()) {
+                return false;
+            }
+            for (int i = 0; i < ascii.length(); i++) {
+                if (buf.get(s + i) != ascii.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Parses a plain decimal without allocating, falling back to Double.parseDouble otherwise; NaN if invalid
+        double parseDouble(int field) {
+            int i = starts[field];
+            int e = ends[field];
+            if (i == e) {
+                return Double.NaN;
+            }
+            boolean negative = false;
+            byte b = buf.get(i);
+            if (b == '-' || b == '+') {
+                negative = b == '-';
+                i++;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int fractionDigits = 0;
+            boolean seenPoint = false;
+            for (; i < e; i++) {
+                b = buf.get(i);
+                if (b >= '0' && b <= '9') {
+                    mantissa = mantissa * 10 + (b - '0');
+                    digits++;
+                    if (seenPoint) {
+                        fractionDigits++;
+                    }
+                } else if (b == '.' && !seenPoint) {
+                    seenPoint = true;
+                } else {
+                    return slowParseDouble(field);
+                }
+            }
+            if (digits == 0) {
+                return Double.NaN;
+            }
+            if (digits > 15 || fractionDigits >= POW10.length) {
+                return slowParseDouble(field);
+            }
+            // Both operands are exact doubles, so one division rounds the same way Double.parseDouble does
+            double value = mantissa / POW10[fractionDigits];
+            return negative ? -value : value;
+        }
+
+        private double slowParseDouble(int field) {
+            try {
+                return Double.parseDouble(string(field));
+            } catch (NumberFormatException ex) {
+                return Double.NaN;
+            }
+        }
+
+        // Parses a decimal int without allocating; Integer.MIN_VALUE if invalid
+        int parseInt(int field) {
+            int i = starts[field];
+            int e = ends[field];
+            if (i == e) {
+                return Integer.MIN_VALUE;
+            }
+            boolean negative = false;
+            byte b = buf.get(i);
+            if (b == '-' || b == '+') {
+                negative = b == '-';
+                if (++i == e) {
+                    return Integer.MIN_VALUE;
+                }
+            }
+            long value = 0;
+            for (; i < e; i++) {
+                b = buf.get(i);
+                if (b < '0' || b > '9') {
+                    return Integer.MIN_VALUE;
+                }
+                value = value * 10 + (b - '0');
+                if (value > Integer.MAX_VALUE) {
+                    return Integer.MIN_VALUE;
+                }
+            }
+            return (int) (negative ? -value : value);
+        }
+
+        // Decodes a whole line, used only for rejected lines
+        String text(int from, int to) {
+            int len = Math.min(to - from, 512);
+            byte[] bytes = new byte[len];
+            buf.get(from, bytes, 0, len);
+            return new String(bytes, StandardCharsets.UTF_8).trim();
+        }
+    }
+
+    // Rows parsed from one chunk, in file order
+    private static final class ChunkResult<T> {
+        private final ArrayList<T> rows = new ArrayList<>();
+        private int rowCount;
+        private final long[] sampleLines = new long[MAX_REJECTED_SAMPLES];
+        private final String[] sampleText = new String[MAX_REJECTED_SAMPLES];
+        private int sampleCount;
+        private int rejected;
+        private long lines;
+
+        void reject(long line, String text) {
+            if (sampleCount < MAX_REJECTED_SAMPLES) {
+                sampleLines[sampleCount] = line;
+                sampleText[sampleCount] = text;
+                sampleCount++;
+            }
+            rejected++;
+        }
+    }
+
+    private static final class ParsedFile<T> {
+        private final List<ChunkResult<T>> chunks;
+        private final int rows;
+        private final int rejected;
+        private final long bytes;
+
+        ParsedFile(List<ChunkResult<T>> chunks, int rows, int rejected, long bytes) {
+            this.chunks = chunks;
+            this.rows = rows;
+            this.rejected = rejected;
+            this.bytes = bytes;
+        }
+    }
+
+    // Summary of a completed load
+    public static class LoadResult {
+        private final String filename;
+        private final int rows;
+        private final int rejected;
+        private final long bytes;
+        private final int chunks;
+        private final long elapsedNanos;
+
+        public LoadResult(String filename, int rows, int rejected, long bytes, int chunks, long elapsedNanos) {
+            this.filename = filename;
+            this.rows = rows;
+            this.rejected = rejected;
+            this.bytes = bytes;
+            this.chunks = chunks;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public int getRejected() {
+            return rejected;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rows * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Loaded %s: %d rows, %d rejected, %d bytes in %d chunks, %.1f ms (%.0f rows/sec)",
+                    filename, rows, rejected, bytes, chunks, elapsedNanos / 1_000_000.0, getRowsPerSecond());
+        }
+    }
+}
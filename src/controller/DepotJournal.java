@@ -0,0 +1,156 @@
+package controller;
+
+import model.Customer;
+import model.Parcel;
+import model.ParcelMap;
+import model.QueueOfCustomers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+// Journal record types for depot mutations: Manager encodes one per change, and replay applies them to a freshly loaded depot
+class DepotJournal {
+    static final byte PARCEL_ADDED = 1;
+    static final byte PARCEL_UPDATED = 2;
+    static final byte PARCEL_COLLECTED = 3;
+    static final byte CUSTOMER_QUEUED = 4;
+    static final byte CUSTOMER_TAKEN = 5;
+    static final byte CUSTOMER_REMOVED = 6;
+    static final byte CUSTOMER_MOVED_TO_BACK = 7;
+    static final byte FEE_ADDED = 8;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    // Encoders
+    static byte[] parcelAdded(Parcel parcel) {
+        return encode(out -> {
+            out.writeUTF(parcel.getParcelID());
+            out.writeDouble(parcel.getWeight());
+            writeNullable(out, parcel.getDimensions());
+            writeNullable(out, parcel.getStatus());
+            out.writeInt(parcel.getDaysInDepot());
+        });
+    }
+
+    static byte[] parcelUpdated(String parcelID, double weight, String dimensions, int days) {
+        return encode(out -> {
+            out.writeUTF(parcelID);
+            out.writeDouble(weight);
+            writeNullable(out, dimensions);
+            out.writeInt(days);
+        });
+    }
+
+    static byte[] parcelCollected(String parcelID, double fee) {
+        return encode(out -> {
+            out.writeUTF(parcelID);
+            out.writeDouble(fee);
+        });
+    }
+
+    static byte[] customerQueued(Customer customer) {
+        return encode(out -> {
+            out.writeUTF(customer.getName());
+            out.writeInt(customer.getQueueNumber());
+            out.writeUTF(customer.getParcelID());
+        });
+    }
+
+    static byte[] customerTaken() {
+        return EMPTY;
+    }
+
+    static byte[] parcelID(String parcelID) {
+        return encode(out -> out.writeUTF(parcelID));
+    }
+
+    static byte[] fee(double fee) {
+        return encode(out -> out.writeDouble(fee));
+    }
+
+    // Re-applies one record directly to the model, bypassing Manager so nothing is journaled twice
+    static void apply(Manager manager, byte type, ByteBuffer payload) throws IOException {
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        ParcelMap parcels = manager.getParcelMap();
+        QueueOfCustomers queue = manager.getQueueOfCustomers();
+
+        switch (type) {
+            case PARCEL_ADDED:
+                parcels.addParcel(new Parcel(in.readUTF(), in.readDouble(), readNullable(in), readNullable(in), in.readInt()));
+                break;
+            case PARCEL_UPDATED: {
+                Parcel parcel = parcels.findParcel(in.readUTF());
+                double weight = in.readDouble();
+                String dimensions = readNullable(in);
+                int days = in.readInt();
+                if (parcel != null) {
+                    parcel.setWeight(weight);
+                    parcel.setDimensions(dimensions);
+                    parcel.setDaysInDepot(days);
+                    parcels.notifyParcelUpdated(parcel.getParcelID());
+                }
+                break;
+            }
+            case PARCEL_COLLECTED: {
+                String parcelID = in.readUTF();
+                double fee = in.readDouble();
+                // A snapshot taken between a collection's status change and its journal record holds the parcel
+                // as collected without its fee, so apply the fee unless the collection is already recorded
+                Parcel parcel = parcels.findParcel(parcelID);
+                if (parcels.tryCollect(parcelID) || (parcel != null && parcel.isCollected() && !manager.isCollectionRecorded(parcelID))) {
+                    manager.applyCollection(parcel, fee);
+                }
+                break;
+            }
+            case CUSTOMER_QUEUED:
+                queue.add(new Customer(in.readUTF(), in.readInt(), in.readUTF()));
+                break;
+            case CUSTOMER_TAKEN:
+                queue.getCustomer();
+                break;
+            case CUSTOMER_REMOVED:
+                queue.removeCustomerByParcelID(in.readUTF());
+                break;
+            case CUSTOMER_MOVED_TO_BACK:
+                queue.moveToBack(in.readUTF());
+                break;
+            case FEE_ADDED:
+                manager.getReportSummary().addFee(in.readDouble());
+                break;
+            default:
+                throw new IOException("Unknown journal record type " + type);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static byte[] encode(Body body) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            body.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);    // In-memory streams do not fail
+        }
+        return bytes.toByteArray();
+    }
+
+    private interface Body {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
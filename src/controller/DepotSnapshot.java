@@ -0,0 +1,352 @@
+package controller;
+
+import model.Customer;
+import model.ParcelColumns;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Binary snapshot of the whole depot: parcels as columns, the queue, the collected list and the fee totals.
+// Layout: a fixed header (magic, version, creation time, journal sequence, section counts, payload length,
+// payload CRC32, header CRC32) followed by the payload. Columns are stored as raw big-endian arrays so
+// loading is a bulk copy out of the memory-mapped file rather than text parsing.
+public class DepotSnapshot {
+    static final int MAGIC = 0x4450534E;    // "DPSN"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+    private static final int HEADER_CRC_OFFSET = 60;
+    private static final int CHUNK_BYTES = 1 << 20;
+
+    // Everything a snapshot holds, captured at one instant
+    static final class State {
+        long createdMillis;
+        long journalSequence;
+        long journalOffset;     // Journal length at journalSequence, so the covered records can be dropped; not written out
+        ParcelColumns parcels;
+        List<Customer> queue;
+        List<String> collectedParcelIDs;
+        long collections;
+        double totalFees;
+        double totalDiscounts;
+        List<ReportSummary.RuleTotals> rules;
+    }
+
+    // Writes to a temporary file, fsyncs it and renames it over the target so readers never see a partial snapshot
+    static Info write(State state, Path file) throws IOException {
+        long start = System.nanoTime();
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        long payloadBytes;
+        int payloadCrc;
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.position(HEADER_BYTES);
+            PayloadWriter payload = new PayloadWriter(out);
+            writePayload(state, payload);
+            payloadBytes = payload.finish();
+            payloadCrc = (int) payload.crc.getValue();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.putLong(state.createdMillis);
+            header.putLong(state.journalSequence);
+            header.putLong(payloadBytes);
+            header.putInt(payloadCrc);
+            header.putInt(state.parcels.size());
+            header.putInt(state.queue.size());
+            header.putInt(state.collectedParcelIDs.size());
+            CRC32 crc = new CRC32();
+            crc.update(header.array(), 0, HEADER_CRC_OFFSET);
+            header.putInt(HEADER_CRC_OFFSET, (int) crc.getValue());
+            header.rewind();
+            out.write(header, 0);
+            out.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return new Info(file, HEADER_BYTES + payloadBytes, state.parcels.size(), state.journalSequence, System.nanoTime() - start);
+    }
+
+    private static void writePayload(State state, PayloadWriter out) throws IOException {
+        ParcelColumns parcels = state.parcels;
+        int n = parcels.size();
+        out.strings(parcels.getStatusNames(), parcels.getStatusNames().length);
+        out.strings(parcels.getDimensionTexts(), parcels.getDimensionTexts().length);
+        out.strings(parcels.getParcelIDs(), n);
+        out.doubles(parcels.getWeights(), n);
+        out.ints(parcels.getDaysInDepot(), n);
+        out.bytes(parcels.getStatusCodes(), n);
+        out.ints(parcels.getDimensionCodes(), n);
+
+        for (Customer c : state.queue) {
+            out.string(c.getName());
+            out.ensure(4);
+            out.buffer.putInt(c.getQueueNumber());
+            out.string(c.getParcelID());
+        }
+        for (String id : state.collectedParcelIDs) {
+            out.string(id);
+        }
+
+        out.ensure(8 + 8 + 8 + 4);
+        out.buffer.putLong(state.collections);
+        out.buffer.putDouble(state.totalFees);
+        out.buffer.putDouble(state.totalDiscounts);
+        out.buffer.putInt(state.rules.size());
+        for (ReportSummary.RuleTotals t : state.rules) {
+            out.string(t.getKey());
+            out.string(t.getLabel());
+            out.ensure(8 + 8 + 8);
+            out.buffer.putLong(t.getParcels());
+            out.buffer.putDouble(t.getRevenue());
+            out.buffer.putDouble(t.getDiscounts());
+        }
+    }
+
+    // Memory-maps and validates a snapshot, then decodes it; throws IOException if it is missing, corrupt or from another version
+    static State read(Path file) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = in.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException("Snapshot is truncated: " + size + " bytes");
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot is too large to map: " + size + " bytes");
+            }
+            ByteBuffer buf = in.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            CRC32 crc = new CRC32();
+            crc.update(buf.slice(0, HEADER_CRC_OFFSET));
+            if ((int) crc.getValue() != buf.getInt(HEADER_CRC_OFFSET)) {
+                throw new IOException("Snapshot header checksum mismatch");
+            }
+            if (buf.getInt(0) != MAGIC) {
+                throw new IOException("Not a depot snapshot");
+            }
+            if (buf.getInt(4) != VERSION) {
+                throw new IOException("Unsupported snapshot version " + buf.getInt(4) + " (expected " + VERSION + ")");
+            }
+            State state = new State();
+            state.createdMillis = buf.getLong(8);
+            state.journalSequence = buf.getLong(16);
+            long payloadBytes = buf.getLong(24);
+            int payloadCrc = buf.getInt(32);
+            int parcelCount = buf.getInt(36);
+            int queueCount = buf.getInt(40);
+            int collectedCount = buf.getInt(44);
+            if (payloadBytes != size - HEADER_BYTES) {
+                throw new IOException("Snapshot payload length mismatch: header says " + payloadBytes + ", file has " + (size - HEADER_BYTES));
+            }
+            crc.reset();
+            crc.update(buf.slice(HEADER_BYTES, (int) payloadBytes));
+            if ((int) crc.getValue() != payloadCrc) {
+                throw new IOException("Snapshot payload checksum mismatch");
+            }
+
+            buf.position(HEADER_BYTES);
+            String[] statusNames = readStrings(buf, buf.getInt());
+            String[] dimensionTexts = readStrings(buf, buf.getInt());
+            if (buf.getInt() != parcelCount) {
+                throw new IOException("Snapshot parcel column does not match the header count");
+            }
+            String[] ids = readStrings(buf, parcelCount);
+            double[] weights = new double[parcelCount];
+            buf.asDoubleBuffer().get(weights);
+            buf.position(buf.position() + parcelCount * 8);
+            int[] days = new int[parcelCount];
+            buf.asIntBuffer().get(days);
+            buf.position(buf.position() + parcelCount * 4);
+            byte[] statuses = new byte[parcelCount];
+            buf.get(statuses);
+            int[] dims = new int[parcelCount];
+            buf.asIntBuffer().get(dims);
+            buf.position(buf.position() + parcelCount * 4);
+            state.parcels = new ParcelColumns(parcelCount, ids, weights, days, statuses, dims, statusNames, dimensionTexts);
+
+            state.queue = new ArrayList<>(queueCount);
+            for (int i = 0; i < queueCount; i++) {
+                String name = readString(buf);
+                int queueNumber = buf.getInt();
+                state.queue.add(new Customer(name, queueNumber, readString(buf)));
+            }
+            state.collectedParcelIDs = new ArrayList<>(collectedCount);
+            for (int i = 0; i < collectedCount; i++) {
+                state.collectedParcelIDs.add(readString(buf));
+            }
+
+            state.collections = buf.getLong();
+            state.totalFees = buf.getDouble();
+            state.totalDiscounts = buf.getDouble();
+            int rules = buf.getInt();
+            state.rules = new ArrayList<>(rules);
+            for (int i = 0; i < rules; i++) {
+                String key = readString(buf);
+                String label = readString(buf);
+                state.rules.add(new ReportSummary.RuleTotals(key, label, buf.getLong(), buf.getDouble(), buf.getDouble()));
+            }
+            return state;
+        } catch (RuntimeException e) {
+            // Buffer underflows and the like mean the payload does not match its own counts
+            throw new IOException("Snapshot is malformed: " + e, e);
+        }
+    }
+
+    private static String[] readStrings(ByteBuffer buf, int count) {
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = readString(buf);
+        }
+        return values;
+    }
+
+    // Strings are an int byte length (-1 for null) followed by UTF-8 bytes
+    private static String readString(ByteBuffer buf) {
+        int len = buf.getInt();
+        if (len < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[len];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Buffers payload writes in chunks, checksumming each chunk as it goes to disk
+    private static final class PayloadWriter {
+        private final FileChannel out;
+        private final ByteBuffer buffer = ByteBuffer.allocate(CHUNK_BYTES);
+        private final CRC32 crc = new CRC32();
+        private long written;
+
+        PayloadWriter(FileChannel out) {
+            this.out = out;
+        }
+
+        void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void string(String value) throws IOException {
+            if (value == null) {
+                ensure(4);
+                buffer.putInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length + 4 > CHUNK_BYTES) {
+                throw new IOException("String too long for snapshot: " + bytes.length + " bytes");
+            }
+            ensure(4 + bytes.length);
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+
+        void strings(String[] values, int count) throws IOException {
+            ensure(4);
+            buffer.putInt(count);
+            for (int i = 0; i < count; i++) {
+                string(values[i]);
+            }
+        }
+
+        void doubles(double[] values, int count) throws IOException {
+            for (int from = 0; from < count; ) {
+                ensure(8);
+                int len = Math.min(count - from, buffer.remaining() / 8);
+                buffer.asDoubleBuffer().put(values, from, len);
+                buffer.position(buffer.position() + len * 8);
+                from += len;
+            }
+        }
+
+        void ints(int[] values, int count) throws IOException {
+            for (int from = 0; from < count; ) {
+                ensure(4);
+                int len = Math.min(count - from, buffer.remaining() / 4);
+                buffer.asIntBuffer().put(values, from, len);
+                buffer.position(buffer.position() + len * 4);
+                from += len;
+            }
+        }
+
+        void bytes(byte[] values, int count) throws IOException {
+            for (int from = 0; from < count; ) {
+                ensure(1);
+                int len = Math.min(count - from, buffer.remaining());
+                buffer.put(values, from, len);
+                from += len;
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.array(), 0, buffer.limit());
+            written += buffer.limit();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        long finish() throws IOException {
+            flush();
+            return written;
+        }
+    }
+
+    // What a snapshot write or load produced
+    public static class Info {
+        private final Path path;
+        private final long bytes;
+        private final int parcels;
+        private final long journalSequence;
+        private final long elapsedNanos;
+
+        Info(Path path, long bytes, int parcels, long journalSequence, long elapsedNanos) {
+            this.path = path;
+            this.bytes = bytes;
+            this.parcels = parcels;
+            this.journalSequence = journalSequence;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public int getParcels() {
+            return parcels;
+        }
+
+        public long getJournalSequence() {
+            return journalSequence;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d parcels, %d bytes, journal sequence %d, %.1f ms",
+                    path, parcels, bytes, journalSequence, elapsedNanos / 1e6);
+        }
+    }
+}
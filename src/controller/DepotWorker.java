@@ -5,12 +5,17 @@ import model.Parcel;
 import model.ParcelMap;
 import util.Log;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
 
 public class DepotWorker {
+    private static final DiscountRules DISCOUNT_RULES = DiscountRules.getInstance();
+
     private String name;
     private Log log = Log.getInstance();
+    private final AtomicLong processedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final DoubleAdder feesCharged = new DoubleAdder();
 
     // Constructor for DepotWorker
     public DepotWorker(String name) {
@@ -18,33 +23,91 @@ public class DepotWorker {
         log.logInfo("DepotWorker initialized with name: " + name);
     }
 
+    // Retrieves the worker's name
+    public String getName() {
+        return name;
+    }
+
     // Calculates the total fee for a given parcel
     public double calculateFee(Parcel parcel) {
-        log.logInfo("Calculating fee for parcel: " + parcel.getParcelID());
-        double baseFee = 5.00;
-        double weightFee = parcel.getWeight() * 0.5;
-        double depotFee = parcel.getDaysInDepot() * 0.2;
-        double total = baseFee + weightFee + depotFee;
-        log.logInfo("Fee calculated for parcel: " + parcel.getParcelID() +
-                ". Base: £5.00, Weight Fee: £" + String.format("%.2f", weightFee) +
-                ", Depot Fee: £" + String.format("%.2f", depotFee) +
-                ", Total: £" + String.format("%.2f", total));
+        return calculateFee(parcel.getParcelID(), parcel.getWeight(), parcel.getDaysInDepot());
+    }
+
+    // Calculates the total fee from a parcel's fields, for callers that read them without a Parcel object
+    public double calculateFee(String parcelID, double weight, int daysInDepot) {
+        log.logDebug("Calculating fee for parcel: {}", parcelID);
+        double total = computeFee(weight, daysInDepot);
+        if (log.isDebugEnabled()) {
+            log.logDebug(String.format("Fee calculated for parcel: %s. Base: £5.00, Weight Fee: £%.2f, Depot Fee: £%.2f, Total: £%.2f",
+                    parcelID, weight * 0.5, daysInDepot * 0.2, total));
+        }
         return total;
     }
 
     // Calculates the discount for a given parcel based on its ID and total fee
     public double calculateDiscount(String parcelID, double totalFee) {
-        log.logInfo("Calculating discount for parcel: " + parcelID);
-        double discount = 0.0;
-        if (parcelID.startsWith("X") && parcelID.endsWith("0")) {
-            discount = totalFee * 0.20;
-        } else if (parcelID.startsWith("X") && parcelID.endsWith("5")) {
-            discount = totalFee * 0.10;
-        } else if (parcelID.startsWith("C")) {
-            discount = totalFee * 0.05;
+        log.logDebug("Calculating discount for parcel: {}", parcelID);
+        double discount = parcelID.isEmpty() ? 0.0
+                : totalFee * discountRate(parcelID.charAt(0), parcelID.charAt(parcelID.length() - 1));
+        if (log.isDebugEnabled()) {
+            log.logDebug(String.format("Discount applied for parcel: %s. Discount: £%.2f", parcelID, discount));
         }
-        log.logInfo("Discount applied for parcel: " + parcelID + ". Discount: £" + String.format("%.2f", discount));
         return discount;
     }
 
+    // Fee formula shared by the single-parcel and batch paths
+    static double computeFee(double weight, int daysInDepot) {
+        double baseFee = 5.00;
+        double weightFee = weight * 0.5;
+        double depotFee = daysInDepot * 0.2;
+        return baseFee + weightFee + depotFee;
+    }
+
+    // Discount rate for a parcel ID given its first and last characters, from the compiled rule table
+    static double discountRate(char first, char last) {
+        return DISCOUNT_RULES.current().rate(first, last);
+    }
+
+    // Collects a customer's parcel: computes the fee, wins the collection, records the charge and optionally the receipt
+    public boolean processCustomer(Customer customer, Manager manager, boolean emitReceipt) {
+        ParcelMap parcelMap = manager.getParcelMap();
+        Parcel parcel = parcelMap.findParcel(customer.getParcelID());
+        if (parcel == null) {
+            log.logError(name + ": parcel not found for customer " + customer.getName() + " [Parcel ID: " + customer.getParcelID() + "]");
+            failedCount.incrementAndGet();
+            return false;
+        }
+
+        double totalFee = calculateFee(parcel);
+        double fee = totalFee - calculateDiscount(parcel.getParcelID(), totalFee);
+        if (!parcelMap.tryCollect(parcel.getParcelID())) {
+            log.logError(name + ": parcel already collected " + parcel.getParcelID());
+            failedCount.incrementAndGet();
+            return false;
+        }
+
+        manager.recordCollection(parcel, fee);
+        if (emitReceipt) {
+            manager.issueReceipt(parcel, fee);
+        }
+        processedCount.incrementAndGet();
+        feesCharged.add(fee);
+        log.logDebug("{} collected parcel {}", name, parcel.getParcelID());
+        return true;
+    }
+
+    // Number of customers this worker has served
+    public long getProcessedCount() {
+        return processedCount.get();
+    }
+
+    // Number of customers this worker could not serve
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    // Total fees charged by this worker
+    public double getFeesCharged() {
+        return feesCharged.sum();
+    }
 }
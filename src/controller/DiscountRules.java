@@ -0,0 +1,238 @@
+package controller;
+
+import util.Log;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Discount rules loaded from a CSV file and compiled into an O(1) decision table; reloaded when the file changes
+public class DiscountRules {
+    public static final String DEFAULT_FILE = "Discounts.csv";
+    private static final long RELOAD_CHECK_SECONDS = 2;
+
+    private static DiscountRules instance;
+
+    private final File file;
+    private final Log log = Log.getInstance();
+    private volatile Table table;
+    private volatile long loadedModified = Long.MIN_VALUE;
+
+    // Constructor for DiscountRules; starts polling the file for changes
+    private DiscountRules(File file) {
+        this.file = file;
+        this.table = Table.compile(defaultRules());
+        reloadIfChanged();
+
+        ScheduledExecutorService watcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "discount-rules-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watcher.scheduleWithFixedDelay(this::reloadIfChanged, RELOAD_CHECK_SECONDS, RELOAD_CHECK_SECONDS, TimeUnit.SECONDS);
+    }
+
+    // Creates the shared instance, reading the file named by -Ddepot.discounts.file (default Discounts.csv)
+    public static synchronized DiscountRules getInstance() {
+        if (instance == null) {
+            instance = new DiscountRules(new File(System.getProperty("depot.discounts.file", DEFAULT_FILE)));
+        }
+        return instance;
+    }
+
+    // Retrieves the compiled table currently in force
+    public Table current() {
+        return table;
+    }
+
+    // Re-reads and recompiles the rules if the file's modification time changed
+    public synchronized void reloadIfChanged() {
+        long modified = file.exists() ? file.lastModified() : 0;
+        if (modified == loadedModified) {
+            return;
+        }
+        loadedModified = modified;
+
+        if (modified == 0) {
+            log.logInfo("Discount rules file not found, using built-in rules: " + file.getPath());
+            table = Table.compile(defaultRules());
+            return;
+        }
+        try {
+            List<Rule> rules = parse(file);
+            table = Table.compile(rules);
+            log.logInfo("Discount rules loaded from " + file.getPath() + ": " + rules.size() + " rules.");
+        } catch (IOException | IllegalArgumentException e) {
+            log.logError("Failed to load discount rules from " + file.getPath() + ", keeping previous rules. Error: " + e.getMessage());
+        }
+    }
+
+    // Parses "prefix,lastDigit,rate" lines; lastDigit may be '*' for any; '#' starts a comment
+    private static List<Rule> parse(File file) throws IOException {
+        List<Rule> rules = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = br.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] data = line.split(",");
+                if (data.length < 3 || data[0].trim().length() != 1 || data[1].trim().length() != 1) {
+                    throw new IllegalArgumentException("Invalid discount rule at line " + lineNumber + ": " + line);
+                }
+                char prefix = data[0].trim().charAt(0);
+                char suffix = data[1].trim().charAt(0);
+                if (suffix != Rule.ANY_SUFFIX && (suffix < '0' || suffix > '9')) {
+                    throw new IllegalArgumentException("Last digit must be 0-9 or * at line " + lineNumber + ": " + line);
+                }
+                double rate;
+                try {
+                    rate = Double.parseDouble(data[2].trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid rate at line " + lineNumber + ": " + line);
+                }
+                if (rate < 0 || rate > 1) {
+                    throw new IllegalArgumentException("Rate must be between 0 and 1 at line " + lineNumber + ": " + line);
+                }
+                rules.add(new Rule(prefix, suffix, rate));
+            }
+        }
+        return rules;
+    }
+
+    // The rules that used to be hard-coded in DepotWorker.calculateDiscount
+    private static List<Rule> defaultRules() {
+        return Arrays.asList(
+                new Rule('X', '0', 0.20),
+                new Rule('X', '5', 0.10),
+                new Rule('C', Rule.ANY_SUFFIX, 0.05));
+    }
+
+    // One discount rule: IDs starting with prefix and ending with suffix (or any suffix)
+    public static class Rule {
+        public static final char ANY_SUFFIX = '*';
+
+        private final char prefix;
+        private final char suffix;
+        private final double rate;
+
+        public Rule(char prefix, char suffix, double rate) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+            this.rate = rate;
+        }
+
+        public char getPrefix() {
+            return prefix;
+        }
+
+        public char getSuffix() {
+            return suffix;
+        }
+
+        public double getRate() {
+            return rate;
+        }
+
+        // Human-readable form used by the fees dialog
+        public String describe() {
+            String percent = new DecimalFormat("#.##").format(rate * 100);
+            if (suffix == ANY_SUFFIX) {
+                return "Parcel IDs starting with '" + prefix + "': " + percent + "% discount";
+            }
+            return "Parcel IDs starting with '" + prefix + "' and ending with '" + suffix + "': " + percent + "% discount";
+        }
+
+        @Override
+        public String toString() {
+            return prefix + "," + suffix + "," + rate;
+        }
+    }
+
+    // Immutable decision table indexed by [first ID character][last digit, or 10 for anything else]
+    public static class Table {
+        private static final int PREFIXES = 128;
+        private static final int COLUMNS = 11;
+        private static final int OTHER_COLUMN = 10;
+
+        private final List<Rule> rules;
+        private final double[] rates = new double[PREFIXES * COLUMNS];
+        private final byte[] ruleIndex = new byte[PREFIXES * COLUMNS];
+
+        private Table(List<Rule> rules) {
+            this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+            Arrays.fill(ruleIndex, (byte) -1);
+        }
+
+        // Fills each cell with the first matching rule, preserving the file's precedence
+        static Table compile(List<Rule> rules) {
+            if (rules.size() > Byte.MAX_VALUE) {
+                throw new IllegalArgumentException("At most " + Byte.MAX_VALUE + " discount rules are supported");
+            }
+            Table table = new Table(rules);
+            for (int r = 0; r < rules.size(); r++) {
+                Rule rule = rules.get(r);
+                if (rule.prefix >= PREFIXES) {
+                    continue;
+                }
+                int row = rule.prefix * COLUMNS;
+                for (int col = 0; col < COLUMNS; col++) {
+                    boolean matches = rule.suffix == Rule.ANY_SUFFIX || (col < OTHER_COLUMN && rule.suffix == '0' + col);
+                    if (matches && table.ruleIndex[row + col] < 0) {
+                        table.ruleIndex[row + col] = (byte) r;
+                        table.rates[row + col] = rule.rate;
+                    }
+                }
+            }
+            return table;
+        }
+
+        private static int cell(char first, char last) {
+            if (first >= PREFIXES) {
+                return -1;
+            }
+            int col = last >= '0' && last <= '9' ? last - '0' : OTHER_COLUMN;
+            return first * COLUMNS + col;
+        }
+
+        // Discount rate for an ID with the given first and last characters
+        public double rate(char first, char last) {
+            int cell = cell(first, last);
+            return cell < 0 ? 0.0 : rates[cell];
+        }
+
+        // Index into getRules() of the rule that applies, or -1 if none does
+        public int ruleIndex(char first, char last) {
+            int cell = cell(first, last);
+            return cell < 0 ? -1 : ruleIndex[cell];
+        }
+
+        public List<Rule> getRules() {
+            return rules;
+        }
+
+        // Lines for the fees dialog, in precedence order
+        public String describe() {
+            if (rules.isEmpty()) {
+                return "- No discounts currently apply\n";
+            }
+            StringBuilder sb = new StringBuilder();
+            for (Rule rule : rules) {
+                sb.append("- ").append(rule.describe()).append("\n");
+            }
+            return sb.toString();
+        }
+    }
+}
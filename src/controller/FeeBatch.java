@@ -0,0 +1,151 @@
+package controller;
+
+import model.Parcel;
+import model.ParcelColumns;
+import model.ParcelMap;
+import util.Log;
+
+import java.util.stream.IntStream;
+
+// Fees and discounts for a whole ParcelMap snapshot, computed over primitive arrays
+public class FeeBatch {
+    private static final int PARALLEL_THRESHOLD = 16_384;   // Below this the fork/join overhead is not worth it
+    private static final int CHUNK_SIZE = 4_096;
+
+    private final String[] parcelIDs;
+    private final double[] weights;
+    private final int[] days;
+    private final char[] firstChars;
+    private final char[] lastChars;
+    private final double[] fees;
+    private final double[] discounts;
+
+    private FeeBatch(int size) {
+        parcelIDs = new String[size];
+        weights = new double[size];
+        days = new int[size];
+        firstChars = new char[size];
+        lastChars = new char[size];
+        fees = new double[size];
+        discounts = new double[size];
+    }
+
+    // Snapshots the parcel map (optionally only pending parcels) and computes every fee and discount. Reads the copied
+    // columns directly; collected parcels are skipped by status code, without building Parcel views
+    public static FeeBatch compute(ParcelMap parcelMap, boolean pendingOnly) {
+        ParcelColumns columns = parcelMap.copyColumns();
+        String[] ids = columns.getParcelIDs();
+        double[] weights = columns.getWeights();
+        int[] days = columns.getDaysInDepot();
+        byte[] statuses = columns.getStatusCodes();
+        int n = columns.size();
+
+        String[] statusNames = columns.getStatusNames();
+        boolean[] collectedCode = new boolean[statusNames.length];
+        for (int code = 0; code < statusNames.length; code++) {
+            collectedCode[code] = Parcel.STATUS_COLLECTED.equalsIgnoreCase(statusNames[code]);
+        }
+
+        int count = n;
+        if (pendingOnly) {
+            count = 0;
+            for (int slot = 0; slot < n; slot++) {
+                if (statuses[slot] < 0 || !collectedCode[statuses[slot]]) {
+                    count++;
+                }
+            }
+        }
+
+        FeeBatch batch = new FeeBatch(count);
+        for (int slot = 0, i = 0; slot < n; slot++) {
+            if (pendingOnly && statuses[slot] >= 0 && collectedCode[statuses[slot]]) {
+                continue;
+            }
+            String id = ids[slot];
+            batch.parcelIDs[i] = id;
+            batch.weights[i] = weights[slot];
+            batch.days[i] = days[slot];
+            batch.firstChars[i] = id.isEmpty() ? 0 : id.charAt(0);
+            batch.lastChars[i] = id.isEmpty() ? 0 : id.charAt(id.length() - 1);
+            i++;
+        }
+
+        long start = System.nanoTime();
+        batch.computeAll();
+        long elapsed = System.nanoTime() - start;
+        Log.getInstance().logInfo(() -> String.format("Fee batch computed for %d parcels in %.2f ms", batch.size(), elapsed / 1_000_000.0));
+        return batch;
+    }
+
+    // Uses one rule table for the whole batch so a reload mid-batch cannot mix rule sets
+    private void computeAll() {
+        DiscountRules.Table rules = DiscountRules.getInstance().current();
+        int n = fees.length;
+        if (n < PARALLEL_THRESHOLD) {
+            computeRange(rules, 0, n);
+        } else {
+            int chunks = (n + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            IntStream.range(0, chunks).parallel()
+                    .forEach(c -> computeRange(rules, c * CHUNK_SIZE, Math.min(n, (c + 1) * CHUNK_SIZE)));
+        }
+    }
+
+    // Tight loop over primitive arrays; uses the same formulas as DepotWorker so results match to the penny
+    private void computeRange(DiscountRules.Table rules, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double total = DepotWorker.computeFee(weights[i], days[i]);
+            fees[i] = total;
+            discounts[i] = firstChars[i] == 0 ? 0.0 : total * rules.rate(firstChars[i], lastChars[i]);
+        }
+    }
+
+    // Number of parcels in the batch
+    public int size() {
+        return fees.length;
+    }
+
+    public String getParcelID(int i) {
+        return parcelIDs[i];
+    }
+
+    // Fee before discount, as DepotWorker.calculateFee
+    public double getFee(int i) {
+        return fees[i];
+    }
+
+    // Discount, as DepotWorker.calculateDiscount
+    public double getDiscount(int i) {
+        return discounts[i];
+    }
+
+    public double getFinalFee(int i) {
+        return fees[i] - discounts[i];
+    }
+
+    // Retrieves the underlying arrays; callers must not modify them
+    public double[] getFees() {
+        return fees;
+    }
+
+    public double[] getDiscounts() {
+        return discounts;
+    }
+
+    // Sum of fees after discount across the batch
+    public double getTotalFinalFees() {
+        double total = 0;
+        for (int i = 0; i < fees.length; i++) {
+            total += fees[i] - discounts[i];
+        }
+        return total;
+    }
+
+    // Sum of discounts across the batch
+    public double getTotalDiscounts() {
+        double total = 0;
+        for (double d : discounts) {
+            total += d;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,53 @@
+package controller;
+
+// Breakdown of the fee for collecting one parcel, as quoted to the customer before collection
+public class FeeQuote {
+    private final String parcelID;
+    private final double baseFee;
+    private final double weightFee;
+    private final double depotFee;
+    private final double discount;
+    private final double total;
+
+    // Constructor for FeeQuote
+    public FeeQuote(String parcelID, double baseFee, double weightFee, double depotFee, double discount, double total) {
+        this.parcelID = parcelID;
+        this.baseFee = baseFee;
+        this.weightFee = weightFee;
+        this.depotFee = depotFee;
+        this.discount = discount;
+        this.total = total;
+    }
+
+    // Getters
+    public String getParcelID() {
+        return parcelID;
+    }
+
+    public double getBaseFee() {
+        return baseFee;
+    }
+
+    public double getWeightFee() {
+        return weightFee;
+    }
+
+    public double getDepotFee() {
+        return depotFee;
+    }
+
+    public double getDiscount() {
+        return discount;
+    }
+
+    // Fee to charge after the discount
+    public double getTotal() {
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Parcel ID: %s, Base Fee: £%.2f, Weight Fee: £%.2f, Depot Fee: £%.2f, Discount: £%.2f, Total Fee: £%.2f",
+                parcelID, baseFee, weightFee, depotFee, discount, total);
+    }
+}
@@ -0,0 +1,97 @@
+package controller;
+
+import java.util.Collections;
+import java.util.List;
+
+// Outcome of a bulk parcel import: how many rows were added and, for every rejected row, where it was and why
+public class ImportReport {
+    private final int submitted;
+    private final int accepted;
+    private final List<Rejection> rejections;
+    private final long elapsedNanos;
+
+    // Constructor for ImportReport
+    public ImportReport(int submitted, int accepted, List<Rejection> rejections, long elapsedNanos) {
+        this.submitted = submitted;
+        this.accepted = accepted;
+        this.rejections = Collections.unmodifiableList(rejections);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    // Getters
+    public int getSubmitted() {
+        return submitted;
+    }
+
+    public int getAccepted() {
+        return accepted;
+    }
+
+    public int getRejected() {
+        return rejections.size();
+    }
+
+    // Rejected rows in row order
+    public List<Rejection> getRejections() {
+        return rejections;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Imported %d of %d parcels (%d rejected) in %.2f ms",
+                accepted, submitted, rejections.size(), elapsedNanos / 1_000_000.0);
+    }
+
+    // Why a row was turned away
+    public enum Reason {
+        MISSING_ID,
+        INVALID_ID,
+        INVALID_WEIGHT,
+        INVALID_DIMENSIONS,
+        INVALID_DAYS,
+        DUPLICATE_IN_BATCH,
+        ALREADY_EXISTS
+    }
+
+    // One rejected row: its zero-based position in the submitted batch, its parcel ID and the problem found
+    public static class Rejection {
+        private final int row;
+        private final String parcelID;
+        private final Reason reason;
+        private final String message;
+
+        // Constructor for Rejection
+        public Rejection(int row, String parcelID, Reason reason, String message) {
+            this.row = row;
+            this.parcelID = parcelID;
+            this.reason = reason;
+            this.message = message;
+        }
+
+        // Getters
+        public int getRow() {
+            return row;
+        }
+
+        public String getParcelID() {
+            return parcelID;
+        }
+
+        public Reason getReason() {
+            return reason;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "Row " + row + " (" + parcelID + "): " + reason + " - " + message;
+        }
+    }
+}
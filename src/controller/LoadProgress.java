@@ -0,0 +1,78 @@
+package controller;
+
+// Progress of the depot's startup load, written by the loading thread and read by the UI at any time
+public class LoadProgress {
+    private volatile String phase = "Waiting";
+    private volatile String file;
+    private volatile long bytesLoaded;
+    private volatile long totalBytes;
+    private volatile int rowsLoaded;
+    private volatile boolean running;
+    private volatile boolean finished;
+
+    // Getters
+    public String getPhase() {
+        return phase;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public long getBytesLoaded() {
+        return bytesLoaded;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public int getRowsLoaded() {
+        return rowsLoaded;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    // Fraction of the current file loaded, from 0 to 1
+    public double getFraction() {
+        long total = totalBytes;
+        return total <= 0 ? (finished ? 1 : 0) : Math.min(1.0, (double) bytesLoaded / total);
+    }
+
+    // Marks the start of a loading phase, such as a file or the journal replay
+    void begin(String phase, String file, long totalBytes) {
+        this.running = true;
+        this.phase = phase;
+        this.file = file;
+        this.totalBytes = totalBytes;
+        this.bytesLoaded = 0;
+        this.rowsLoaded = 0;
+    }
+
+    // Records that the current file has been loaded up to the given byte with the given number of rows inserted
+    void advance(long bytesLoaded, int rowsLoaded) {
+        this.bytesLoaded = bytesLoaded;
+        this.rowsLoaded = rowsLoaded;
+    }
+
+    void finish() {
+        this.phase = "Loaded";
+        this.bytesLoaded = totalBytes;
+        this.running = false;
+        this.finished = true;
+    }
+
+    @Override
+    public String toString() {
+        if (finished) {
+            return phase;
+        }
+        return String.format("%s %s: %d rows (%.0f%%)", phase, file == null ? "" : file, rowsLoaded, getFraction() * 100);
+    }
+}
@@ -1,29 +1,62 @@
 package controller;
 
 import model.Parcel;
+import model.ParcelIdCodec;
 import model.ParcelMap;
 import model.Customer;
+import model.Dimensions;
 import model.QueueOfCustomers;
+import util.DirectoryManager;
+import util.Journal;
 import util.Log;
+import util.LogSampler;
+import util.Observable;
 
 import javax.swing.*;
 import java.io.*;
-import java.text.DecimalFormat;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 public class Manager {
-    private static final double BASE_FEE = 5.00;      // Base fee in GBP
-    private static final double WEIGHT_FEE_PER_KG = 0.50; // Weight fee per kg
-    private static final double DEPOT_FEE_PER_DAY = 0.20; // Depot fee per day
+    static final double BASE_FEE = 5.00;      // Base fee in GBP
+    static final double WEIGHT_FEE_PER_KG = 0.50; // Weight fee per kg
+    static final double DEPOT_FEE_PER_DAY = 0.20; // Depot fee per day
+    public static final String LOADING_MESSAGE = "The depot is still loading. Changes can be made once loading has finished.";
+    public static final String JOURNAL_FAILED_MESSAGE = "Changes can no longer be saved because the journal could not be written. "
+            + "The last change may not survive a restart; fix the disk problem and restart the depot.";
+    private static final LogSampler LOOKUP_SAMPLER = LogSampler.perInterval(1, TimeUnit.SECONDS);
+    private static final int PARALLEL_IMPORT_THRESHOLD = 4_096;   // Smaller imports validate faster on one thread
 
     private QueueOfCustomers queueOfCustomers = new QueueOfCustomers();
     private ParcelMap parcelMap = new ParcelMap();
     private DepotWorker worker = new DepotWorker("DepotWorker");
-    private List<Parcel> collectedParcels = new ArrayList<>();
-    private double totalFeesCollected = 0.0;
+    private List<Parcel> collectedParcels = Collections.synchronizedList(new ArrayList<>());
+    private final BitSet recordedSlots = new BitSet();  // ParcelMap slots in collectedParcels; guarded by collectedParcels
+    private ReportSummary reportSummary = new ReportSummary();
+    private CsvLoader csvLoader = new CsvLoader();
+    private volatile Journal journal;
+    private final Object journalOrder = new Object();   // Keeps journal order identical to the order changes were applied
+    private volatile long snapshotSequence;              // Last journal sequence already reflected in the loaded snapshot
+    private ScheduledExecutorService snapshotWriter;
+    private ReceiptArchive receiptArchive;
+    private final LoadProgress loadProgress = new LoadProgress();
+    private volatile boolean acceptingChanges = true;    // False while a background load has not yet replayed the journal
+    private volatile boolean journalFailed;              // An append or commit failed; no later change could be made durable
     private Log log = Log.getInstance();
 
     // Retrieves the queue of customers in the depot system
@@ -51,13 +84,384 @@ public class Manager {
         return collectedParcels;
     }
 
+    // Retrieves the progress of the startup load
+    public LoadProgress getLoadProgress() {
+        return loadProgress;
+    }
+
+    // Whether changes are allowed; false from the start of a background load until it has replayed the journal, so
+    // nothing can act on data the journal is about to change, and for good once the journal has failed. Lookups are always allowed
+    public boolean isAcceptingChanges() {
+        return acceptingChanges && !journalFailed;
+    }
+
+    // Why changes are refused: LOADING_MESSAGE or JOURNAL_FAILED_MESSAGE
+    public String getRefusalMessage() {
+        return journalFailed ? JOURNAL_FAILED_MESSAGE : LOADING_MESSAGE;
+    }
+
+    // Refuses a change while the loaded data may still be behind the journal, or once the journal can no longer record it
+    private void requireAcceptingChanges() {
+        if (!isAcceptingChanges()) {
+            log.logWarn("Change refused: " + getRefusalMessage());
+            throw new IllegalStateException(getRefusalMessage());
+        }
+    }
+
+    // Stops accepting changes after a journal append or commit failed and reports it to the caller. The change that
+    // failed is already applied in memory, but the caller must not acknowledge it (charge, issue a receipt) as durable
+    private IllegalStateException journalFailure(String what, RuntimeException cause) {
+        journalFailed = true;
+        log.logError(what + ": " + cause.getMessage() + ". Refusing further changes.");
+        return new IllegalStateException(JOURNAL_FAILED_MESSAGE, cause);
+    }
+
+    // Retrieves the running totals behind the report summary
+    public ReportSummary getReportSummary() {
+        return reportSummary;
+    }
+
     // Adds fee to the total fees collected
     public void addToTotalFees(double fee) {
-        totalFeesCollected += fee;
+        requireAcceptingChanges();
+        long sequence;
+        synchronized (journalOrder) {
+            reportSummary.addFee(fee);
+            sequence = journal(DepotJournal.FEE_ADDED, DepotJournal.fee(fee));
+        }
+        awaitDurable(sequence);
+    }
+
+    // Retrieves the total fees collected so far
+    public double getTotalFeesCollected() {
+        return reportSummary.getTotalFees();
+    }
+
+    // Records a parcel won through ParcelMap.tryCollect and charges its fee
+    public void recordCollection(Parcel parcel, double fee) {
+        requireAcceptingChanges();
+        long sequence;
+        synchronized (journalOrder) {
+            applyCollection(parcel, fee);
+            sequence = journal(DepotJournal.PARCEL_COLLECTED, DepotJournal.parcelCollected(parcel.getParcelID(), fee));
+        }
+        awaitDurable(sequence);
+    }
+
+    // Adds a collected parcel to the collected list and the report totals without journaling it
+    void applyCollection(Parcel parcel, double fee) {
+        addCollected(parcel);
+        reportSummary.recordCollection(parcel, fee);
+    }
+
+    // Retrieves and removes the next customer in the queue, or null if it is empty
+    public Customer takeNextCustomer() {
+        requireAcceptingChanges();
+        Customer customer;
+        long sequence;
+        synchronized (journalOrder) {
+            customer = queueOfCustomers.getCustomer();
+            sequence = customer == null ? 0 : journal(DepotJournal.CUSTOMER_TAKEN, DepotJournal.customerTaken());
+        }
+        awaitDurable(sequence);
+        return customer;
+    }
+
+    // Puts a customer taken from the queue back at the end of it
+    public void requeueCustomer(Customer customer) {
+        requireAcceptingChanges();
+        long sequence;
+        synchronized (journalOrder) {
+            queueOfCustomers.add(customer);
+            sequence = journal(DepotJournal.CUSTOMER_QUEUED, DepotJournal.customerQueued(customer));
+        }
+        awaitDurable(sequence);
+    }
+
+    // Removes the customer waiting for the given parcel; returns false if there is none
+    public boolean removeCustomer(String parcelID) {
+        requireAcceptingChanges();
+        boolean removed;
+        long sequence = 0;
+        synchronized (journalOrder) {
+            removed = queueOfCustomers.removeCustomerByParcelID(parcelID);
+            if (removed) {
+                sequence = journal(DepotJournal.CUSTOMER_REMOVED, DepotJournal.parcelID(parcelID));
+            }
+        }
+        awaitDurable(sequence);
+        return removed;
+    }
+
+    // Moves the customer waiting for the given parcel to the back of the queue; returns false if there is none
+    public boolean moveCustomerToBack(String parcelID) {
+        requireAcceptingChanges();
+        boolean moved;
+        long sequence = 0;
+        synchronized (journalOrder) {
+            moved = queueOfCustomers.moveToBack(parcelID);
+            if (moved) {
+                sequence = journal(DepotJournal.CUSTOMER_MOVED_TO_BACK, DepotJournal.parcelID(parcelID));
+            }
+        }
+        awaitDurable(sequence);
+        return moved;
+    }
+
+    // Checks whether a collection of the parcel has already been recorded (used when replaying over a snapshot)
+    boolean isCollectionRecorded(String parcelID) {
+        int slot = parcelMap.indexOf(parcelID);
+        if (slot < 0) {
+            return false;
+        }
+        synchronized (collectedParcels) {
+            return recordedSlots.get(slot);
+        }
+    }
+
+    // Adds a parcel to the collected list and marks its slot, so replay can check for it without scanning the list
+    private void addCollected(Parcel parcel) {
+        int slot = parcelMap.indexOf(parcel.getParcelID());
+        synchronized (collectedParcels) {
+            collectedParcels.add(parcel);
+            if (slot >= 0) {
+                recordedSlots.set(slot);
+            }
+        }
+    }
+
+    // Replays the journal on top of the loaded snapshot or CSV data, then journals every later change to the same file.
+    // If the journal cannot be replayed or opened, or does not continue from the loaded data, changes are refused
+    @SuppressWarnings("try")    // The batch scopes are only held open, never referenced
+    public Journal.ReplayResult openJournal(String filename, Journal.Durability durability) throws IOException {
+        Path path = Paths.get(filename);
+        log.logInfo("Replaying journal after sequence " + snapshotSequence + ": " + path.toAbsolutePath());
+        if (loadProgress.isRunning()) {
+            loadProgress.begin("Replaying journal", path.getFileName().toString(), Files.exists(path) ? Files.size(path) : 0);
+        }
+        Journal.ReplayResult result;
+        synchronized (journalOrder) {
+            try {
+                try (Observable.Batch customers = queueOfCustomers.batch();
+                     Observable.Batch parcels = parcelMap.batch()) {
+                    // Records a snapshot covered are dropped from the journal, so it may only be replayed onto that snapshot
+                    long[] expected = {snapshotSequence + 1};
+                    result = Journal.replay(path, snapshotSequence, (sequence, type, payload) -> {
+                        if (sequence != expected[0]) {
+                            throw new IOException("Journal continues from sequence " + sequence + " but the loaded data ends at "
+                                    + (expected[0] - 1) + "; restore the matching snapshot");
+                        }
+                        expected[0]++;
+                        DepotJournal.apply(this, type, payload);
+                    });
+                }
+                log.logInfo(result.toString());
+                if (result.hasTruncatedTail()) {
+                    log.logWarn("Journal " + path + " had a torn or corrupt tail after sequence " + result.getLastSequence() + "; it will be discarded.");
+                }
+                journal = new Journal(path, durability, result);
+            } catch (IOException | RuntimeException e) {
+                // The data may be part way through the replay and nothing could be journaled, so take no changes
+                journalFailed = true;
+                log.logError("Failed to open journal " + path.toAbsolutePath() + ": " + e.getMessage() + ". Refusing changes.");
+                throw e;
+            }
+        }
+        log.logInfo("Journal open with " + durability + " durability: " + path.toAbsolutePath());
+        return result;
+    }
+
+    // Runs the startup load on a background thread so the UI can open at once. Progress is published through
+    // getLoadProgress(); changes are refused until the load (including any journal replay) has finished
+    public Thread loadInBackground(Runnable load) {
+        acceptingChanges = false;
+        loadProgress.begin("Starting", null, 0);
+        Thread loader = new Thread(() -> {
+            long start = System.nanoTime();
+            try {
+                load.run();
+            } catch (RuntimeException e) {
+                log.logError("Background load failed: " + e.getMessage());
+            } finally {
+                acceptingChanges = true;
+                loadProgress.finish();
+                log.logInfo(String.format("Background load finished in %.1f ms: %d parcels, %d customers.",
+                        (System.nanoTime() - start) / 1_000_000.0, parcelMap.size(), queueOfCustomers.size()));
+            }
+        }, "depot-loader");
+        loader.setDaemon(true);
+        loader.start();
+        return loader;
+    }
+
+    // Loads the depot from a binary snapshot instead of the CSV files; returns false if there is no valid snapshot
+    public boolean loadSnapshot(String filename) {
+        Path path = Paths.get(filename);
+        if (!Files.exists(path)) {
+            log.logInfo("No snapshot found at " + path.toAbsolutePath() + "; loading CSV files.");
+            return false;
+        }
+        long start = System.nanoTime();
+        if (loadProgress.isRunning()) {
+            loadProgress.begin("Loading snapshot", path.getFileName().toString(), path.toFile().length());
+        }
+        DepotSnapshot.State state;
+        try {
+            state = DepotSnapshot.read(path);
+        } catch (IOException e) {
+            log.logWarn("Ignoring snapshot " + path.toAbsolutePath() + ": " + e.getMessage());
+            return false;
+        }
+
+        parcelMap.restoreColumns(state.parcels);
+        queueOfCustomers.addAll(state.queue);
+        for (String parcelID : state.collectedParcelIDs) {
+            Parcel parcel = parcelMap.findParcel(parcelID);
+            if (parcel != null) {
+                addCollected(parcel);
+            }
+        }
+        reportSummary.restore(state.collections, state.totalFees, state.totalDiscounts, state.rules);
+        snapshotSequence = state.journalSequence;
+
+        DepotSnapshot.Info info = new DepotSnapshot.Info(path, path.toFile().length(), state.parcels.size(),
+                state.journalSequence, System.nanoTime() - start);
+        log.logInfo("Snapshot loaded: " + info);
+        return true;
+    }
+
+    // Captures a consistent copy of the depot and writes it to the snapshot file on a background thread
+    public Future<DepotSnapshot.Info> saveSnapshot(String filename) {
+        DepotSnapshot.State state = captureSnapshot();
+        return snapshotWriter().submit(() -> writeSnapshot(state, Paths.get(filename)));
+    }
+
+    // Takes a snapshot now and then every intervalMinutes, on the background snapshot thread
+    public void scheduleSnapshots(String filename, long initialDelayMinutes, long intervalMinutes) {
+        Path path = Paths.get(filename);
+        snapshotWriter().scheduleWithFixedDelay(() -> {
+            try {
+                writeSnapshot(captureSnapshot(), path);
+            } catch (IOException | RuntimeException e) {
+                log.logError("Scheduled snapshot failed: " + e.getMessage());
+            }
+        }, initialDelayMinutes, intervalMinutes, TimeUnit.MINUTES);
+        log.logInfo("Snapshots scheduled every " + intervalMinutes + " minutes to " + path.toAbsolutePath());
+    }
+
+    // Writes the snapshot, then drops the journal records it covers so the journal (and the next startup replay) only
+    // holds what changed since. A failure to drop them leaves a longer journal, not a wrong one
+    private DepotSnapshot.Info writeSnapshot(DepotSnapshot.State state, Path path) throws IOException {
+        DepotSnapshot.Info info = DepotSnapshot.write(state, path);
+        log.logInfo("Snapshot written: " + info);
+        Journal j = journal;
+        if (j != null && state.journalOffset > 0) {
+            try {
+                j.discardBefore(state.journalOffset);
+                log.logInfo("Journal records up to sequence " + state.journalSequence + " dropped; "
+                        + j.getEndOffset() + " bytes remain in " + j.getPath());
+            } catch (IOException | RuntimeException e) {
+                log.logWarn("Could not drop journal records covered by the snapshot: " + e.getMessage());
+            }
+        }
+        return info;
+    }
+
+    // Copies all depot state as of one journal sequence; holding journalOrder keeps the copy and the sequence in step
+    private DepotSnapshot.State captureSnapshot() {
+        DepotSnapshot.State state = new DepotSnapshot.State();
+        synchronized (journalOrder) {
+            Journal j = journal;
+            state.createdMillis = System.currentTimeMillis();
+            state.journalSequence = j == null ? snapshotSequence : j.getLastSequence();
+            state.journalOffset = j == null ? 0 : j.getEndOffset();
+            state.parcels = parcelMap.copyColumns();
+            state.queue = new ArrayList<>(queueOfCustomers.getCustomerQueue());
+            synchronized (collectedParcels) {
+                state.collectedParcelIDs = new ArrayList<>(collectedParcels.size());
+                for (Parcel p : collectedParcels) {
+                    state.collectedParcelIDs.add(p.getParcelID());
+                }
+            }
+            synchronized (reportSummary) {
+                state.collections = reportSummary.getCollections();
+                state.totalFees = reportSummary.getTotalFees();
+                state.totalDiscounts = reportSummary.getTotalDiscounts();
+                state.rules = reportSummary.getRevenueByRule();
+            }
+        }
+        return state;
+    }
+
+    private synchronized ScheduledExecutorService snapshotWriter() {
+        if (snapshotWriter == null) {
+            snapshotWriter = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "snapshot-writer");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return snapshotWriter;
+    }
+
+    // Retrieves the open journal, or null if changes are not being journaled
+    public Journal getJournal() {
+        return journal;
+    }
+
+    // Flushes and closes the journal
+    public void closeJournal() {
+        Journal j = journal;
+        if (j == null) {
+            return;
+        }
+        try {
+            log.logInfo("Closing journal: " + j.getStats());
+            j.close();
+        } catch (IOException | RuntimeException e) {
+            log.logError("Failed to close journal: " + e.getMessage());
+        }
+    }
+
+    // Appends a record for a change the caller has just applied; callers hold journalOrder. Returns 0 when not journaling;
+    // throws IllegalStateException (and refuses later changes) if the record cannot be appended
+    private long journal(byte type, byte[] payload) {
+        Journal j = journal;
+        if (j == null) {
+            return 0;
+        }
+        try {
+            return j.append(type, payload);
+        } catch (RuntimeException e) {
+            throw journalFailure("Failed to journal change (type " + type + ")", e);
+        }
+    }
+
+    // Waits until a journaled change is durable, as the journal's durability level requires; throws IllegalStateException
+    // (and refuses later changes) if it cannot be made durable
+    private void awaitDurable(long sequence) {
+        Journal j = journal;
+        if (j == null || sequence == 0) {
+            return;
+        }
+        try {
+            j.commit(sequence);
+        } catch (RuntimeException e) {
+            throw journalFailure("Journal commit failed for sequence " + sequence, e);
+        }
     }
 
     // Loads customer and parcel data from the given files
+    @SuppressWarnings("try")    // The batch scopes are only held open, never referenced
     public void loadFiles(String customerFilename, String parcelFilename) {
+        // Observers see one change per collection once both files are in, not one per row or file
+        try (Observable.Batch customers = queueOfCustomers.batch();
+             Observable.Batch parcels = parcelMap.batch()) {
+            loadFilesUnbatched(customerFilename, parcelFilename);
+        }
+    }
+
+    private void loadFilesUnbatched(String customerFilename, String parcelFilename) {
         try {
             log.logInfo("Attempting to load customer file: " + customerFilename);
             loadCustomers(customerFilename);
@@ -75,26 +479,34 @@ public class Manager {
         }
     }
 
+    // Loads both files in batches as they are parsed, so observers see rows arrive and loaded parcels can be used
+    // before the rest of the file is in; meant for the background load, where loadFiles would hold everything back
+    public void loadFilesProgressively(String customerFilename, String parcelFilename) {
+        try {
+            CsvLoader.LoadResult result = csvLoader.loadCustomersProgressively(customerFilename, queueOfCustomers, loadProgress);
+            log.logInfo("Customers loaded progressively from file: " + customerFilename + " (" + result.getRows() +
+                    " added, " + result.getRejected() + " rejected)");
+        } catch (IOException e) {
+            log.logError("Error reading customer file: " + customerFilename + ". Error: " + e.getMessage());
+        }
+
+        try {
+            CsvLoader.LoadResult result = csvLoader.loadParcelsProgressively(parcelFilename, parcelMap, loadProgress);
+            log.logInfo("Parcels loaded progressively from file: " + parcelFilename + " (" + result.getRows() +
+                    " added, " + result.getRejected() + " rejected)");
+        } catch (IOException e) {
+            log.logError("Error reading parcel file: " + parcelFilename + ". Error: " + e.getMessage());
+        }
+    }
+
     // Loads customer data
     private void loadCustomers(String filename) {
         log.logInfo("Attempting to load customers from file: " + filename);
 
-        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
-            String line;
-            int queueNumber = 1;
-            while ((line = br.readLine()) != null) {
-                String[] data = line.split(",");
-                if (data.length >= 2) {
-                    String name = data[0].trim();
-                    String parcelID = data[1].trim();
-                    Customer c = new Customer(name, queueNumber++, parcelID);
-                    queueOfCustomers.add(c);
-                    log.logInfo("Customer added: Name=" + name + ", ParcelID=" + parcelID);
-                } else {
-                    log.logError("Invalid customer data format: " + line);
-                }
-            }
-            log.logInfo("Customers loaded successfully from file: " + filename);
+        try {
+            CsvLoader.LoadResult result = csvLoader.loadCustomers(filename, queueOfCustomers);
+            log.logInfo("Customers loaded successfully from file: " + filename + " (" + result.getRows() +
+                    " added, " + result.getRejected() + " rejected)");
         } catch (IOException e) {
             log.logError("Error reading customer file: " + filename + ". Error: " + e.getMessage());
         }
@@ -104,204 +516,336 @@ public class Manager {
     private void loadParcels(String filename) {
         log.logInfo("Attempting to load parcels from file: " + filename);
 
-        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] data = line.split(",");
-                if (data.length >= 5) {
-                    try {
-                        String parcelID = data[0].trim();
-                        double weight = Double.parseDouble(data[1].trim());
-                        String dims = data[2].trim();
-                        String status = data[3].trim();
-                        int days = Integer.parseInt(data[4].trim());
-
-                        Parcel p = new Parcel(parcelID, weight, dims, status, days);
-                        parcelMap.addParcel(p);
-
-                        log.logInfo("Parcel added: ID=" + parcelID + ", Weight=" + weight + "kg, Dimensions=" + dims +
-                                ", Status=" + status + ", DaysInDepot=" + days);
-                    } catch (NumberFormatException e) {
-                        log.logError("Invalid number format in parcel data: " + line + ". Error: " + e.getMessage());
-                    } catch (Exception e) {
-                        log.logError("Error adding parcel: " + line + ". Error: " + e.getMessage());
-                    }
-                } else {
-                    log.logError("Invalid parcel data format: " + line);
-                }
-            }
-            log.logInfo("Parcels loaded successfully from file: " + filename);
+        try {
+            CsvLoader.LoadResult result = csvLoader.loadParcels(filename, parcelMap);
+            log.logInfo("Parcels loaded successfully from file: " + filename + " (" + result.getRows() +
+                    " added, " + result.getRejected() + " rejected)");
         } catch (IOException e) {
             log.logError("Error reading parcel file: " + filename + ". Error: " + e.getMessage());
         }
     }
 
-    // Adds a new parcel to the system after validating its details
+    // Adds a new parcel to the system after validating its details, reporting the outcome in a dialog
     public void addNewParcel(Parcel parcel) {
+        try {
+            addParcel(parcel);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            JOptionPane.showMessageDialog(null, e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        JOptionPane.showMessageDialog(null, "Parcel added successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    // Adds a new parcel after validating its details; throws IllegalArgumentException describing the first problem
+    public void addParcel(Parcel parcel) {
+        requireAcceptingChanges();
         // Validate Parcel ID
         if (parcel.getParcelID() == null || parcel.getParcelID().isEmpty()) {
             log.logError("Failed to add parcel: Parcel ID is missing or empty.");
-            JOptionPane.showMessageDialog(null, "Parcel ID is required!", "Error", JOptionPane.ERROR_MESSAGE);
-            return;
+            throw new IllegalArgumentException("Parcel ID is required!");
         }
 
         // Validate Parcel ID format
-        if (!parcel.getParcelID().matches("^[XC][0-9]{3}$")) {
+        if (!isParcelID(parcel.getParcelID())) {
             log.logError("Failed to add parcel: Invalid Parcel ID format. Parcel ID: " + parcel.getParcelID());
-            JOptionPane.showMessageDialog(null, "Invalid Parcel ID format! Parcel ID must start with 'X' or 'C' followed by 3 digits (e.g., X123 or C123).", "Error", JOptionPane.ERROR_MESSAGE);
-            return;
+            throw new IllegalArgumentException("Invalid Parcel ID format! Parcel ID must " + ParcelIdCodec.getDefault().describe() + ".");
         }
 
         // Validate Weight
         if (parcel.getWeight() <= 0) {
             log.logError("Failed to add parcel: Invalid weight for Parcel ID " + parcel.getParcelID());
-            JOptionPane.showMessageDialog(null, "Weight must be greater than 0!", "Error", JOptionPane.ERROR_MESSAGE);
-            return;
+            throw new IllegalArgumentException("Weight must be greater than 0!");
         }
 
-        // Validate Dimensions format
-        if (parcel.getDimensions() == null || parcel.getDimensions().isEmpty()) {
-            log.logError("Failed to add parcel: Dimensions are missing for Parcel ID " + parcel.getParcelID());
-            JOptionPane.showMessageDialog(null, "Dimensions are required!", "Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        String[] dims = parcel.getDimensions().split("x");
-        if (dims.length != 3) {
-            log.logError("Failed to add parcel: Dimensions format incorrect for Parcel ID " + parcel.getParcelID());
-            JOptionPane.showMessageDialog(null, "Dimensions must be in the format WidthxHeightxLength (e.g., 10x10x10).", "Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        try {
-            double width = Double.parseDouble(dims[0]);
-            double height = Double.parseDouble(dims[1]);
-            double length = Double.parseDouble(dims[2]);
-
-            if (width <= 0 || height <= 0 || length <= 0) {
-                log.logError("Failed to add parcel: Dimensions must be positive numbers for Parcel ID " + parcel.getParcelID());
-                JOptionPane.showMessageDialog(null, "Width, Height, and Length must be positive numbers.", "Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
-        } catch (NumberFormatException e) {
-            log.logError("Failed to add parcel: Non-numeric dimensions for Parcel ID " + parcel.getParcelID());
-            JOptionPane.showMessageDialog(null, "Dimensions must contain valid numeric values.", "Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
+        // Validate Dimensions (parsed once when the parcel was built)
+        validateDimensions(parcel.getDimensionsValue(), "add", parcel.getParcelID());
 
         // Validate Days in Depot
         if (parcel.getDaysInDepot() < 0) {
             log.logError("Failed to add parcel: Invalid days in depot for Parcel ID " + parcel.getParcelID());
-            JOptionPane.showMessageDialog(null, "Days in depot cannot be negative!", "Error", JOptionPane.ERROR_MESSAGE);
-            return;
+            throw new IllegalArgumentException("Days in depot cannot be negative!");
         }
 
         // Check for duplicate Parcel ID
         if (parcelMap.findParcel(parcel.getParcelID()) != null) {
             log.logError("Failed to add parcel: Duplicate Parcel ID " + parcel.getParcelID());
-            JOptionPane.showMessageDialog(null, "Parcel with ID " + parcel.getParcelID() + " already exists!", "Error", JOptionPane.ERROR_MESSAGE);
-            return;
+            throw new IllegalArgumentException("Parcel with ID " + parcel.getParcelID() + " already exists!");
         }
 
         // Add Parcel to ParcelMap
-        parcelMap.addParcel(parcel);
+        long sequence;
+        synchronized (journalOrder) {
+            parcelMap.addParcel(parcel);
+            sequence = journal(DepotJournal.PARCEL_ADDED, DepotJournal.parcelAdded(parcel));
+        }
+        awaitDurable(sequence);
         log.logInfo("Parcel successfully added: " + parcel.toString());
-        JOptionPane.showMessageDialog(null, "Parcel added successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    // Adds a batch of parcels in one step: rows are validated in parallel, the valid ones are stored with a single change
+    // event and journaled together, and every rejected row is listed in the returned report. Never shows a dialog
+    public ImportReport importParcels(Collection<Parcel> parcels) {
+        requireAcceptingChanges();
+        long start = System.nanoTime();
+        Parcel[] rows = parcels.toArray(new Parcel[0]);
+        ImportReport.Rejection[] rejections = new ImportReport.Rejection[rows.length];
+
+        // Field checks and the lookup against stored parcels share no state, so large batches fan out across cores
+        IntStream indexes = IntStream.range(0, rows.length);
+        (rows.length >= PARALLEL_IMPORT_THRESHOLD ? indexes.parallel() : indexes)
+                .forEach(i -> rejections[i] = checkImportRow(i, rows[i]));
+
+        // Within the batch the first row with an ID wins
+        Set<String> seen = new HashSet<>(rows.length * 4 / 3 + 1);
+        List<Parcel> accepted = new ArrayList<>(rows.length);
+        long sequence = 0;
+        synchronized (journalOrder) {
+            for (int i = 0; i < rows.length; i++) {
+                if (rejections[i] != null) {
+                    continue;
+                }
+                String id = rows[i].getParcelID();
+                if (!seen.add(id)) {
+                    rejections[i] = new ImportReport.Rejection(i, id, ImportReport.Reason.DUPLICATE_IN_BATCH,
+                            "Parcel ID " + id + " appears earlier in the batch!");
+                } else if (parcelMap.indexOf(id) >= 0) {
+                    // Added by someone else since the parallel check
+                    rejections[i] = alreadyExists(i, id);
+                } else {
+                    accepted.add(rows[i]);
+                }
+            }
+            if (!accepted.isEmpty()) {
+                parcelMap.addAll(accepted);
+                for (Parcel parcel : accepted) {
+                    sequence = journal(DepotJournal.PARCEL_ADDED, DepotJournal.parcelAdded(parcel));
+                }
+            }
+        }
+        awaitDurable(sequence);
+
+        List<ImportReport.Rejection> rejected = new ArrayList<>();
+        for (ImportReport.Rejection rejection : rejections) {
+            if (rejection != null) {
+                rejected.add(rejection);
+            }
+        }
+        ImportReport report = new ImportReport(rows.length, accepted.size(), rejected, System.nanoTime() - start);
+        if (rejected.isEmpty()) {
+            log.logInfo(report.toString());
+        } else {
+            log.logWarn(report + "; first rejection: " + rejected.get(0));
+        }
+        return report;
+    }
+
+    // Imports every parcel the stream yields; rows in the report are numbered in encounter order
+    public ImportReport importParcels(Stream<Parcel> parcels) {
+        return importParcels(parcels.collect(Collectors.toList()));
+    }
+
+    // The same checks addParcel makes, in the same order, reported instead of thrown; null when the row is valid
+    private ImportReport.Rejection checkImportRow(int row, Parcel parcel) {
+        String id = parcel == null ? null : parcel.getParcelID();
+        if (id == null || id.isEmpty()) {
+            return new ImportReport.Rejection(row, id, ImportReport.Reason.MISSING_ID, "Parcel ID is required!");
+        }
+        if (!isParcelID(id)) {
+            return new ImportReport.Rejection(row, id, ImportReport.Reason.INVALID_ID,
+                    "Invalid Parcel ID format! Parcel ID must " + ParcelIdCodec.getDefault().describe() + ".");
+        }
+        if (parcel.getWeight() <= 0) {
+            return new ImportReport.Rejection(row, id, ImportReport.Reason.INVALID_WEIGHT, "Weight must be greater than 0!");
+        }
+        Dimensions dimensions = parcel.getDimensionsValue();
+        String dimensionsError = dimensions == null ? Dimensions.REQUIRED_ERROR : dimensions.getError();
+        if (dimensionsError != null) {
+            return new ImportReport.Rejection(row, id, ImportReport.Reason.INVALID_DIMENSIONS, dimensionsError);
+        }
+        if (parcel.getDaysInDepot() < 0) {
+            return new ImportReport.Rejection(row, id, ImportReport.Reason.INVALID_DAYS, "Days in depot cannot be negative!");
+        }
+        if (parcelMap.indexOf(id) >= 0) {
+            return alreadyExists(row, id);
+        }
+        return null;
+    }
+
+    private static ImportReport.Rejection alreadyExists(int row, String parcelID) {
+        return new ImportReport.Rejection(row, parcelID, ImportReport.Reason.ALREADY_EXISTS,
+                "Parcel with ID " + parcelID + " already exists!");
+    }
+
+    // Whether an ID follows the configured format; the codec checks characters in place, so hot paths skip regexes
+    static boolean isParcelID(String id) {
+        return ParcelIdCodec.getDefault().matches(id);
     }
 
     // Updates the details of an existing parcel in the system
     public void updateParcel(String parcelID, double newWeight, String newDimensions, int newDays) {
+        updateParcel(parcelID, newWeight, Dimensions.parse(newDimensions), newDays);
+    }
+
+    // Updates the details of an existing parcel using already parsed dimensions, reporting the outcome in a dialog
+    public void updateParcel(String parcelID, double newWeight, Dimensions dimensions, int newDays) {
+        try {
+            editParcel(parcelID, newWeight, dimensions, newDays);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            JOptionPane.showMessageDialog(null, e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        JOptionPane.showMessageDialog(null, "Parcel updated successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    // Updates the details of an existing parcel; throws IllegalArgumentException if it is unknown or a value is invalid
+    public Parcel editParcel(String parcelID, double newWeight, Dimensions dimensions, int newDays) {
+        requireAcceptingChanges();
 
         log.logInfo("Attempting to update parcel: " + parcelID);
 
         Parcel parcel = parcelMap.findParcel(parcelID);
         if (parcel == null) {
             log.logError("Failed to update parcel: Parcel not found - " + parcelID);
-            JOptionPane.showMessageDialog(null, "Parcel not found: " + parcelID, "Error", JOptionPane.ERROR_MESSAGE);
-            return;
+            throw new IllegalArgumentException("Parcel not found: " + parcelID);
         }
 
         // Validate Weight
         if (newWeight <= 0) {
             log.logError("Failed to update parcel: Invalid weight for Parcel ID " + parcelID);
-            JOptionPane.showMessageDialog(null, "Weight must be greater than 0!", "Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        // Validate Dimensions format
-        if (newDimensions == null || newDimensions.isEmpty()) {
-            log.logError("Failed to update parcel: Dimensions are missing for Parcel ID " + parcelID);
-            JOptionPane.showMessageDialog(null, "Dimensions are required!", "Error", JOptionPane.ERROR_MESSAGE);
-            return;
+            throw new IllegalArgumentException("Weight must be greater than 0!");
         }
 
-        String[] dims = newDimensions.split("x");
-        if (dims.length != 3) {
-            log.logError("Failed to update parcel: Dimensions format incorrect for Parcel ID " + parcelID);
-            JOptionPane.showMessageDialog(null, "Dimensions must be in the format WidthxHeightxLength (e.g., 10x10x10).", "Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        try {
-            double width = Double.parseDouble(dims[0]);
-            double height = Double.parseDouble(dims[1]);
-            double length = Double.parseDouble(dims[2]);
-
-            if (width <= 0 || height <= 0 || length <= 0) {
-                log.logError("Failed to update parcel: Dimensions must be positive numbers for Parcel ID " + parcelID);
-                JOptionPane.showMessageDialog(null, "Width, Height, and Length must be positive numbers.", "Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
-        } catch (NumberFormatException e) {
-            log.logError("Failed to update parcel: Non-numeric dimensions for Parcel ID " + parcelID);
-            JOptionPane.showMessageDialog(null, "Dimensions must contain valid numeric values.", "Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
+        // Validate Dimensions
+        validateDimensions(dimensions, "update", parcelID);
 
         // Validate Days in Depot
         if (newDays < 0) {
             log.logError("Failed to update parcel: Invalid days in depot for Parcel ID " + parcelID);
-            JOptionPane.showMessageDialog(null, "Days in depot cannot be negative!", "Error", JOptionPane.ERROR_MESSAGE);
-            return;
+            throw new IllegalArgumentException("Days in depot cannot be negative!");
         }
 
         // Update parcel details
-        parcel.setWeight(newWeight);
-        parcel.setDimensions(newDimensions);
-        parcel.setDaysInDepot(newDays);
+        long sequence;
+        synchronized (journalOrder) {
+            parcel.setWeight(newWeight);
+            parcel.setDimensions(dimensions);
+            parcel.setDaysInDepot(newDays);
+            sequence = journal(DepotJournal.PARCEL_UPDATED, DepotJournal.parcelUpdated(parcelID, newWeight, dimensions.getText(), newDays));
+        }
+        awaitDurable(sequence);
 
         log.logInfo("Parcel updated successfully: " + parcel.toString());
-        JOptionPane.showMessageDialog(null, "Parcel updated successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
 
         // Notify observers
-        parcelMap.notifyParcelMapObservers("ParcelMap");
+        parcelMap.notifyParcelUpdated(parcelID);
         log.logInfo("ParcelMap observers notified after updating parcel: " + parcelID);
+        return parcel;
     }
 
-    // Searches for a parcel in the system by its Parcel ID
-    public Parcel searchParcel(String parcelID) {
-        log.logInfo("Search initiated for Parcel ID: " + parcelID);
+    // Rejects missing or malformed dimensions for an add or update with an IllegalArgumentException
+    private void validateDimensions(Dimensions dimensions, String action, String parcelID) {
+        String error = dimensions == null ? Dimensions.REQUIRED_ERROR : dimensions.getError();
+        if (error != null) {
+            log.logError("Failed to " + action + " parcel: " + error + " Parcel ID " + parcelID);
+            throw new IllegalArgumentException(error);
+        }
+    }
 
+    // Searches for a parcel in the system by its Parcel ID, explaining a blank or unknown ID in a dialog
+    public Parcel searchParcel(String parcelID) {
         if (parcelID == null || parcelID.trim().isEmpty()) {
             log.logError("Search failed: Parcel ID is null or empty.");
             JOptionPane.showMessageDialog(null, "Please enter a valid Parcel ID.", "Error", JOptionPane.ERROR_MESSAGE);
             return null;
         }
 
+        Parcel parcel = lookupParcel(parcelID);
+        if (parcel == null) {
+            JOptionPane.showMessageDialog(null, "Parcel with ID " + parcelID + " not found.", "Not Found", JOptionPane.INFORMATION_MESSAGE);
+        }
+        return parcel;
+    }
+
+    // Looks up a parcel by its Parcel ID, ignoring surrounding spaces; null if the ID is blank or unknown
+    public Parcel lookupParcel(String parcelID) {
+        log.logDebug("Search initiated for Parcel ID: {}", parcelID);
+
+        if (parcelID == null || parcelID.trim().isEmpty()) {
+            return null;
+        }
+
         Parcel parcel = parcelMap.findParcel(parcelID.trim());
 
         if (parcel == null) {
             log.logError("Search failed: Parcel not found for Parcel ID: " + parcelID);
-            JOptionPane.showMessageDialog(null, "Parcel with ID " + parcelID + " not found.", "Not Found", JOptionPane.INFORMATION_MESSAGE);
             return null;
         }
 
-        log.logInfo("Search successful: Parcel found - " + parcel.toString());
+        // API collections look parcels up on every request, so the full parcel is logged at most once a second
+        log.log(Log.Level.INFO, LOOKUP_SAMPLER, () -> "Search successful: Parcel found - " + parcel);
         return parcel;
     }
 
-    // Generates a detailed report of the depot system
+    // Position of a parcel in the ParcelMap for the slot getters, or -1 if the ID is blank or unknown; creates no Parcel view
+    public int lookupParcelIndex(String parcelID) {
+        if (parcelID == null || parcelID.trim().isEmpty()) {
+            return -1;
+        }
+        int index = parcelMap.indexOf(parcelID.trim());
+        if (index < 0) {
+            log.logDebug("Lookup failed: Parcel not found for Parcel ID: {}", parcelID);
+        }
+        return index;
+    }
+
+    // Prices the collection of a parcel as it stands now, discount included
+    public FeeQuote quoteFee(Parcel parcel) {
+        return quoteFee(parcel.getParcelID(), parcel.getWeight(), parcel.getDaysInDepot());
+    }
+
+    // Prices the parcel at a ParcelMap position (see ParcelMap.indexOf) from its columns, without a Parcel view
+    public FeeQuote quoteFeeAt(int index) {
+        return quoteFee(parcelMap.getParcelIDAt(index), parcelMap.getWeightAt(index), parcelMap.getDaysInDepotAt(index));
+    }
+
+    private FeeQuote quoteFee(String parcelID, double weight, int daysInDepot) {
+        double total = worker.calculateFee(parcelID, weight, daysInDepot);
+        double discount = worker.calculateDiscount(parcelID, total);
+        return new FeeQuote(parcelID, BASE_FEE, weight * WEIGHT_FEE_PER_KG, daysInDepot * DEPOT_FEE_PER_DAY, discount, total - discount);
+    }
+
+    // Collects a parcel at its quoted fee: charges it, takes its customer out of the queue and issues the receipt.
+    // Throws IllegalArgumentException if the parcel is unknown and IllegalStateException if it was already collected
+    public Receipt collectParcel(String parcelID) {
+        requireAcceptingChanges();
+        Parcel parcel = lookupParcel(parcelID);
+        if (parcel == null) {
+            throw new IllegalArgumentException("Parcel with ID " + parcelID + " not found!");
+        }
+        FeeQuote quote = quoteFee(parcel);
+        if (!parcelMap.tryCollect(parcel.getParcelID())) {
+            log.logError("Collection failed: parcel already collected " + parcel.getParcelID());
+            throw new IllegalStateException("Parcel " + parcel.getParcelID() + " has already been collected.");
+        }
+        recordCollection(parcel, quote.getTotal());
+        if (removeCustomer(parcel.getParcelID())) {
+            log.logInfo("Customer removed from queue after collection of parcel " + parcel.getParcelID());
+        }
+        return issueReceipt(parcel, quote.getTotal());
+    }
+
+    // Generates a detailed report of the depot system, reporting the outcome in a dialog
     public void generateReport(String filename) {
+        try {
+            File reportFile = writeReport(filename);
+            JOptionPane.showMessageDialog(null, "Report generated successfully at:\n" + reportFile.getAbsolutePath(), "Report Generated", JOptionPane.INFORMATION_MESSAGE);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(null, "Error writing report: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    // Writes a detailed report of the depot system to the reports directory and returns the file
+    public File writeReport(String filename) throws IOException {
         log.logInfo("Generating report: " + filename);
 
         // Ensure the "reports" directory exists
@@ -312,8 +856,7 @@ public class Manager {
                 log.logInfo("Reports directory created successfully.");
             } else {
                 log.logError("Failed to create reports directory.");
-                JOptionPane.showMessageDialog(null, "Failed to create reports directory.", "Error", JOptionPane.ERROR_MESSAGE);
-                return;
+                throw new IOException("Failed to create reports directory.");
             }
         }
 
@@ -326,14 +869,10 @@ public class Manager {
             // Collected parcels
             writer.write("Collected Parcels:\n");
             writer.write("--------------------\n");
-            if (collectedParcels.isEmpty()) {
+            int collected = writeParcels(writer, Parcel.STATUS_COLLECTED);
+            if (collected == 0) {
                 writer.write("No parcels have been collected yet.\n");
                 log.logInfo("No collected parcels found for the report.");
-            } else {
-                for (Parcel p : collectedParcels) {
-                    writer.write(p.toString() + "\n");
-                    log.logInfo("Collected parcel added to report: " + p.toString());
-                }
             }
 
             writer.write("\n");
@@ -341,101 +880,108 @@ public class Manager {
             // Uncollected parcels
             writer.write("Uncollected Parcels:\n");
             writer.write("--------------------\n");
-            List<Parcel> uncollectedParcels = new ArrayList<>();
-            for (Parcel p : parcelMap.getAllParcels()) {
-                if ("Pending".equalsIgnoreCase(p.getStatus())) {
-                    uncollectedParcels.add(p);
-                }
-            }
-            if (uncollectedParcels.isEmpty()) {
+            int uncollected = writeParcels(writer, Parcel.STATUS_PENDING);
+            if (uncollected == 0) {
                 writer.write("No pending parcels.\n");
                 log.logInfo("No uncollected parcels found for the report.");
-            } else {
-                for (Parcel p : uncollectedParcels) {
-                    writer.write(p.toString() + "\n");
-                    log.logInfo("Uncollected parcel added to report: " + p.toString());
-                }
             }
+            log.logInfo("Report parcel sections written: " + collected + " collected, " + uncollected + " uncollected.");
 
             writer.write("\n");
 
             // Summary
             writer.write("Summary:\n");
             writer.write("--------\n");
-            writer.write(String.format("Total fees collected: £%.2f\n", totalFeesCollected));
-            log.logInfo("Summary section added to report: Total fees collected = £" + totalFeesCollected);
+            reportSummary.writeSummary(writer, parcelMap);
+            log.logInfo("Summary section added to report: Total fees collected = £" + getTotalFeesCollected());
 
             log.logInfo("Report generated successfully: " + reportFile.getAbsolutePath());
-            JOptionPane.showMessageDialog(null, "Report generated successfully at:\n" + reportFile.getAbsolutePath(), "Report Generated", JOptionPane.INFORMATION_MESSAGE);
+            return reportFile;
         } catch (IOException e) {
             log.logError("Error writing report to file: " + reportFile.getAbsolutePath() + ". Error: " + e.getMessage());
-            JOptionPane.showMessageDialog(null, "Error writing report: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            throw e;
         }
     }
 
-    // Generates a receipt of the depot system
+    // Streams every parcel with the given status from the store's index to the writer; returns how many were written
+    private int writeParcels(Writer writer, String status) throws IOException {
+        int[] count = {0};
+        try {
+            parcelMap.forEachByStatus(status, p -> {
+                try {
+                    writer.write(p.toString());
+                    writer.write('\n');
+                    count[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return count[0];
+    }
+
+    // Issues a numbered receipt into the archive and returns its printable text
     public String generateReceipt(Parcel parcel, double fee) {
-        log.logInfo("Generating receipt for Parcel ID: " + parcel.getParcelID());
+        return issueReceipt(parcel, fee).render();
+    }
 
-        DecimalFormat df = new DecimalFormat("#.##");
-        StringBuilder receipt = new StringBuilder();
-        receipt.append("----- Parcel Receipt -----\n");
-        receipt.append("Parcel ID: ").append(parcel.getParcelID()).append("\n");
-        receipt.append("Weight: ").append(df.format(parcel.getWeight())).append(" kg\n");
-        receipt.append("Dimensions: ").append(parcel.getDimensions()).append("\n");
-        receipt.append("Status: ").append(parcel.getStatus()).append("\n");
-        receipt.append("Days in Depot: ").append(parcel.getDaysInDepot()).append("\n");
-        receipt.append("--------------------------\n\n");
-        receipt.append("----- Price Breakdown -----\n");
-        receipt.append(String.format("Base Fee: £%.2f\n", BASE_FEE));
-        receipt.append(String.format("Weight Fee (%.2f kg x £%.2f): £%.2f\n",
-                parcel.getWeight(), WEIGHT_FEE_PER_KG, parcel.getWeight() * WEIGHT_FEE_PER_KG));
-        receipt.append(String.format("Depot Fee (%d days x £%.2f): £%.2f\n",
-                parcel.getDaysInDepot(), DEPOT_FEE_PER_DAY, parcel.getDaysInDepot() * DEPOT_FEE_PER_DAY));
-        double totalBeforeDiscount = BASE_FEE + (parcel.getWeight() * WEIGHT_FEE_PER_KG) +
-                (parcel.getDaysInDepot() * DEPOT_FEE_PER_DAY);
-        double discount = totalBeforeDiscount - fee;
-        receipt.append(String.format("Total Before Discount: £%.2f\n", totalBeforeDiscount));
-        receipt.append(String.format("Discount: £%.2f\n", discount));
-        receipt.append("--------------------------\n");
-        receipt.append(String.format("Total Fee: £%.2f\n", fee));
-        receipt.append("--------------------------\n");
-        receipt.append("Thank you for using our service!\n");
-
-        // Define the directory to save receipts
-        String receiptsDirPath = "receipts";
-        File receiptsDir = new File(receiptsDirPath);
-        if (!receiptsDir.exists()) {
-            boolean dirCreated = receiptsDir.mkdirs();
-            if (dirCreated) {
-                log.logInfo("Receipts directory created successfully: " + receiptsDirPath);
-            } else {
-                log.logError("Failed to create receipts directory: " + receiptsDirPath);
-            }
+    // Issues a numbered receipt into the archive without rendering it; an unarchived receipt has number 0
+    public Receipt issueReceipt(Parcel parcel, double fee) {
+        log.logInfo("Generating receipt for Parcel ID: " + parcel.getParcelID());
+        try {
+            Receipt receipt = receiptArchive().issue(parcel, fee);
+            log.logInfo("Receipt " + receipt.getNumber() + " archived for Parcel ID: " + parcel.getParcelID());
+            return receipt;
+        } catch (IOException | RuntimeException e) {
+            log.logError("Error archiving receipt for Parcel ID " + parcel.getParcelID() + ": " + e.getMessage());
+            return new Receipt(0, System.currentTimeMillis(), parcel, fee);
         }
+    }
 
-        // Generate a timestamp for the filename
-        DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
-        String timestamp = LocalDateTime.now().format(dtf);
+    // Looks up an archived receipt by number; returns null if there is none
+    public Receipt findReceipt(long number) throws IOException {
+        return receiptArchive().get(number);
+    }
 
-        // Define the receipt file name
-        String receiptFileName = String.format("Receipt_%s_%s.txt", parcel.getParcelID(), timestamp);
-        File receiptFile = new File(receiptsDir, receiptFileName);
+    // Every archived receipt for a parcel, oldest first
+    public List<Receipt> findReceipts(String parcelID) throws IOException {
+        return receiptArchive().findByParcel(parcelID);
+    }
 
-        // Write the receipt to the file
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(receiptFile))) {
-            writer.write(receipt.toString());
-            log.logInfo("Receipt saved successfully: " + receiptFile.getAbsolutePath());
-        } catch (IOException e) {
-            log.logError("Error writing receipt to file: " + e.getMessage());
+    // Opens the receipt archive in the given directory; otherwise it is opened in the receipts directory on first use
+    public synchronized void openReceiptArchive(String directory) throws IOException {
+        if (receiptArchive != null) {
+            throw new IllegalStateException("Receipt archive already open: " + receiptArchive.getDirectory());
         }
+        receiptArchive = new ReceiptArchive(Paths.get(directory), ReceiptArchive.DEFAULT_SEGMENT_BYTES);
+        log.logInfo("Receipt archive opened: " + receiptArchive.getDirectory().toAbsolutePath() + ", "
+                + receiptArchive.size() + " receipts in " + receiptArchive.getSegmentCount() + " segments");
+    }
 
-        log.logInfo("Receipt generated for Parcel ID: " + parcel.getParcelID());
-        return receipt.toString();
+    // Writes out buffered receipts and closes the archive
+    public synchronized void closeReceiptArchive() {
+        if (receiptArchive == null) {
+            return;
+        }
+        try {
+            receiptArchive.close();
+        } catch (IOException | RuntimeException e) {
+            log.logError("Failed to close receipt archive: " + e.getMessage());
+        }
+    }
+
+    private synchronized ReceiptArchive receiptArchive() throws IOException {
+        if (receiptArchive == null) {
+            openReceiptArchive(DirectoryManager.RECEIPTS_DIR);
+        }
+        return receiptArchive;
     }
 
     // Adds a customer to the queue if all validations pass
     public boolean addCustomer(String name, String parcelID) {
+        requireAcceptingChanges();
         log.logInfo("Attempting to add customer: Name=" + name + ", ParcelID=" + parcelID);
 
         // Validate name
@@ -445,39 +991,43 @@ public class Manager {
         }
 
         // Validate Parcel ID format
-        if (parcelID == null || !parcelID.matches("^[XC]\\d{3}$")) {
+        if (!isParcelID(parcelID)) {
             log.logError("Failed to add customer: Invalid Parcel ID format - " + parcelID);
-            throw new IllegalArgumentException("Invalid Parcel ID format! It must start with 'X' or 'C' followed by 3 digits (e.g., X123 or C456).");
+            throw new IllegalArgumentException("Invalid Parcel ID format! It must " + ParcelIdCodec.getDefault().describe() + ".");
         }
 
-        // Check if Parcel ID is already in the queue
-        boolean existsInQueue = queueOfCustomers.getCustomerQueue().stream()
-                .anyMatch(customer -> customer.getParcelID().equals(parcelID));
-        if (existsInQueue) {
-            log.logError("Failed to add customer: Parcel ID " + parcelID + " is already in the queue.");
-            throw new IllegalArgumentException("Parcel ID " + parcelID + " is already in the queue!");
-        }
+        // The queue and parcel checks run under the journal lock together with the add, so two check-ins for the
+        // same parcel, or a check-in racing a collection, cannot both pass them
+        long sequence;
+        synchronized (journalOrder) {
+            // Check if Parcel ID is already in the queue
+            if (queueOfCustomers.containsParcelID(parcelID)) {
+                log.logError("Failed to add customer: Parcel ID " + parcelID + " is already in the queue.");
+                throw new IllegalArgumentException("Parcel ID " + parcelID + " is already in the queue!");
+            }
 
-        // Verify if the parcel exists
-        Parcel parcel = parcelMap.findParcel(parcelID);
-        if (parcel == null) {
-            log.logError("Failed to add customer: Parcel ID " + parcelID + " not found.");
-            throw new IllegalArgumentException("Parcel with ID " + parcelID + " not found!");
-        }
+            // Verify if the parcel exists
+            Parcel parcel = parcelMap.findParcel(parcelID);
+            if (parcel == null) {
+                log.logError("Failed to add customer: Parcel ID " + parcelID + " not found.");
+                throw new IllegalArgumentException("Parcel with ID " + parcelID + " not found!");
+            }
 
-        // Check if the parcel is already collected
-        if ("Collected".equalsIgnoreCase(parcel.getStatus())) {
-            log.logError("Failed to add customer: Parcel ID " + parcelID + " has already been collected.");
-            throw new IllegalArgumentException("Parcel ID " + parcelID + " has already been collected!");
-        }
+            // Check if the parcel is already collected
+            if (parcel.isCollected()) {
+                log.logError("Failed to add customer: Parcel ID " + parcelID + " has already been collected.");
+                throw new IllegalArgumentException("Parcel ID " + parcelID + " has already been collected!");
+            }
 
-        // Add the customer to the queue
-        int queueNumber = queueOfCustomers.size() + 1;
-        Customer newCustomer = new Customer(name.trim(), queueNumber, parcelID);
-        queueOfCustomers.add(newCustomer);
+            // Add the customer to the queue
+            int queueNumber = queueOfCustomers.size() + 1;
+            Customer newCustomer = new Customer(name.trim(), queueNumber, parcelID);
+            queueOfCustomers.add(newCustomer);
+            sequence = journal(DepotJournal.CUSTOMER_QUEUED, DepotJournal.customerQueued(newCustomer));
+        }
+        awaitDurable(sequence);
 
         log.logInfo("Customer successfully added: Name=" + name.trim() + ", ParcelID=" + parcelID);
         return true;
     }
-
 }
@@ -0,0 +1,147 @@
+package controller;
+
+import model.Parcel;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.text.DecimalFormat;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+// One issued receipt as stored in the archive: the parcel as it was collected and the fee charged.
+// Only these values are kept; the printable text is rendered from them when asked for.
+public class Receipt {
+    private static final DateTimeFormatter ISSUED_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final long number;
+    private final long issuedMillis;
+    private final String parcelID;
+    private final double weight;
+    private final String dimensions;
+    private final String status;
+    private final int daysInDepot;
+    private final double fee;
+
+    // Constructor for Receipt
+    public Receipt(long number, long issuedMillis, String parcelID, double weight, String dimensions, String status,
+                   int daysInDepot, double fee) {
+        this.number = number;
+        this.issuedMillis = issuedMillis;
+        this.parcelID = parcelID;
+        this.weight = weight;
+        this.dimensions = dimensions;
+        this.status = status;
+        this.daysInDepot = daysInDepot;
+        this.fee = fee;
+    }
+
+    // Constructor for Receipt from a parcel as it stands now
+    Receipt(long number, long issuedMillis, Parcel parcel, double fee) {
+        this(number, issuedMillis, parcel.getParcelID(), parcel.getWeight(), parcel.getDimensions(), parcel.getStatus(),
+                parcel.getDaysInDepot(), fee);
+    }
+
+    // Getters
+    public long getNumber() {
+        return number;
+    }
+
+    public long getIssuedMillis() {
+        return issuedMillis;
+    }
+
+    public String getParcelID() {
+        return parcelID;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    public String getDimensions() {
+        return dimensions;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public int getDaysInDepot() {
+        return daysInDepot;
+    }
+
+    public double getFee() {
+        return fee;
+    }
+
+    // Renders the printable receipt with its price breakdown
+    public String render() {
+        DecimalFormat df = new DecimalFormat("#.##");
+        StringBuilder receipt = new StringBuilder();
+        receipt.append("----- Parcel Receipt -----\n");
+        if (number > 0) {
+            receipt.append("Receipt No: ").append(number).append("\n");
+        }
+        receipt.append("Issued: ").append(LocalDateTime.ofInstant(Instant.ofEpochMilli(issuedMillis), ZoneId.systemDefault())
+                .format(ISSUED_FORMAT)).append("\n");
+        receipt.append("Parcel ID: ").append(parcelID).append("\n");
+        receipt.append("Weight: ").append(df.format(weight)).append(" kg\n");
+        receipt.append("Dimensions: ").append(dimensions).append("\n");
+        receipt.append("Status: ").append(status).append("\n");
+        receipt.append("Days in Depot: ").append(daysInDepot).append("\n");
+        receipt.append("--------------------------\n\n");
+        receipt.append("----- Price Breakdown -----\n");
+        receipt.append(String.format("Base Fee: £%.2f\n", Manager.BASE_FEE));
+        receipt.append(String.format("Weight Fee (%.2f kg x £%.2f): £%.2f\n",
+                weight, Manager.WEIGHT_FEE_PER_KG, weight * Manager.WEIGHT_FEE_PER_KG));
+        receipt.append(String.format("Depot Fee (%d days x £%.2f): £%.2f\n",
+                daysInDepot, Manager.DEPOT_FEE_PER_DAY, daysInDepot * Manager.DEPOT_FEE_PER_DAY));
+        double totalBeforeDiscount = Manager.BASE_FEE + (weight * Manager.WEIGHT_FEE_PER_KG) +
+                (daysInDepot * Manager.DEPOT_FEE_PER_DAY);
+        double discount = totalBeforeDiscount - fee;
+        receipt.append(String.format("Total Before Discount: £%.2f\n", totalBeforeDiscount));
+        receipt.append(String.format("Discount: £%.2f\n", discount));
+        receipt.append("--------------------------\n");
+        receipt.append(String.format("Total Fee: £%.2f\n", fee));
+        receipt.append("--------------------------\n");
+        receipt.append("Thank you for using our service!\n");
+        return receipt.toString();
+    }
+
+    // Compact archive form; the receipt number is the archive record's sequence, so it is not repeated here
+    byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(issuedMillis);
+            out.writeUTF(parcelID);
+            out.writeDouble(weight);
+            out.writeUTF(dimensions == null ? "" : dimensions);
+            out.writeUTF(status == null ? "" : status);
+            out.writeInt(daysInDepot);
+            out.writeDouble(fee);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static Receipt decode(long number, ByteBuffer payload) throws IOException {
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        return new Receipt(number, in.readLong(), in.readUTF(), in.readDouble(), in.readUTF(), in.readUTF(), in.readInt(),
+                in.readDouble());
+    }
+
+    @Override
+    public String toString() {
+        return "Receipt{number=" + number + ", parcelID='" + parcelID + "', fee=" + String.format("%.2f", fee) + "}";
+    }
+}
@@ -0,0 +1,205 @@
+package controller;
+
+import model.Parcel;
+import util.Journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Append-only receipt store: compact records in numbered segment files, each segment a Journal whose record sequence
+// is the receipt number. Numbers run on across segments, so they are unique and increasing for the archive's lifetime.
+// Receipt numbers and parcel IDs are indexed in memory to record locations; text is rendered only when a receipt is read.
+public class ReceiptArchive implements Closeable {
+    static final long DEFAULT_SEGMENT_BYTES = 4L * 1024 * 1024;
+    private static final byte RECEIPT = 1;
+    private static final String SEGMENT_PREFIX = "receipts-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int OFFSET_BITS = 40;      // Locations pack the segment ordinal above a 40-bit byte offset
+    private static final long MISSING = -1;
+
+    private final Path directory;
+    private final long segmentBytes;
+
+    // Guarded by this
+    private final List<Path> segments = new ArrayList<>();
+    private Journal current;
+    private long currentBytes;
+    private long firstNumber = 1;
+    private long[] locations = new long[1024];      // Location of receipt firstNumber + i
+    private int count;
+    private final Map<String, long[]> numbersByParcel = new HashMap<>();
+
+    // Constructor for ReceiptArchive; indexes any existing segments and reopens the newest for appending
+    public ReceiptArchive(Path directory, long segmentBytes) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+
+        List<Path> existing = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                existing.add(file);
+            }
+        }
+        existing.sort(null);    // Zero-padded ordinals sort in creation order
+
+        long lastNumber = 0;
+        Journal.ReplayResult last = null;
+        for (Path file : existing) {
+            int ordinal = segments.size();
+            segments.add(file);
+            long[] offset = {0};
+            last = Journal.replay(file, lastNumber, (number, type, payload) -> {
+                int length = payload.remaining();
+                index(number, Receipt.decode(number, payload).getParcelID(), ordinal, offset[0]);
+                offset[0] += Journal.recordLength(length);
+            });
+            lastNumber = last.getLastSequence();
+        }
+
+        if (last == null) {
+            openSegment(0);
+        } else {
+            current = new Journal(segments.get(segments.size() - 1), Journal.Durability.ASYNC, last);
+            currentBytes = last.getValidBytes();
+        }
+    }
+
+    // Records a receipt for a collected parcel and returns it with its number; the write happens on the journal's writer thread
+    public synchronized Receipt issue(Parcel parcel, double fee) throws IOException {
+        if (currentBytes >= segmentBytes) {
+            rollSegment();
+        }
+        Receipt draft = new Receipt(0, System.currentTimeMillis(), parcel, fee);
+        byte[] payload = draft.encode();
+        long number;
+        try {
+            number = current.append(RECEIPT, payload);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        index(number, draft.getParcelID(), segments.size() - 1, currentBytes);
+        currentBytes += Journal.recordLength(payload.length);
+        return new Receipt(number, draft.getIssuedMillis(), parcel, fee);
+    }
+
+    // Reads a receipt back by number, or null if no such receipt was issued
+    public Receipt get(long number) throws IOException {
+        Path segment;
+        long offset;
+        Journal open = null;
+        synchronized (this) {
+            if (number < firstNumber || number >= firstNumber + count) {
+                return null;
+            }
+            long location = locations[(int) (number - firstNumber)];
+            if (location == MISSING) {
+                return null;
+            }
+            int ordinal = (int) (location >>> OFFSET_BITS);
+            segment = segments.get(ordinal);
+            offset = location & ((1L << OFFSET_BITS) - 1);
+            if (ordinal == segments.size() - 1) {
+                open = current;     // The record may still be in the writer's buffer
+            }
+        }
+        if (open != null) {
+            // Writing the buffer out is enough for the read below; the writer thread fsyncs it as usual, and issue() is
+            // not held up meanwhile
+            open.flush();
+        }
+        return Receipt.decode(number, Journal.readRecord(segment, offset, number));
+    }
+
+    // Every receipt issued for a parcel, oldest first
+    public List<Receipt> findByParcel(String parcelID) throws IOException {
+        long[] numbers;
+        synchronized (this) {
+            numbers = numbersByParcel.get(parcelID);
+        }
+        List<Receipt> receipts = new ArrayList<>();
+        if (numbers != null) {
+            for (long number : numbers) {
+                receipts.add(get(number));
+            }
+        }
+        return receipts;
+    }
+
+    // Number of receipts in the archive
+    public synchronized int size() {
+        return count;
+    }
+
+    // Number of the most recent receipt, or 0 if none has been issued
+    public synchronized long getLastNumber() {
+        return count == 0 ? 0 : firstNumber + count - 1;
+    }
+
+    // Number of segment files
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    // Retrieves the archive directory
+    public Path getDirectory() {
+        return directory;
+    }
+
+    // Writes out buffered receipts and closes the open segment
+    @Override
+    public synchronized void close() throws IOException {
+        current.close();
+    }
+
+    // Adds a receipt's location to both indexes; callers hold the monitor or are still constructing
+    private void index(long number, String parcelID, int ordinal, long offset) {
+        if (count == 0) {
+            firstNumber = number;
+        }
+        // A torn older segment can leave numbers that were never stored; they stay as missing entries
+        while (firstNumber + count < number) {
+            addLocation(MISSING);
+        }
+        addLocation(((long) ordinal << OFFSET_BITS) | offset);
+        long[] numbers = numbersByParcel.get(parcelID);
+        if (numbers == null) {
+            numbers = new long[]{number};
+        } else {
+            numbers = Arrays.copyOf(numbers, numbers.length + 1);
+            numbers[numbers.length - 1] = number;
+        }
+        numbersByParcel.put(parcelID, numbers);
+    }
+
+    private void addLocation(long location) {
+        if (count == locations.length) {
+            locations = Arrays.copyOf(locations, count * 2);
+        }
+        locations[count++] = location;
+    }
+
+    // Closes the full segment and starts the next one, continuing the receipt numbering
+    private void rollSegment() throws IOException {
+        long lastNumber = current.getLastSequence();
+        current.close();
+        openSegment(lastNumber);
+    }
+
+    private void openSegment(long lastNumber) throws IOException {
+        Path file = directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, segments.size() + 1, SEGMENT_SUFFIX));
+        Journal.ReplayResult empty = Journal.replay(file, lastNumber, (number, type, payload) -> { });
+        current = new Journal(file, Journal.Durability.ASYNC, empty);
+        segments.add(file);
+        currentBytes = 0;
+    }
+}
@@ -0,0 +1,177 @@
+package controller;
+
+import model.Parcel;
+import model.ParcelMap;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Running totals behind the report's summary section, updated on every collection so no scan is needed.
+// Status counts and weight/age distributions come from ParcelMap, which maintains them on add and edit.
+public class ReportSummary {
+    private static final String NO_DISCOUNT = "No discount";
+
+    private long collections;
+    private double totalFees;
+    private double totalDiscounts;
+    private final Map<String, RuleTotals> revenueByRule = new LinkedHashMap<>();
+
+    // Records a collected parcel and the fee charged for it, attributing the discount to the rule in force
+    public synchronized void recordCollection(Parcel parcel, double fee) {
+        double totalFee = DepotWorker.computeFee(parcel.getWeight(), parcel.getDaysInDepot());
+        String id = parcel.getParcelID();
+        DiscountRules.Table table = DiscountRules.getInstance().current();
+        int rule = id.isEmpty() ? -1 : table.ruleIndex(id.charAt(0), id.charAt(id.length() - 1));
+
+        String key;
+        String label;
+        if (rule < 0) {
+            key = NO_DISCOUNT;
+            label = NO_DISCOUNT;
+        } else {
+            DiscountRules.Rule r = table.getRules().get(rule);
+            key = r.toString();
+            label = r.describe();
+        }
+
+        RuleTotals totals = revenueByRule.computeIfAbsent(key, k -> new RuleTotals(k, label));
+        totals.parcels++;
+        totals.revenue += fee;
+        totals.discounts += totalFee - fee;
+
+        collections++;
+        totalFees += fee;
+        totalDiscounts += totalFee - fee;
+    }
+
+    // Adds a fee that is not tied to a recorded collection
+    public synchronized void addFee(double fee) {
+        totalFees += fee;
+    }
+
+    // Getters
+    public synchronized long getCollections() {
+        return collections;
+    }
+
+    public synchronized double getTotalFees() {
+        return totalFees;
+    }
+
+    public synchronized double getTotalDiscounts() {
+        return totalDiscounts;
+    }
+
+    // Copies the per-rule totals, in the order rules were first used
+    public synchronized List<RuleTotals> getRevenueByRule() {
+        List<RuleTotals> copy = new ArrayList<>();
+        for (RuleTotals t : revenueByRule.values()) {
+            copy.add(new RuleTotals(t));
+        }
+        return copy;
+    }
+
+    // Replaces every total with values read back from a snapshot
+    synchronized void restore(long collections, double totalFees, double totalDiscounts, List<RuleTotals> rules) {
+        this.collections = collections;
+        this.totalFees = totalFees;
+        this.totalDiscounts = totalDiscounts;
+        revenueByRule.clear();
+        for (RuleTotals t : rules) {
+            revenueByRule.put(t.key, new RuleTotals(t));
+        }
+    }
+
+    // Writes the report's summary section; cost depends on the number of rules and buckets, not parcels
+    public void writeSummary(Writer writer, ParcelMap parcelMap) throws IOException {
+        long count;
+        double fees;
+        double discounts;
+        List<RuleTotals> rules;
+        synchronized (this) {
+            count = collections;
+            fees = totalFees;
+            discounts = totalDiscounts;
+            rules = getRevenueByRule();
+        }
+
+        writer.write(String.format("Total fees collected: £%.2f\n", fees));
+        writer.write(String.format("Total discounts given: £%.2f\n", discounts));
+        writer.write("Collections this session: " + count + "\n");
+        writer.write("Parcels pending: " + parcelMap.countByStatus(Parcel.STATUS_PENDING) +
+                ", collected: " + parcelMap.countByStatus(Parcel.STATUS_COLLECTED) + "\n");
+
+        writer.write("\nRevenue by discount rule:\n");
+        if (rules.isEmpty()) {
+            writer.write("  No collections yet.\n");
+        }
+        for (RuleTotals t : rules) {
+            writer.write(String.format("  %s: %d parcels, £%.2f revenue, £%.2f discount\n", t.label, t.parcels, t.revenue, t.discounts));
+        }
+
+        writeDistribution(writer, "Weight distribution (pending / collected):", ParcelMap.getWeightBucketLabels(),
+                parcelMap.getWeightDistribution(Parcel.STATUS_PENDING), parcelMap.getWeightDistribution(Parcel.STATUS_COLLECTED));
+        writeDistribution(writer, "Days in depot distribution (pending / collected):", ParcelMap.getAgeBucketLabels(),
+                parcelMap.getAgeDistribution(Parcel.STATUS_PENDING), parcelMap.getAgeDistribution(Parcel.STATUS_COLLECTED));
+    }
+
+    private static void writeDistribution(Writer writer, String title, String[] labels, int[] pending, int[] collected) throws IOException {
+        writer.write("\n" + title + "\n");
+        for (int i = 0; i < labels.length; i++) {
+            writer.write(String.format("  %-12s %d / %d\n", labels[i], pending[i], collected[i]));
+        }
+    }
+
+    // Collections, revenue and discounts attributed to one discount rule
+    public static class RuleTotals {
+        private final String key;       // The rule's "prefix,suffix,rate" form, stable across reloads
+        private final String label;
+        private long parcels;
+        private double revenue;
+        private double discounts;
+
+        RuleTotals(String key, String label) {
+            this.key = key;
+            this.label = label;
+        }
+
+        RuleTotals(String key, String label, long parcels, double revenue, double discounts) {
+            this(key, label);
+            this.parcels = parcels;
+            this.revenue = revenue;
+            this.discounts = discounts;
+        }
+
+        RuleTotals(RuleTotals other) {
+            this.key = other.key;
+            this.label = other.label;
+            this.parcels = other.parcels;
+            this.revenue = other.revenue;
+            this.discounts = other.discounts;
+        }
+
+        String getKey() {
+            return key;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public long getParcels() {
+            return parcels;
+        }
+
+        public double getRevenue() {
+            return revenue;
+        }
+
+        public double getDiscounts() {
+            return discounts;
+        }
+    }
+}
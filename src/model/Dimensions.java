@@ -0,0 +1,121 @@
+package model;
+
+import java.text.DecimalFormat;
+
+// Parcel dimensions parsed once from "WidthxHeightxLength", with volume and longest side precomputed
+public final class Dimensions {
+    public static final String REQUIRED_ERROR = "Dimensions are required!";
+    public static final String FORMAT_ERROR = "Dimensions must be in the format WidthxHeightxLength (e.g., 10x10x10).";
+    public static final String NUMERIC_ERROR = "Dimensions must contain valid numeric values.";
+    public static final String POSITIVE_ERROR = "Width, Height, and Length must be positive numbers.";
+
+    private final String text;
+    private final double width;
+    private final double height;
+    private final double length;
+    private final double volume;
+    private final double longestSide;
+    private final String error;     // Why the text could not be parsed, or null when valid
+
+    private Dimensions(String text, double width, double height, double length, String error) {
+        this.text = text;
+        this.width = width;
+        this.height = height;
+        this.length = length;
+        this.volume = width * height * length;
+        this.longestSide = Math.max(width, Math.max(height, length));
+        this.error = error;
+    }
+
+    // Builds dimensions from numbers, formatting the text the way the edit dialog always has ("#.##")
+    public static Dimensions of(double width, double height, double length) {
+        String text = formatSide(width) + "x" + formatSide(height) + "x" + formatSide(length);
+        return new Dimensions(text, width, height, length, positive(width, height, length) ? null : POSITIVE_ERROR);
+    }
+
+    // Parses "WxHxL"; invalid text is kept verbatim and reported through getError() so CSV rows still load
+    public static Dimensions parse(String text) {
+        if (text == null) {
+            return null;
+        }
+        int first = text.indexOf('x');
+        int second = first < 0 ? -1 : text.indexOf('x', first + 1);
+        if (second < 0 || text.indexOf('x', second + 1) >= 0) {
+            return invalid(text, FORMAT_ERROR);
+        }
+        double w;
+        double h;
+        double l;
+        try {
+            w = Double.parseDouble(text.substring(0, first));
+            h = Double.parseDouble(text.substring(first + 1, second));
+            l = Double.parseDouble(text.substring(second + 1));
+        } catch (NumberFormatException e) {
+            return invalid(text, NUMERIC_ERROR);
+        }
+        return new Dimensions(text, w, h, l, positive(w, h, l) ? null : POSITIVE_ERROR);
+    }
+
+    private static Dimensions invalid(String text, String error) {
+        return new Dimensions(text, Double.NaN, Double.NaN, Double.NaN, text.isEmpty() ? REQUIRED_ERROR : error);
+    }
+
+    private static boolean positive(double w, double h, double l) {
+        return w > 0 && h > 0 && l > 0;
+    }
+
+    // Formats one side without forcing two decimal places
+    public static String formatSide(double side) {
+        return new DecimalFormat("#.##").format(side);
+    }
+
+    // Getters
+    public String getText() {
+        return text;
+    }
+
+    public double getWidth() {
+        return width;
+    }
+
+    public double getHeight() {
+        return height;
+    }
+
+    public double getLength() {
+        return length;
+    }
+
+    public double getVolume() {
+        return volume;
+    }
+
+    public double getLongestSide() {
+        return longestSide;
+    }
+
+    // Checks whether the text parsed into three positive numbers
+    public boolean isValid() {
+        return error == null;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Dimensions && ((Dimensions) o).text.equals(text);
+    }
+
+    @Override
+    public int hashCode() {
+        return text.hashCode();
+    }
+
+    // Returns the original "WxHxL" text
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -1,14 +1,40 @@
 package model;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+// A parcel is either detached (holds its own values) or a lightweight view onto a ParcelStore slot
 public class Parcel {
+    public static final String STATUS_PENDING = "Pending";
+    public static final String STATUS_COLLECTED = "Collected";
+
+    private static final VarHandle STATUS;
+
+    static {
+        try {
+            STATUS = MethodHandles.lookup().findVarHandle(Parcel.class, "status", String.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private String parcelID;
-    private double weight;
-    private String dimensions;
-    private String status;         // "Pending" or "Collected"
-    private int daysInDepot;
+    private volatile double weight;
+    private volatile Dimensions dimensions;
+    private volatile String status;         // "Pending" or "Collected"
+    private volatile int daysInDepot;
+
+    // Set once the parcel lives in a ParcelMap; the fields above are then unused
+    private volatile ParcelStore store;
+    private int slot;
 
-    // Constructor for Parcel
+    // Constructor for Parcel; the "WxHxL" text is parsed once here
     public Parcel(String parcelID, double weight, String dimensions, String status, int daysInDepot) {
+        this(parcelID, weight, Dimensions.parse(dimensions), status, daysInDepot);
+    }
+
+    // Constructor for Parcel with already parsed dimensions
+    public Parcel(String parcelID, double weight, Dimensions dimensions, String status, int daysInDepot) {
         this.parcelID = parcelID;
         this.weight = weight;
         this.dimensions = dimensions;
@@ -16,48 +42,118 @@ public class Parcel {
         this.daysInDepot = daysInDepot;
     }
 
+    // Constructor for a view onto a stored parcel
+    Parcel(ParcelStore store, int slot) {
+        this.parcelID = store.parcelID(slot);
+        this.store = store;
+        this.slot = slot;
+    }
+
+    // Turns this detached parcel into a view of its slot, so existing references see later changes
+    void attach(ParcelStore store, int slot) {
+        this.slot = slot;
+        this.store = store;
+        this.dimensions = null;
+        this.status = null;
+    }
+
     // Getters
     public String getParcelID() {
         return parcelID;
     }
 
     public double getWeight() {
-        return weight;
+        ParcelStore s = store;
+        return s != null ? s.weight(slot) : weight;
     }
 
     public String getDimensions() {
-        return dimensions;
+        Dimensions d = getDimensionsValue();
+        return d != null ? d.getText() : null;
+    }
+
+    public Dimensions getDimensionsValue() {
+        ParcelStore s = store;
+        return s != null ? s.dimensions(slot) : dimensions;
     }
 
     public String getStatus() {
-        return status;
+        ParcelStore s = store;
+        return s != null ? s.status(slot) : status;
     }
 
     public int getDaysInDepot() {
-        return daysInDepot;
+        ParcelStore s = store;
+        return s != null ? s.daysInDepot(slot) : daysInDepot;
     }
 
     // Setters
     public void setWeight(double weight) {
-        this.weight = weight;
+        ParcelStore s = store;
+        if (s != null) {
+            s.setWeight(slot, weight);
+        } else {
+            this.weight = weight;
+        }
     }
 
     public void setDimensions(String dimensions) {
-        this.dimensions = dimensions;
+        setDimensions(Dimensions.parse(dimensions));
+    }
+
+    public void setDimensions(Dimensions dimensions) {
+        ParcelStore s = store;
+        if (s != null) {
+            s.setDimensions(slot, dimensions);
+        } else {
+            this.dimensions = dimensions;
+        }
     }
 
     public void setStatus(String status) {
-        this.status = status;
+        ParcelStore s = store;
+        if (s != null) {
+            s.setStatus(slot, status);
+        } else {
+            this.status = status;
+        }
     }
 
     public void setDaysInDepot(int daysInDepot) {
-        this.daysInDepot = daysInDepot;
+        ParcelStore s = store;
+        if (s != null) {
+            s.setDaysInDepot(slot, daysInDepot);
+        } else {
+            this.daysInDepot = daysInDepot;
+        }
+    }
+
+    // Checks whether the parcel has been collected
+    public boolean isCollected() {
+        ParcelStore s = store;
+        return s != null ? s.isCollected(slot) : STATUS_COLLECTED.equalsIgnoreCase(status);
+    }
+
+    // Atomically moves the parcel to "Collected"; only one caller can win for a given parcel
+    public boolean markCollected() {
+        ParcelStore s = store;
+        if (s != null) {
+            return s.markCollected(slot);
+        }
+        while (true) {
+            String current = status;
+            if (STATUS_COLLECTED.equalsIgnoreCase(current)) {
+                return false;
+            }
+            if (STATUS.compareAndSet(this, current, STATUS_COLLECTED)) {
+                return true;
+            }
+        }
     }
 
     // Returns a string of the parcel
     @Override
     public String toString() {
-        return "Parcel{" + "parcelID='" + parcelID + '\'' + ", weight=" + weight + ", dimensions='" + dimensions + '\'' + ", status='" + status + '\'' + ", daysInDepot=" + daysInDepot + '}';
+        return "Parcel{" + "parcelID='" + parcelID + '\'' + ", weight=" + getWeight() + ", dimensions='" + getDimensions() + '\'' + ", status='" + getStatus() + '\'' + ", daysInDepot=" + getDaysInDepot() + '}';
     }
 }
-
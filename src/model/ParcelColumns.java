@@ -0,0 +1,60 @@
+package model;
+
+// A point-in-time copy of every parcel as flat columns, in slot order; used to write and restore snapshots.
+// Statuses and dimensions are dictionary codes into getStatusNames() and getDimensionTexts() (-1 for null).
+public class ParcelColumns {
+    private final int size;
+    private final String[] parcelIDs;
+    private final double[] weights;
+    private final int[] daysInDepot;
+    private final byte[] statusCodes;
+    private final int[] dimensionCodes;
+    private final String[] statusNames;
+    private final String[] dimensionTexts;
+
+    // Constructor for ParcelColumns; the arrays are used as given, not copied
+    public ParcelColumns(int size, String[] parcelIDs, double[] weights, int[] daysInDepot, byte[] statusCodes,
+                         int[] dimensionCodes, String[] statusNames, String[] dimensionTexts) {
+        this.size = size;
+        this.parcelIDs = parcelIDs;
+        this.weights = weights;
+        this.daysInDepot = daysInDepot;
+        this.statusCodes = statusCodes;
+        this.dimensionCodes = dimensionCodes;
+        this.statusNames = statusNames;
+        this.dimensionTexts = dimensionTexts;
+    }
+
+    // Getters
+    public int size() {
+        return size;
+    }
+
+    public String[] getParcelIDs() {
+        return parcelIDs;
+    }
+
+    public double[] getWeights() {
+        return weights;
+    }
+
+    public int[] getDaysInDepot() {
+        return daysInDepot;
+    }
+
+    public byte[] getStatusCodes() {
+        return statusCodes;
+    }
+
+    public int[] getDimensionCodes() {
+        return dimensionCodes;
+    }
+
+    public String[] getStatusNames() {
+        return statusNames;
+    }
+
+    public String[] getDimensionTexts() {
+        return dimensionTexts;
+    }
+}
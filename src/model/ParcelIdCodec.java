@@ -0,0 +1,94 @@
+package model;
+
+// Maps structured parcel IDs ('X' or 'C' followed by a fixed number of digits) to dense integers and back, so lookups
+// can index an array instead of hashing Strings. IDs outside the scheme encode to -1 and are handled by callers' fallbacks
+public final class ParcelIdCodec {
+    public static final int DEFAULT_DIGITS = 3;
+    public static final int MAX_DIGITS = 8;         // Keeps the code space (2 x 10^8) well inside an int
+    private static final char[] PREFIXES = {'X', 'C'};
+
+    private static final ParcelIdCodec DEFAULT = new ParcelIdCodec(Integer.getInteger("depot.parcel.id.digits", DEFAULT_DIGITS));
+
+    private final int digits;
+    private final int perPrefix;    // 10^digits
+
+    // Constructor for ParcelIdCodec with the number of digits after the prefix letter
+    public ParcelIdCodec(int digits) {
+        if (digits < 1 || digits > MAX_DIGITS) {
+            throw new IllegalArgumentException("Parcel ID digits must be between 1 and " + MAX_DIGITS + ": " + digits);
+        }
+        this.digits = digits;
+        int power = 1;
+        for (int i = 0; i < digits; i++) {
+            power *= 10;
+        }
+        this.perPrefix = power;
+    }
+
+    // Retrieves the codec for the configured ID format (-Ddepot.parcel.id.digits, 3 by default)
+    public static ParcelIdCodec getDefault() {
+        return DEFAULT;
+    }
+
+    public int getDigits() {
+        return digits;
+    }
+
+    // Number of distinct codes, i.e. one more than the largest code encode can return
+    public int capacity() {
+        return PREFIXES.length * perPrefix;
+    }
+
+    // Returns the dense code for an ID in the scheme, or -1; reads characters in place and allocates nothing
+    public int encode(String parcelID) {
+        if (parcelID == null || parcelID.length() != digits + 1) {
+            return -1;
+        }
+        char prefix = parcelID.charAt(0);
+        int code;
+        if (prefix == PREFIXES[0]) {
+            code = 0;
+        } else if (prefix == PREFIXES[1]) {
+            code = perPrefix;
+        } else {
+            return -1;
+        }
+        int number = 0;
+        for (int i = 1; i <= digits; i++) {
+            int d = parcelID.charAt(i) - '0';
+            if (d < 0 || d > 9) {
+                return -1;
+            }
+            number = number * 10 + d;
+        }
+        return code + number;
+    }
+
+    // Whether an ID follows the scheme
+    public boolean matches(String parcelID) {
+        return encode(parcelID) >= 0;
+    }
+
+    // Rebuilds the ID for a code returned by encode, zero-padding the number
+    public String decode(int code) {
+        if (code < 0 || code >= capacity()) {
+            throw new IllegalArgumentException("Parcel ID code out of range: " + code);
+        }
+        StringBuilder id = new StringBuilder(digits + 1).append(PREFIXES[code / perPrefix]);
+        String number = Integer.toString(code % perPrefix);
+        for (int i = number.length(); i < digits; i++) {
+            id.append('0');
+        }
+        return id.append(number).toString();
+    }
+
+    // The format rule as shown in validation messages, e.g. "start with 'X' or 'C' followed by 3 digits (e.g., X123 or C123)"
+    public String describe() {
+        StringBuilder example = new StringBuilder(digits);
+        for (int i = 0; i < digits; i++) {
+            example.append((char) ('1' + i % 9));
+        }
+        return "start with '" + PREFIXES[0] + "' or '" + PREFIXES[1] + "' followed by " + digits + " digits (e.g., "
+                + PREFIXES[0] + example + " or " + PREFIXES[1] + example + ")";
+    }
+}
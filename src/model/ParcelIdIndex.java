@@ -0,0 +1,121 @@
+package model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+// parcelID -> slot map; one writer at a time (the store's lock), lock-free readers. IDs the codec understands go into a
+// direct-addressed table of pages indexed by their code, so finding them costs no hashing, String comparison or
+// allocation; any other ID falls back to an open-addressing hash table
+class ParcelIdIndex {
+    private static final VarHandle KEYS = MethodHandles.arrayElementVarHandle(String[].class);
+    private static final VarHandle PAGES = MethodHandles.arrayElementVarHandle(int[][].class);
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int PAGE_BITS = 12;
+    private static final int PAGE_MASK = (1 << PAGE_BITS) - 1;
+
+    private final ParcelIdCodec codec;
+    private final int[][] directPages;     // Allocated page by page on first use; entries hold slot + 1, so 0 means absent
+    private volatile Table table = new Table(INITIAL_CAPACITY);
+    private int count;
+    private int directCount;
+
+    // Constructor for ParcelIdIndex using the codec for the configured ID format
+    ParcelIdIndex(ParcelIdCodec codec) {
+        this.codec = codec;
+        this.directPages = new int[(codec.capacity() + PAGE_MASK) >>> PAGE_BITS][];
+    }
+
+    // Returns the slot for the ID, or -1 if it is not present
+    int get(String parcelID) {
+        int code = codec.encode(parcelID);
+        if (code >= 0) {
+            int[] page = (int[]) PAGES.getAcquire(directPages, code >>> PAGE_BITS);
+            return page == null ? -1 : (int) SLOTS.getAcquire(page, code & PAGE_MASK) - 1;
+        }
+        Table t = table;
+        int mask = t.keys.length - 1;
+        for (int i = spread(parcelID.hashCode()) & mask; ; i = (i + 1) & mask) {
+            String key = (String) KEYS.getAcquire(t.keys, i);
+            if (key == null) {
+                return -1;
+            }
+            if (key.equals(parcelID)) {
+                return t.values[i];
+            }
+        }
+    }
+
+    // Adds a new ID; callers must hold the store's write lock and must not add an existing ID
+    void put(String parcelID, int slot) {
+        int code = codec.encode(parcelID);
+        if (code >= 0) {
+            int[] page = directPages[code >>> PAGE_BITS];
+            if (page == null) {
+                page = new int[PAGE_MASK + 1];
+                PAGES.setRelease(directPages, code >>> PAGE_BITS, page);
+            }
+            SLOTS.setRelease(page, code & PAGE_MASK, slot + 1);
+            directCount++;
+            return;
+        }
+        if ((count + 1) * 2 > table.keys.length) {
+            resize();
+        }
+        insert(table, parcelID, slot);
+        count++;
+    }
+
+    int size() {
+        return directCount + count;
+    }
+
+    // Bytes held by the backing arrays, excluding the key Strings themselves
+    long footprintBytes() {
+        Table t = table;
+        long bytes = 16L + 4L * t.keys.length + 16L + 4L * t.values.length + 16L + 4L * directPages.length;
+        for (int[] page : directPages) {
+            if (page != null) {
+                bytes += 16L + 4L * page.length;
+            }
+        }
+        return bytes;
+    }
+
+    private void resize() {
+        Table old = table;
+        Table bigger = new Table(old.keys.length * 2);
+        for (int i = 0; i < old.keys.length; i++) {
+            if (old.keys[i] != null) {
+                insert(bigger, old.keys[i], old.values[i]);
+            }
+        }
+        table = bigger;
+    }
+
+    // Writes the value before publishing the key so readers never see a key without its slot
+    private static void insert(Table t, String parcelID, int slot) {
+        int mask = t.keys.length - 1;
+        int i = spread(parcelID.hashCode()) & mask;
+        while (t.keys[i] != null) {
+            i = (i + 1) & mask;
+        }
+        t.values[i] = slot;
+        KEYS.setRelease(t.keys, i, parcelID);
+    }
+
+    private static int spread(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Table {
+        private final String[] keys;
+        private final int[] values;
+
+        Table(int capacity) {
+            keys = new String[capacity];
+            values = new int[capacity];
+        }
+    }
+}
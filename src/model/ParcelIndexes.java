@@ -0,0 +1,188 @@
+package model;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Secondary indexes over ParcelStore slots: one partition per status code, each sorted by days in depot and by weight.
+// Keys pack the sort value into the high 32 bits and the slot into the low 32 bits, so they never read mutable columns.
+// Keys are kept in primitive sorted arrays (SortedLongSet), not boxed in a skip list; updates happen under the store's
+// monitor and queries merge the arrays without locking.
+class ParcelIndexes {
+    // Inclusive upper bounds of the weight (kg) and age (days) histogram buckets; the last bucket is open-ended
+    static final double[] WEIGHT_BOUNDS = {1, 5, 10, 20};
+    static final String[] WEIGHT_LABELS = {"up to 1 kg", "1-5 kg", "5-10 kg", "10-20 kg", "over 20 kg"};
+    static final int[] AGE_BOUNDS = {3, 7, 14, 30};
+    static final String[] AGE_LABELS = {"0-3 days", "4-7 days", "8-14 days", "15-30 days", "over 30 days"};
+
+    private volatile Partition[] partitions = new Partition[0];
+
+    // Adds a slot under the given status code
+    void add(byte status, int slot, double weight, int days) {
+        if (status < 0) {
+            return;
+        }
+        Partition p = partitionForUpdate(status);
+        p.byDays.add(daysKey(days, slot));
+        p.byWeight.add(weightKey(weight, slot));
+        p.count++;
+        p.weightBuckets[weightBucket(weight)]++;
+        p.ageBuckets[ageBucket(days)]++;
+    }
+
+    // Adds slots 0..n-1 in one pass, sorting each partition's keys and merging them into its arrays at once
+    void addAll(byte[] statuses, double[] weights, int[] days, int n) {
+        int[] sizes = new int[Byte.MAX_VALUE + 1];
+        for (int slot = 0; slot < n; slot++) {
+            if (statuses[slot] >= 0) {
+                sizes[statuses[slot]]++;
+            }
+        }
+        for (int status = 0; status < sizes.length; status++) {
+            if (sizes[status] == 0) {
+                continue;
+            }
+            long[] dayKeys = new long[sizes[status]];
+            long[] weightKeys = new long[sizes[status]];
+            Partition p = partitionForUpdate((byte) status);
+            int k = 0;
+            for (int slot = 0; slot < n; slot++) {
+                if (statuses[slot] == status) {
+                    dayKeys[k] = daysKey(days[slot], slot);
+                    weightKeys[k++] = weightKey(weights[slot], slot);
+                    p.weightBuckets[weightBucket(weights[slot])]++;
+                    p.ageBuckets[ageBucket(days[slot])]++;
+                }
+            }
+            Arrays.sort(dayKeys);
+            Arrays.sort(weightKeys);
+            p.byDays.addAllSorted(dayKeys, k);
+            p.byWeight.addAllSorted(weightKeys, k);
+            p.count += k;
+        }
+    }
+
+    // Removes a slot using the values it was indexed with
+    void remove(byte status, int slot, double weight, int days) {
+        Partition p = partition(status);
+        if (p == null) {
+            return;
+        }
+        p.byDays.remove(daysKey(days, slot));
+        p.byWeight.remove(weightKey(weight, slot));
+        p.count--;
+        p.weightBuckets[weightBucket(weight)]--;
+        p.ageBuckets[ageBucket(days)]--;
+    }
+
+    // Number of slots indexed under a status code
+    int count(byte status) {
+        Partition p = partition(status);
+        return p == null ? 0 : p.count;
+    }
+
+    // Copies of the per-bucket counts for a status code; callers hold the store's monitor
+    int[] weightDistribution(byte status) {
+        Partition p = partition(status);
+        return p == null ? new int[WEIGHT_LABELS.length] : p.weightBuckets.clone();
+    }
+
+    int[] ageDistribution(byte status) {
+        Partition p = partition(status);
+        return p == null ? new int[AGE_LABELS.length] : p.ageBuckets.clone();
+    }
+
+    // Visits slots with daysInDepot > days, in ascending days order
+    void forEachOlderThan(byte status, int days, IntConsumer action) {
+        Partition p = partition(status);
+        if (p == null || days == Integer.MAX_VALUE) {
+            return;
+        }
+        p.byDays.forEachFrom(daysKey(days + 1, 0), key -> action.accept(slotOf(key)));
+    }
+
+    // Visits every slot under a status code, in ascending days order
+    void forEach(byte status, IntConsumer action) {
+        Partition p = partition(status);
+        if (p == null) {
+            return;
+        }
+        p.byDays.forEach(key -> action.accept(slotOf(key)));
+    }
+
+    // Visits slots whose weight may exceed the given weight, in ascending weight order; callers check the exact weight
+    void forEachHeavierThan(byte status, double weight, IntConsumer action) {
+        Partition p = partition(status);
+        if (p == null) {
+            return;
+        }
+        p.byWeight.forEachFrom(weightKey(weight, 0), key -> action.accept(slotOf(key)));
+    }
+
+    // Bytes held by the key arrays
+    long footprintBytes() {
+        long bytes = 0;
+        for (Partition p : partitions) {
+            if (p != null) {
+                bytes += p.byDays.footprintBytes() + p.byWeight.footprintBytes();
+            }
+        }
+        return bytes;
+    }
+
+    private Partition partition(byte status) {
+        Partition[] ps = partitions;
+        return status >= 0 && status < ps.length ? ps[status] : null;
+    }
+
+    private Partition partitionForUpdate(byte status) {
+        Partition[] ps = partitions;
+        if (status >= ps.length) {
+            ps = Arrays.copyOf(ps, status + 1);
+            partitions = ps;
+        }
+        if (ps[status] == null) {
+            ps[status] = new Partition();
+            partitions = ps;
+        }
+        return ps[status];
+    }
+
+    static long daysKey(int days, int slot) {
+        return ((long) days << 32) | (slot & 0xFFFFFFFFL);
+    }
+
+    // Weights are bucketed to whole grams so they fit in 32 bits next to the slot
+    static long weightKey(double weight, int slot) {
+        double grams = Math.floor(weight * 1000);
+        int bucket = Double.isNaN(grams) ? Integer.MIN_VALUE : (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, grams));
+        return ((long) bucket << 32) | (slot & 0xFFFFFFFFL);
+    }
+
+    private static int weightBucket(double weight) {
+        int b = 0;
+        while (b < WEIGHT_BOUNDS.length && !(weight <= WEIGHT_BOUNDS[b])) {
+            b++;
+        }
+        return b;
+    }
+
+    private static int ageBucket(int days) {
+        int b = 0;
+        while (b < AGE_BOUNDS.length && days > AGE_BOUNDS[b]) {
+            b++;
+        }
+        return b;
+    }
+
+    private static int slotOf(long key) {
+        return (int) key;
+    }
+
+    private static final class Partition {
+        private final SortedLongSet byDays = new SortedLongSet();
+        private final SortedLongSet byWeight = new SortedLongSet();
+        private final int[] weightBuckets = new int[WEIGHT_LABELS.length];
+        private final int[] ageBuckets = new int[AGE_LABELS.length];
+        private volatile int count;
+    }
+}
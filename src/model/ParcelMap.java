@@ -1,18 +1,52 @@
 package model;
 
+import util.ChangeEvent;
 import util.Observable;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 public class ParcelMap extends Observable {
-    private final HashMap<String, Parcel> parcels = new HashMap<>();
+    public static final String SOURCE = "ParcelMap";
+
+    // Columnar storage; lookups are lock-free and return lightweight Parcel views
+    private final ParcelStore store = new ParcelStore();
 
     // Adds a new parcel to the collection and notifies observers about the update
     public void addParcel(Parcel parcel) {
-        parcels.put(parcel.getParcelID(), parcel);
-        notifyObservers("ParcelMap");
+        store(parcel);
+        publish(ChangeEvent.of(SOURCE, ChangeEvent.Kind.ADDED, parcel.getParcelID()));
+    }
+
+    // Adds all parcels in order and notifies observers once
+    public void addAll(Collection<Parcel> newParcels) {
+        ChangeEvent.Builder change = new ChangeEvent.Builder(SOURCE);
+        synchronized (store) {
+            for (Parcel parcel : newParcels) {
+                store(parcel);
+                change.add(ChangeEvent.Kind.ADDED, parcel.getParcelID());
+            }
+        }
+        publish(change.build());
+    }
+
+    // Copies the parcel into the store and turns the caller's object into a view of it
+    private void store(Parcel parcel) {
+        int slot = store.put(parcel.getParcelID(), parcel.getWeight(), parcel.getDimensionsValue(), parcel.getStatus(), parcel.getDaysInDepot());
+        parcel.attach(store, slot);
+    }
+
+    // Atomically marks a pending parcel as collected; returns false if it is missing or another caller won
+    public boolean tryCollect(String parcelID) {
+        int slot = store.slotOf(parcelID);
+        if (slot < 0 || !store.markCollected(slot)) {
+            return false;
+        }
+        publish(ChangeEvent.of(SOURCE, ChangeEvent.Kind.UPDATED, parcelID));
+        return true;
     }
 
     // Triggers a notification to observers for the parcel map
@@ -20,13 +54,151 @@ public class ParcelMap extends Observable {
         notifyObservers(observableType);
     }
 
+    // Tells observers a parcel's details were edited through its setters
+    public void notifyParcelUpdated(String parcelID) {
+        publish(ChangeEvent.of(SOURCE, ChangeEvent.Kind.UPDATED, parcelID));
+    }
+
     // Finds a parcel in the collection by its parcel ID
     public Parcel findParcel(String parcelID) {
-        return parcels.get(parcelID);
+        int slot = store.slotOf(parcelID);
+        return slot < 0 ? null : new Parcel(store, slot);
+    }
+
+    // Position of a parcel in insertion order (as used by getParcelAt), or -1 if it is not in the collection
+    public int indexOf(String parcelID) {
+        return store.slotOf(parcelID);
+    }
+
+    // Returns the number of parcels in the collection
+    public int size() {
+        return store.size();
     }
 
-    // Retrieves all parcels in the collection as a list
+    // Retrieves the parcel at a position in insertion order (0 <= index < size())
+    public Parcel getParcelAt(int index) {
+        return new Parcel(store, index);
+    }
+
+    // Fields of the parcel at a position (as returned by indexOf), read straight from the columns without creating a
+    // Parcel view; for hot paths that look a parcel up and read a few fields
+    public String getParcelIDAt(int index) {
+        return store.parcelID(index);
+    }
+
+    public double getWeightAt(int index) {
+        return store.weight(index);
+    }
+
+    public Dimensions getDimensionsAt(int index) {
+        return store.dimensions(index);
+    }
+
+    public String getStatusAt(int index) {
+        return store.status(index);
+    }
+
+    public int getDaysInDepotAt(int index) {
+        return store.daysInDepot(index);
+    }
+
+    public boolean isCollectedAt(int index) {
+        return store.isCollected(index);
+    }
+
+    // Retrieves all parcels in the collection as a list, in insertion order
     public List<Parcel> getAllParcels() {
-        return new ArrayList<>(parcels.values());
+        int n = store.size();
+        List<Parcel> all = new ArrayList<>(n);
+        for (int slot = 0; slot < n; slot++) {
+            all.add(new Parcel(store, slot));
+        }
+        return all;
+    }
+
+    // Counts parcels with the given status (compared ignoring case) from the status index
+    public int countByStatus(String status) {
+        int count = 0;
+        for (byte code : store.statusCodesFor(status)) {
+            count += store.countByStatus(code);
+        }
+        return count;
+    }
+
+    // Labels for the buckets returned by getWeightDistribution and getAgeDistribution
+    public static String[] getWeightBucketLabels() {
+        return ParcelIndexes.WEIGHT_LABELS.clone();
+    }
+
+    public static String[] getAgeBucketLabels() {
+        return ParcelIndexes.AGE_LABELS.clone();
+    }
+
+    // Counts parcels with the given status per weight bucket, kept up to date as parcels change
+    public int[] getWeightDistribution(String status) {
+        int[] total = new int[ParcelIndexes.WEIGHT_LABELS.length];
+        for (byte code : store.statusCodesFor(status)) {
+            int[] counts = store.weightDistribution(code);
+            for (int i = 0; i < total.length; i++) {
+                total[i] += counts[i];
+            }
+        }
+        return total;
+    }
+
+    // Counts parcels with the given status per days-in-depot bucket, kept up to date as parcels change
+    public int[] getAgeDistribution(String status) {
+        int[] total = new int[ParcelIndexes.AGE_LABELS.length];
+        for (byte code : store.statusCodesFor(status)) {
+            int[] counts = store.ageDistribution(code);
+            for (int i = 0; i < total.length; i++) {
+                total[i] += counts[i];
+            }
+        }
+        return total;
+    }
+
+    // Visits parcels with the given status straight from the status index, without building a list
+    public void forEachByStatus(String status, Consumer<Parcel> action) {
+        for (byte code : store.statusCodesFor(status)) {
+            store.forEachInStatus(code, slot -> action.accept(new Parcel(store, slot)));
+        }
+    }
+
+    // Visits the positions (see indexOf) of parcels with the given status, in ascending days-in-depot order
+    public void forEachIndexByStatus(String status, IntConsumer action) {
+        for (byte code : store.statusCodesFor(status)) {
+            store.forEachInStatus(code, action);
+        }
+    }
+
+    // Visits the positions of parcels with the given status that have been in the depot more than the given days, youngest first
+    public void forEachIndexOlderThan(String status, int days, IntConsumer action) {
+        for (byte code : store.statusCodesFor(status)) {
+            store.forEachOlderThan(code, days, action);
+        }
+    }
+
+    // Visits the positions of parcels with the given status that weigh more than the given kilograms, lightest first
+    public void forEachIndexHeavierThan(String status, double weight, IntConsumer action) {
+        for (byte code : store.statusCodesFor(status)) {
+            store.forEachHeavierThan(code, weight, action);
+        }
+    }
+
+    // Copies all parcels into flat columns as of one instant, for snapshots
+    public ParcelColumns copyColumns() {
+        return store.copyColumns();
+    }
+
+    // Loads parcels copied by copyColumns (or read back from a snapshot) into this empty map and notifies observers once
+    public void restoreColumns(ParcelColumns columns) {
+        store.restore(columns);
+        notifyObservers(SOURCE);
+    }
+
+    // Approximate heap bytes used by the store and its indexes, excluding the parcel ID Strings
+    public long footprintBytes() {
+        return store.footprintBytes();
     }
 }
@@ -0,0 +1,388 @@
+package model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.function.IntConsumer;
+
+// Columnar (struct-of-arrays) parcel storage: one slot per parcel ID, in insertion order.
+// Columns are split into fixed-size pages that never move, so readers need no lock;
+// writers serialize on the store's monitor.
+class ParcelStore {
+    static final byte STATUS_PENDING = 0;
+    static final byte STATUS_COLLECTED = 1;
+
+    private static final int PAGE_BITS = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private static final VarHandle DOUBLES = MethodHandles.arrayElementVarHandle(double[].class);
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle BYTES = MethodHandles.arrayElementVarHandle(byte[].class);
+
+    private volatile Columns columns = new Columns(0);
+    private volatile int size;
+    private final ParcelIdIndex index = new ParcelIdIndex(ParcelIdCodec.getDefault());
+    private final ParcelIndexes indexes = new ParcelIndexes();
+
+    // Status values are byte codes into this table; "Pending" and "Collected" are preassigned
+    private volatile String[] statusNames = {Parcel.STATUS_PENDING, Parcel.STATUS_COLLECTED};
+
+    // Dimensions are dictionary-encoded by their text; most depots only have a few hundred distinct sizes
+    private volatile Dimensions[] dimensionValues = new Dimensions[16];
+    private final HashMap<String, Integer> dimensionCodes = new HashMap<>();
+
+    int size() {
+        return size;
+    }
+
+    // Returns the slot for a parcel ID, or -1
+    int slotOf(String parcelID) {
+        return index.get(parcelID);
+    }
+
+    // Inserts a parcel, or overwrites the columns if the ID already has a slot; returns the slot
+    synchronized int put(String parcelID, double weight, Dimensions dimensions, String status, int daysInDepot) {
+        int slot = index.get(parcelID);
+        if (slot >= 0) {
+            unindex(slot);
+            writeColumns(columns, slot, weight, dimensions, status, daysInDepot);
+            reindex(slot);
+            return slot;
+        }
+
+        slot = size;
+        Columns c = columns;
+        if ((slot >>> PAGE_BITS) >= c.pageCount()) {
+            c = c.withExtraPage();
+            columns = c;
+        }
+        c.ids[slot >>> PAGE_BITS][slot & PAGE_MASK] = parcelID;
+        writeColumns(c, slot, weight, dimensions, status, daysInDepot);
+        reindex(slot);
+        size = slot + 1;
+        index.put(parcelID, slot);
+        return slot;
+    }
+
+    private void writeColumns(Columns c, int slot, double weight, Dimensions dimensions, String status, int daysInDepot) {
+        int page = slot >>> PAGE_BITS;
+        int offset = slot & PAGE_MASK;
+        DOUBLES.setRelease(c.weights[page], offset, weight);
+        INTS.setRelease(c.dimensions[page], offset, dimensionCode(dimensions));
+        BYTES.setRelease(c.statuses[page], offset, statusCode(status));
+        INTS.setRelease(c.days[page], offset, daysInDepot);
+    }
+
+    String parcelID(int slot) {
+        return columns.ids[slot >>> PAGE_BITS][slot & PAGE_MASK];
+    }
+
+    double weight(int slot) {
+        return (double) DOUBLES.getAcquire(columns.weights[slot >>> PAGE_BITS], slot & PAGE_MASK);
+    }
+
+    int daysInDepot(int slot) {
+        return (int) INTS.getAcquire(columns.days[slot >>> PAGE_BITS], slot & PAGE_MASK);
+    }
+
+    Dimensions dimensions(int slot) {
+        int code = (int) INTS.getAcquire(columns.dimensions[slot >>> PAGE_BITS], slot & PAGE_MASK);
+        return code < 0 ? null : dimensionValues[code];
+    }
+
+    byte statusCode(int slot) {
+        return (byte) BYTES.getAcquire(columns.statuses[slot >>> PAGE_BITS], slot & PAGE_MASK);
+    }
+
+    String status(int slot) {
+        byte code = statusCode(slot);
+        return code < 0 ? null : statusNames[code];
+    }
+
+    boolean isCollected(int slot) {
+        return isCollectedCode(statusCode(slot));
+    }
+
+    private boolean isCollectedCode(byte code) {
+        return code == STATUS_COLLECTED || (code > STATUS_COLLECTED && Parcel.STATUS_COLLECTED.equalsIgnoreCase(statusNames[code]));
+    }
+
+    synchronized void setWeight(int slot, double weight) {
+        unindex(slot);
+        DOUBLES.setRelease(columns.weights[slot >>> PAGE_BITS], slot & PAGE_MASK, weight);
+        reindex(slot);
+    }
+
+    synchronized void setDaysInDepot(int slot, int daysInDepot) {
+        unindex(slot);
+        INTS.setRelease(columns.days[slot >>> PAGE_BITS], slot & PAGE_MASK, daysInDepot);
+        reindex(slot);
+    }
+
+    synchronized void setDimensions(int slot, Dimensions dimensions) {
+        INTS.setRelease(columns.dimensions[slot >>> PAGE_BITS], slot & PAGE_MASK, dimensionCode(dimensions));
+    }
+
+    synchronized void setStatus(int slot, String status) {
+        unindex(slot);
+        BYTES.setRelease(columns.statuses[slot >>> PAGE_BITS], slot & PAGE_MASK, statusCode(status));
+        reindex(slot);
+    }
+
+    // Atomically moves a slot to "Collected"; exactly one caller wins and then moves it between index partitions
+    boolean markCollected(int slot) {
+        byte[] page = columns.statuses[slot >>> PAGE_BITS];
+        int offset = slot & PAGE_MASK;
+        while (true) {
+            byte current = (byte) BYTES.getAcquire(page, offset);
+            if (isCollectedCode(current)) {
+                return false;
+            }
+            if (BYTES.compareAndSet(page, offset, current, STATUS_COLLECTED)) {
+                synchronized (this) {
+                    unindex(slot);
+                    reindex(slot);
+                }
+                return true;
+            }
+        }
+    }
+
+    // Removes a slot from the secondary indexes under the status it was last indexed with; callers hold the monitor.
+    // Weight and days only change under the monitor, so the current columns still match the indexed keys.
+    private void unindex(int slot) {
+        int page = slot >>> PAGE_BITS;
+        int offset = slot & PAGE_MASK;
+        indexes.remove(columns.indexedStatuses[page][offset], slot, weight(slot), daysInDepot(slot));
+    }
+
+    // Indexes a slot under its current status; callers hold the monitor
+    private void reindex(int slot) {
+        byte status = statusCode(slot);
+        columns.indexedStatuses[slot >>> PAGE_BITS][slot & PAGE_MASK] = status;
+        indexes.add(status, slot, weight(slot), daysInDepot(slot));
+    }
+
+    // Status codes whose name matches ignoring case, as the rest of the app compares statuses
+    byte[] statusCodesFor(String status) {
+        String[] names = statusNames;
+        byte[] codes = new byte[names.length];
+        int n = 0;
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equalsIgnoreCase(status)) {
+                codes[n++] = (byte) i;
+            }
+        }
+        return Arrays.copyOf(codes, n);
+    }
+
+    // Number of parcels currently indexed under a status code
+    int countByStatus(byte status) {
+        return indexes.count(status);
+    }
+
+    // Weight and age histograms for a status code, maintained with the indexes
+    synchronized int[] weightDistribution(byte status) {
+        return indexes.weightDistribution(status);
+    }
+
+    synchronized int[] ageDistribution(byte status) {
+        return indexes.ageDistribution(status);
+    }
+
+    // Visits slots in a status, oldest last
+    void forEachInStatus(byte status, IntConsumer action) {
+        indexes.forEach(status, slot -> {
+            if (statusCode(slot) == status) {
+                action.accept(slot);
+            }
+        });
+    }
+
+    // Visits slots in a status with daysInDepot > days, oldest last
+    void forEachOlderThan(byte status, int days, IntConsumer action) {
+        indexes.forEachOlderThan(status, days, slot -> {
+            if (statusCode(slot) == status) {
+                action.accept(slot);
+            }
+        });
+    }
+
+    // Visits slots in a status with weight > the given weight, heaviest last
+    void forEachHeavierThan(byte status, double weight, IntConsumer action) {
+        indexes.forEachHeavierThan(status, weight, slot -> {
+            if (statusCode(slot) == status && weight(slot) > weight) {
+                action.accept(slot);
+            }
+        });
+    }
+
+    // Dictionary code for a dimensions value; callers hold the monitor
+    private int dimensionCode(Dimensions dimensions) {
+        if (dimensions == null) {
+            return -1;
+        }
+        Integer code = dimensionCodes.get(dimensions.getText());
+        if (code != null) {
+            return code;
+        }
+        int next = dimensionCodes.size();
+        Dimensions[] values = dimensionValues;
+        if (next == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[next] = dimensions;
+        dimensionValues = values;
+        dimensionCodes.put(dimensions.getText(), next);
+        return next;
+    }
+
+    // Byte code for a status string; callers hold the monitor
+    private byte statusCode(String status) {
+        if (status == null) {
+            return -1;
+        }
+        String[] names = statusNames;
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(status)) {
+                return (byte) i;
+            }
+        }
+        if (names.length == Byte.MAX_VALUE) {
+            throw new IllegalStateException("Too many distinct parcel statuses");
+        }
+        names = Arrays.copyOf(names, names.length + 1);
+        names[names.length - 1] = status;
+        statusNames = names;
+        return (byte) (names.length - 1);
+    }
+
+    // Copies every column into flat arrays under the monitor, giving a consistent point-in-time view
+    synchronized ParcelColumns copyColumns() {
+        int n = size;
+        Columns c = columns;
+        String[] ids = new String[n];
+        double[] weights = new double[n];
+        int[] days = new int[n];
+        byte[] statuses = new byte[n];
+        int[] dims = new int[n];
+        for (int page = 0, from = 0; from < n; page++, from += PAGE_SIZE) {
+            int len = Math.min(PAGE_SIZE, n - from);
+            System.arraycopy(c.ids[page], 0, ids, from, len);
+            System.arraycopy(c.weights[page], 0, weights, from, len);
+            System.arraycopy(c.days[page], 0, days, from, len);
+            System.arraycopy(c.statuses[page], 0, statuses, from, len);
+            System.arraycopy(c.dimensions[page], 0, dims, from, len);
+        }
+        String[] dimensionTexts = new String[dimensionCodes.size()];
+        for (int i = 0; i < dimensionTexts.length; i++) {
+            dimensionTexts[i] = dimensionValues[i].getText();
+        }
+        return new ParcelColumns(n, ids, weights, days, statuses, dims, statusNames.clone(), dimensionTexts);
+    }
+
+    // Bulk-loads columns into an empty store: whole pages are copied, dictionary codes remapped and the indexes built once
+    synchronized void restore(ParcelColumns source) {
+        if (size != 0) {
+            throw new IllegalStateException("Parcels can only be restored into an empty ParcelMap");
+        }
+        String[] names = source.getStatusNames();
+        byte[] statusMap = new byte[names.length];
+        for (int i = 0; i < names.length; i++) {
+            statusMap[i] = statusCode(names[i]);
+        }
+        String[] texts = source.getDimensionTexts();
+        int[] dimensionMap = new int[texts.length];
+        for (int i = 0; i < texts.length; i++) {
+            dimensionMap[i] = dimensionCode(Dimensions.parse(texts[i]));
+        }
+
+        int n = source.size();
+        byte[] statuses = new byte[n];
+        int[] dims = source.getDimensionCodes();
+        Columns c = columns;
+        for (int from = 0; from < n; from += PAGE_SIZE) {
+            c = c.withExtraPage();
+            int page = from >>> PAGE_BITS;
+            int len = Math.min(PAGE_SIZE, n - from);
+            System.arraycopy(source.getParcelIDs(), from, c.ids[page], 0, len);
+            System.arraycopy(source.getWeights(), from, c.weights[page], 0, len);
+            System.arraycopy(source.getDaysInDepot(), from, c.days[page], 0, len);
+            for (int i = 0; i < len; i++) {
+                byte code = source.getStatusCodes()[from + i];
+                statuses[from + i] = code < 0 ? -1 : statusMap[code];
+                int dim = dims[from + i];
+                c.dimensions[page][i] = dim < 0 ? -1 : dimensionMap[dim];
+            }
+            System.arraycopy(statuses, from, c.statuses[page], 0, len);
+            System.arraycopy(statuses, from, c.indexedStatuses[page], 0, len);
+        }
+        columns = c;
+        for (int slot = 0; slot < n; slot++) {
+            index.put(source.getParcelIDs()[slot], slot);
+        }
+        indexes.addAll(statuses, source.getWeights(), source.getDaysInDepot(), n);
+        size = n;
+    }
+
+    // Bytes used by the columns, the ID index and the dictionaries, excluding the ID Strings
+    long footprintBytes() {
+        Columns c = columns;
+        long pages = c.pageCount();
+        long perPageRow = 4 + 8 + 4 + 1 + 1 + 4;    // id ref, weight, days, status, indexed status, dimension code
+        long arrayHeaders = 6 * 16;
+        long bytes = pages * (PAGE_SIZE * perPageRow + arrayHeaders) + 6 * (16 + 4 * pages);
+        bytes += index.footprintBytes();
+        bytes += indexes.footprintBytes();
+        for (String d : dimensionCodes.keySet()) {
+            bytes += 40 + d.length() + 48 + 64;  // String + HashMap entry + boxed code + Dimensions
+        }
+        return bytes;
+    }
+
+    // Page directories for every column; replaced (never mutated in place) when a page is added
+    private static final class Columns {
+        private final String[][] ids;
+        private final double[][] weights;
+        private final int[][] days;
+        private final byte[][] statuses;
+        private final int[][] dimensions;
+        private final byte[][] indexedStatuses;   // Partition each slot sits in; differs from statuses only mid-collection
+
+        Columns(int pages) {
+            ids = new String[pages][];
+            weights = new double[pages][];
+            days = new int[pages][];
+            statuses = new byte[pages][];
+            dimensions = new int[pages][];
+            indexedStatuses = new byte[pages][];
+        }
+
+        private Columns(Columns previous) {
+            int pages = previous.pageCount() + 1;
+            ids = Arrays.copyOf(previous.ids, pages);
+            weights = Arrays.copyOf(previous.weights, pages);
+            days = Arrays.copyOf(previous.days, pages);
+            statuses = Arrays.copyOf(previous.statuses, pages);
+            dimensions = Arrays.copyOf(previous.dimensions, pages);
+            indexedStatuses = Arrays.copyOf(previous.indexedStatuses, pages);
+            int last = pages - 1;
+            ids[last] = new String[PAGE_SIZE];
+            weights[last] = new double[PAGE_SIZE];
+            days[last] = new int[PAGE_SIZE];
+            statuses[last] = new byte[PAGE_SIZE];
+            dimensions[last] = new int[PAGE_SIZE];
+            indexedStatuses[last] = new byte[PAGE_SIZE];
+        }
+
+        int pageCount() {
+            return ids.length;
+        }
+
+        Columns withExtraPage() {
+            return new Columns(this);
+        }
+    }
+}
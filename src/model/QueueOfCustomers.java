@@ -1,59 +1,272 @@
 package model;
 
+import util.ChangeEvent;
 import util.Observable;
 
-import java.util.Collections;
-import java.util.LinkedList;
+import java.util.AbstractSequentialList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
 
 public class QueueOfCustomers extends Observable {
-    private LinkedList<Customer> customers = new LinkedList<>();
+    public static final String SOURCE = "QueueOfCustomers";
+
+    // FIFO doubly linked list plus a parcelID -> first queued node index
+    private final HashMap<String, Node> index = new HashMap<>();
+    private final List<Customer> view = new QueueView();
+    private Node head;
+    private Node tail;
+    private int size;
+    private int modCount;
 
     // Adds a customer to the queue
     public void add(Customer customer) {
-        customers.add(customer);
-        notifyObservers("QueueOfCustomers");
+        synchronized (this) {
+            linkLast(customer);
+        }
+        publish(ChangeEvent.of(SOURCE, ChangeEvent.Kind.ADDED, customer.getParcelID(), customer));
+    }
+
+    // Adds all customers in order and notifies observers once
+    public void addAll(Collection<Customer> newCustomers) {
+        ChangeEvent.Builder change = new ChangeEvent.Builder(SOURCE);
+        synchronized (this) {
+            for (Customer customer : newCustomers) {
+                linkLast(customer);
+                change.add(ChangeEvent.Kind.ADDED, customer.getParcelID(), customer);
+            }
+        }
+        publish(change.build());
     }
 
     // Retrieves and removes the customer at the front of the queue
     public Customer getCustomer() {
-        if (!customers.isEmpty()) {
-            Customer c = customers.removeFirst();
-            notifyObservers("QueueOfCustomers");
-            return c;
+        Customer c;
+        synchronized (this) {
+            if (head == null) {
+                return null;
+            }
+            c = head.customer;
+            unlink(head);
         }
-        return null;
+        publish(ChangeEvent.of(SOURCE, ChangeEvent.Kind.REMOVED, c.getParcelID(), c));
+        return c;
     }
 
     // Checks whether the queue is empty
-    public boolean isEmpty() {
-        return customers.isEmpty();
+    public synchronized boolean isEmpty() {
+        return size == 0;
     }
 
     // Returns the number of customers in the queue
-    public int size() {
-        return customers.size();
+    public synchronized int size() {
+        return size;
     }
 
     // Provides an unmodifiable view of the current customer queue
     public List<Customer> getCustomerQueue() {
-        return Collections.unmodifiableList(customers);
+        return view;
+    }
+
+    // Checks whether a customer with the given parcel ID is queued
+    public synchronized boolean containsParcelID(String parcelID) {
+        return index.containsKey(parcelID);
+    }
+
+    // Finds the first queued customer with the given parcel ID
+    public synchronized Customer findByParcelID(String parcelID) {
+        Node node = index.get(parcelID);
+        return node != null ? node.customer : null;
     }
 
     // Removes a customer from the queue based on the parcel ID and notifies observers if successful
     public boolean removeCustomerByParcelID(String parcelID) {
-        Customer toRemove = null;
-        for (Customer customer : customers) {
-            if (customer.getParcelID().equals(parcelID)) {
-                toRemove = customer;
-                break;
+        Customer removed;
+        synchronized (this) {
+            Node node = index.get(parcelID);
+            if (node == null) {
+                return false;
+            }
+            removed = node.customer;
+            unlink(node);
+        }
+        publish(ChangeEvent.of(SOURCE, ChangeEvent.Kind.REMOVED, parcelID, removed));
+        return true;
+    }
+
+    // Moves the customer with the given parcel ID to the back of the queue
+    public boolean moveToBack(String parcelID) {
+        Customer customer;
+        synchronized (this) {
+            Node node = index.get(parcelID);
+            if (node == null) {
+                return false;
             }
+            customer = node.customer;
+            unlink(node);
+            linkLast(customer);
+        }
+        publish(ChangeEvent.of(SOURCE, ChangeEvent.Kind.MOVED_TO_BACK, parcelID, customer));
+        return true;
+    }
+
+    // Appends a node and chains it behind any earlier node with the same parcel ID
+    private void linkLast(Customer customer) {
+        Node node = new Node(customer);
+        node.prev = tail;
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.next = node;
+        }
+        tail = node;
+
+        Node first = index.putIfAbsent(customer.getParcelID(), node);
+        if (first != null) {
+            first.lastSame.nextSame = node;
+            first.lastSame = node;
+        }
+        size++;
+        modCount++;
+    }
+
+    // Removes a node that is the first queued for its parcel ID (true for the head and for index hits)
+    private void unlink(Node node) {
+        if (node.prev == null) {
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.prev;
+        } else {
+            node.next.prev = node.prev;
         }
-        if (toRemove != null) {
-            customers.remove(toRemove);
-            notifyObservers("QueueOfCustomers");
-            return true;
+
+        String parcelID = node.customer.getParcelID();
+        Node successor = node.nextSame;
+        if (successor == null) {
+            index.remove(parcelID);
+        } else {
+            successor.lastSame = node.lastSame;
+            index.put(parcelID, successor);
+        }
+        node.prev = node.next = node.nextSame = null;
+        size--;
+        modCount++;
+    }
+
+    private static final class Node {
+        private final Customer customer;
+        private Node prev;
+        private Node next;
+        private Node nextSame;      // Next queued node with the same parcel ID
+        private Node lastSame;      // Only maintained on the first node of a parcel ID chain
+
+        Node(Customer customer) {
+            this.customer = customer;
+            this.lastSame = this;
+        }
+    }
+
+    // Read-only FIFO view; iterate it while holding the queue's lock if other threads may modify it
+    private final class QueueView extends AbstractSequentialList<Customer> {
+        @Override
+        public int size() {
+            return QueueOfCustomers.this.size();
+        }
+
+        @Override
+        public ListIterator<Customer> listIterator(int start) {
+            synchronized (QueueOfCustomers.this) {
+                if (start < 0 || start > size) {
+                    throw new IndexOutOfBoundsException("Index: " + start + ", Size: " + size);
+                }
+                return new ViewIterator(start);
+            }
+        }
+    }
+
+    private final class ViewIterator implements ListIterator<Customer> {
+        private final int expectedModCount = modCount;
+        private Node next;
+        private Node lastReturned;
+        private int nextIndex;
+
+        ViewIterator(int start) {
+            next = head;
+            for (int i = 0; i < start; i++) {
+                next = next.next;
+            }
+            nextIndex = start;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Customer next() {
+            checkForComodification();
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = next;
+            next = next.next;
+            nextIndex++;
+            return lastReturned.customer;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+
+        @Override
+        public Customer previous() {
+            checkForComodification();
+            if (nextIndex == 0) {
+                throw new NoSuchElementException();
+            }
+            next = next == null ? tail : next.prev;
+            lastReturned = next;
+            nextIndex--;
+            return lastReturned.customer;
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void set(Customer customer) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void add(Customer customer) {
+            throw new UnsupportedOperationException();
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
         }
-        return false;
     }
 }
@@ -0,0 +1,198 @@
+package model;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+// Sorted set of primitive long keys for ParcelIndexes; one writer at a time (the store's lock), lock-free readers.
+// Keys live in a sorted array plus two append-only buffers of keys added and removed since it was built. Readers sort
+// the part of the buffers they need and merge; once the buffers outgrow a sixteenth of the array they are folded into a
+// new one, so an update costs amortized O(1) and a query pays for at most that many buffered keys.
+// Callers only add absent keys and remove present ones, which the store guarantees by unindexing before reindexing
+final class SortedLongSet {
+    private static final long[] EMPTY = new long[0];
+    private static final int MIN_BUFFERED = 4096;
+    private static final int BUFFER_SHARE = 16;
+
+    private volatile State state = new State(EMPTY, new long[64], new long[64]);
+
+    // Adds a key that is not present
+    void add(long key) {
+        State s = state;
+        int n = s.addedCount;
+        if (n == s.added.length) {
+            s = new State(s.base, Arrays.copyOf(s.added, n * 2), s.removed, n, s.removedCount);
+            state = s;
+        }
+        s.added[n] = key;
+        s.addedCount = n + 1;
+        compactIfFull(s);
+    }
+
+    // Removes a key that is present
+    void remove(long key) {
+        State s = state;
+        int n = s.removedCount;
+        if (n == s.removed.length) {
+            s = new State(s.base, s.added, Arrays.copyOf(s.removed, n * 2), s.addedCount, n);
+            state = s;
+        }
+        s.removed[n] = key;
+        s.removedCount = n + 1;
+        compactIfFull(s);
+    }
+
+    // Adds keys that are sorted, distinct and not yet present, merging them straight into the array
+    void addAllSorted(long[] keys, int count) {
+        State s = compacted(state);
+        state = new State(merge(s.base, s.base.length, keys, count), new long[64], new long[64]);
+    }
+
+    int size() {
+        State s = state;
+        return s.base.length + s.addedCount - s.removedCount;
+    }
+
+    // Visits keys >= from in ascending order
+    void forEachFrom(long from, LongConsumer action) {
+        State s = state;
+        long[] added = sortedFrom(s.added, s.addedCount, from);
+        long[] removed = sortedFrom(s.removed, s.removedCount, from);
+        long[] base = s.base;
+        int i = lowerBound(base, from);
+        int j = 0;
+        int r = 0;
+        while (i < base.length || j < added.length) {
+            long key = j == added.length || (i < base.length && base[i] <= added[j]) ? base[i] : added[j];
+            int present = 0;
+            while (i < base.length && base[i] == key) {
+                present++;
+                i++;
+            }
+            while (j < added.length && added[j] == key) {
+                present++;
+                j++;
+            }
+            while (r < removed.length && removed[r] < key) {
+                r++;
+            }
+            while (r < removed.length && removed[r] == key) {
+                present--;
+                r++;
+            }
+            // A key removed and added again since the array was built appears in all three
+            if (present > 0) {
+                action.accept(key);
+            }
+        }
+    }
+
+    // Visits every key in ascending order
+    void forEach(LongConsumer action) {
+        forEachFrom(Long.MIN_VALUE, action);
+    }
+
+    // Bytes held by the arrays
+    long footprintBytes() {
+        State s = state;
+        return 3 * 16L + 8L * (s.base.length + s.added.length + s.removed.length);
+    }
+
+    private void compactIfFull(State s) {
+        if (s.addedCount + s.removedCount > Math.max(MIN_BUFFERED, s.base.length / BUFFER_SHARE)) {
+            State c = compacted(s);
+            state = new State(c.base, new long[64], new long[64]);
+        }
+    }
+
+    // Folds the buffers into a new array
+    private static State compacted(State s) {
+        int addedCount = s.addedCount;
+        int removedCount = s.removedCount;
+        if (addedCount == 0 && removedCount == 0) {
+            return s;
+        }
+        long[] added = sortedFrom(s.added, addedCount, Long.MIN_VALUE);
+        long[] removed = sortedFrom(s.removed, removedCount, Long.MIN_VALUE);
+        long[] merged = merge(s.base, s.base.length, added, added.length);
+        int n = 0;
+        int r = 0;
+        for (long key : merged) {
+            while (r < removed.length && removed[r] < key) {
+                r++;
+            }
+            if (r < removed.length && removed[r] == key) {
+                r++;        // Cancels one occurrence
+                continue;
+            }
+            merged[n++] = key;
+        }
+        return new State(n == merged.length ? merged : Arrays.copyOf(merged, n), EMPTY, EMPTY);
+    }
+
+    // The buffered keys >= from, sorted
+    private static long[] sortedFrom(long[] keys, int count, long from) {
+        long[] out = new long[count];
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            if (keys[i] >= from) {
+                out[n++] = keys[i];
+            }
+        }
+        out = n == count ? out : Arrays.copyOf(out, n);
+        Arrays.sort(out);
+        return out;
+    }
+
+    private static long[] merge(long[] a, int aCount, long[] b, int bCount) {
+        long[] out = new long[aCount + bCount];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < aCount && j < bCount) {
+            out[n++] = a[i] <= b[j] ? a[i++] : b[j++];
+        }
+        while (i < aCount) {
+            out[n++] = a[i++];
+        }
+        while (j < bCount) {
+            out[n++] = b[j++];
+        }
+        return out;
+    }
+
+    // First index whose key is >= from
+    private static int lowerBound(long[] keys, long from) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < from) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // The base array never changes once published; buffer slots below their count are written before the count is
+    private static final class State {
+        private final long[] base;
+        private final long[] added;
+        private final long[] removed;
+        private volatile int addedCount;
+        private volatile int removedCount;
+
+        State(long[] base, long[] added, long[] removed) {
+            this(base, added, removed, 0, 0);
+        }
+
+        State(long[] base, long[] added, long[] removed, int addedCount, int removedCount) {
+            this.base = base;
+            this.added = added;
+            this.removed = removed;
+            this.addedCount = addedCount;
+            this.removedCount = removedCount;
+        }
+    }
+}
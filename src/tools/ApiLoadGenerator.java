@@ -0,0 +1,240 @@
+package tools;
+
+import api.DepotApiServer;
+import controller.Manager;
+import util.VirtualThreads;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Drives the depot HTTP API with a mix of parcel lookups, fee quotes, receipt searches and collections from many
+// concurrent clients, then reports throughput, status codes and latency percentiles per operation. Each client keeps one
+// HTTP/1.1 connection open and speaks the protocol directly, so the client side costs little next to the server.
+// Usage: java tools.ApiLoadGenerator [baseUrl|local] [parcelFile] [clients] [seconds]
+//   "local" starts an in-process server on a free port, loaded from the customer and parcel CSV files.
+public class ApiLoadGenerator {
+    private static final String[] OPERATIONS = {"lookup", "quote", "receipts", "collect"};
+    private static final int[] MIX_PERCENT = {70, 20, 5, 5};
+
+    public static void main(String[] args) throws Exception {
+        String target = args.length > 0 ? args[0] : "local";
+        String parcelFile = args.length > 1 ? args[1] : "Parcels.csv";
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        DepotApiServer localServer = null;
+        String baseUrl = target;
+        if ("local".equals(target)) {
+            Manager manager = new Manager();
+            manager.loadFiles(System.getProperty("depot.customers.file", "Custs (1).csv"), parcelFile);
+            manager.openReceiptArchive(Files.createTempDirectory("api-load-receipts").toString());
+            localServer = new DepotApiServer(manager, 0);
+            localServer.start();
+            baseUrl = "http://localhost:" + localServer.getPort();
+        }
+
+        String[] parcelIDs = readParcelIDs(Path.of(parcelFile));
+        System.out.printf("Driving %s with %d clients for %d s over %,d parcel IDs%n", baseUrl, clients, seconds, parcelIDs.length);
+
+        URI uri = URI.create(baseUrl);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        AtomicLongArray statusCounts = new AtomicLongArray(6);     // 1xx..5xx, plus transport errors at index 0
+        List<long[][]> perClient = new ArrayList<>(clients);
+        List<int[]> perClientCounts = new ArrayList<>(clients);
+        List<Thread> threads = new ArrayList<>(clients);
+
+        long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            long[][] latencies = new long[OPERATIONS.length][1 << 12];
+            int[] counts = new int[OPERATIONS.length];
+            perClient.add(latencies);
+            perClientCounts.add(counts);
+            threads.add(VirtualThreads.start("api-load-" + c, () -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                Connection connection = null;
+                while (System.nanoTime() < deadline) {
+                    int op = pickOperation(random.nextInt(100));
+                    String id = parcelIDs[random.nextInt(parcelIDs.length)];
+                    long t0 = System.nanoTime();
+                    int status;
+                    try {
+                        if (connection == null) {
+                            connection = new Connection(uri);
+                        }
+                        status = connection.send(op == 3 ? "POST" : "GET", path(op, id));
+                    } catch (IOException e) {
+                        status = 0;
+                        if (connection != null) {
+                            connection.close();
+                            connection = null;
+                        }
+                    }
+                    long elapsed = System.nanoTime() - t0;
+                    statusCounts.incrementAndGet(status / 100);
+                    if (counts[op] == latencies[op].length) {
+                        latencies[op] = Arrays.copyOf(latencies[op], counts[op] * 2);
+                    }
+                    latencies[op][counts[op]++] = elapsed;
+                }
+                if (connection != null) {
+                    connection.close();
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long total = 0;
+        System.out.printf("%-9s %10s %10s %10s %10s %10s%n", "operation", "requests", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (int op = 0; op < OPERATIONS.length; op++) {
+            int n = 0;
+            for (int[] counts : perClientCounts) {
+                n += counts[op];
+            }
+            long[] merged = new long[n];
+            int pos = 0;
+            for (int c = 0; c < clients; c++) {
+                int count = perClientCounts.get(c)[op];
+                System.arraycopy(perClient.get(c)[op], 0, merged, pos, count);
+                pos += count;
+            }
+            Arrays.sort(merged);
+            total += n;
+            System.out.printf("%-9s %,10d %10.3f %10.3f %10.3f %10.3f%n", OPERATIONS[op], n,
+                    percentile(merged, 0.50), percentile(merged, 0.99), percentile(merged, 0.999), percentile(merged, 1.0));
+        }
+        System.out.printf("Total %,d requests in %.1f s: %,.0f requests/sec%n", total, elapsed / 1e9, total * 1e9 / elapsed);
+        System.out.printf("Status 2xx %,d, 4xx %,d, 5xx %,d, transport errors %,d%n",
+                statusCounts.get(2), statusCounts.get(4), statusCounts.get(5), statusCounts.get(0));
+
+        if (localServer != null) {
+            localServer.stop(0);
+        }
+    }
+
+    private static int pickOperation(int roll) {
+        int cumulative = 0;
+        for (int op = 0; op < MIX_PERCENT.length; op++) {
+            cumulative += MIX_PERCENT[op];
+            if (roll < cumulative) {
+                return op;
+            }
+        }
+        return 0;
+    }
+
+    private static String path(int op, String parcelID) {
+        switch (op) {
+            case 1:
+                return "/parcels/" + parcelID + "/quote";
+            case 2:
+                return "/receipts?parcelID=" + parcelID;
+            case 3:
+                return "/parcels/" + parcelID + "/collect";
+            default:
+                return "/parcels/" + parcelID;
+        }
+    }
+
+    // Latency at a quantile in milliseconds
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static String[] readParcelIDs(Path file) throws Exception {
+        List<String> ids = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int comma = line.indexOf(',');
+                if (comma > 0) {
+                    ids.add(line.substring(0, comma).trim());
+                }
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("No parcel IDs in " + file);
+        }
+        return ids.toArray(new String[0]);
+    }
+
+    // One keep-alive HTTP/1.1 connection; handles the fixed-length responses the depot API sends
+    private static final class Connection {
+        private final Socket socket;
+        private final OutputStream out;
+        private final InputStream in;
+        private final String host;
+
+        Connection(URI uri) throws IOException {
+            int port = uri.getPort() < 0 ? 80 : uri.getPort();
+            socket = new Socket(uri.getHost(), port);
+            socket.setTcpNoDelay(true);
+            out = socket.getOutputStream();
+            in = new BufferedInputStream(socket.getInputStream(), 16 * 1024);
+            host = uri.getHost() + ":" + port;
+        }
+
+        // Sends a request without a body and reads the whole response; returns the status code
+        int send(String method, String path) throws IOException {
+            String request = method + " " + path + " HTTP/1.1\r\nHost: " + host + "\r\nContent-Length: 0\r\n\r\n";
+            out.write(request.getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            String statusLine = readLine();
+            int status = Integer.parseInt(statusLine.substring(9, 12));
+            long length = -1;
+            String header;
+            while (!(header = readLine()).isEmpty()) {
+                if (header.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                    length = Long.parseLong(header.substring(15).trim());
+                }
+            }
+            if (length < 0) {
+                throw new IOException("Response without Content-Length");
+            }
+            in.skipNBytes(length);      // Throws EOFException if the connection closes mid-response
+            return status;
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder line = new StringBuilder(64);
+            int b;
+            while ((b = in.read()) != '\n') {
+                if (b < 0) {
+                    throw new IOException("Connection closed");
+                }
+                if (b != '\r') {
+                    line.append((char) b);
+                }
+            }
+            return line.toString();
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Nothing left to release
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package tools;
+
+import controller.Manager;
+import controller.Receipt;
+import model.Parcel;
+import model.ParcelMap;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Races threads over the same parcels to check that every parcel is collected and charged exactly once. Even-numbered
+// threads go through Manager.collectParcel (the API path), odd ones through tryCollect + recordCollection (the panels'
+// path); each walks every parcel in its own seeded order, so a run is reproducible up to thread scheduling.
+// Exits with status 1 if any round collects a parcel twice, misses one, or charges a total other than the quoted fees.
+// Usage: java tools.CollectionStress [parcels] [threads] [rounds] [seed]
+public class CollectionStress {
+    private static final String[] DIMENSIONS = {"10x10x10", "12x12x12", "15x15x15", "20x20x20", "8x8x8", "40x40x40"};
+
+    private final int parcels;
+    private final int threads;
+    private final long seed;
+
+    // Constructor for CollectionStress
+    public CollectionStress(int parcels, int threads, long seed) {
+        this.parcels = parcels;
+        this.threads = threads;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int parcels = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+
+        System.out.printf("Racing %d threads over %,d parcels for %d rounds (seed %d)%n", threads, parcels, rounds, seed);
+        int failed = 0;
+        for (int round = 0; round < rounds; round++) {
+            List<String> problems = new CollectionStress(parcels, threads, seed + round).runRound();
+            System.out.printf("Round %d: %s%n", round + 1, problems.isEmpty() ? "OK" : "FAILED");
+            for (String problem : problems) {
+                System.out.println("  " + problem);
+            }
+            failed += problems.isEmpty() ? 0 : 1;
+        }
+        System.out.println(failed == 0 ? "PASS" : "FAIL: " + failed + " of " + rounds + " rounds");
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    // Runs one race on a fresh Manager; returns what went wrong, or an empty list
+    public List<String> runRound() throws Exception {
+        Manager manager = new Manager();
+        manager.openReceiptArchive(Files.createTempDirectory("collection-stress-receipts").toString());
+        ParcelMap parcelMap = manager.getParcelMap();
+
+        SplittableRandom random = new SplittableRandom(seed);
+        String[] ids = new String[parcels];
+        List<Parcel> batch = new ArrayList<>(parcels);
+        for (int i = 0; i < parcels; i++) {
+            ids[i] = "S" + i;
+            batch.add(new Parcel(ids[i], 0.5 * (1 + random.nextInt(50)), DIMENSIONS[random.nextInt(DIMENSIONS.length)],
+                    Parcel.STATUS_PENDING, random.nextInt(31)));
+        }
+        parcelMap.addAll(batch);
+
+        // Fees are quoted before the race; a parcel charged twice or at a stale price shows up in the total
+        double expectedFees = 0;
+        for (String id : ids) {
+            expectedFees += manager.quoteFee(parcelMap.findParcel(id)).getTotal();
+        }
+
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger receipts = new AtomicInteger();
+        AtomicLong alreadyCollected = new AtomicLong();
+        Set<Long> receiptNumbers = ConcurrentHashMap.newKeySet();
+        List<Throwable> errors = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] racers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            boolean viaManager = t % 2 == 0;
+            int[] order = shuffledOrder(new SplittableRandom(seed * 31 + t));
+            racers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i : order) {
+                        if (viaManager) {
+                            try {
+                                Receipt receipt = manager.collectParcel(ids[i]);
+                                successes.incrementAndGet();
+                                receipts.incrementAndGet();
+                                receiptNumbers.add(receipt.getNumber());
+                            } catch (IllegalStateException e) {
+                                alreadyCollected.incrementAndGet();
+                            }
+                        } else {
+                            Parcel parcel = parcelMap.findParcel(ids[i]);
+                            double fee = manager.quoteFee(parcel).getTotal();
+                            if (parcelMap.tryCollect(ids[i])) {
+                                manager.recordCollection(parcel, fee);
+                                successes.incrementAndGet();
+                            } else {
+                                alreadyCollected.incrementAndGet();
+                            }
+                        }
+                    }
+                } catch (Throwable e) {
+                    synchronized (errors) {
+                        errors.add(e);
+                    }
+                }
+            }, "collection-stress-" + t);
+            racers[t].start();
+        }
+        start.countDown();
+        for (Thread racer : racers) {
+            racer.join();
+        }
+        manager.closeReceiptArchive();
+
+        List<String> problems = new ArrayList<>();
+        for (Throwable e : errors) {
+            problems.add("Thread failed: " + e);
+        }
+        check(problems, "successful collections", parcels, successes.get());
+        check(problems, "rejected attempts", (long) parcels * (threads - 1), alreadyCollected.get());
+        Set<String> recordedIDs = new HashSet<>();
+        List<Parcel> recorded = new ArrayList<>(manager.getCollectedParcels());
+        for (Parcel parcel : recorded) {
+            recordedIDs.add(parcel.getParcelID());
+        }
+        check(problems, "collections recorded", parcels, recorded.size());
+        check(problems, "distinct parcels recorded", parcels, recordedIDs.size());
+        check(problems, "parcels with Collected status", parcels, parcelMap.countByStatus(Parcel.STATUS_COLLECTED));
+        check(problems, "distinct receipt numbers", receipts.get(), receiptNumbers.size());
+        // Summation order differs between threads, so allow for rounding
+        double totalFees = manager.getTotalFeesCollected();
+        if (Math.abs(totalFees - expectedFees) > 1e-6 * Math.max(1, expectedFees)) {
+            problems.add(String.format("fee total: expected %.2f, got %.2f", expectedFees, totalFees));
+        }
+        return problems;
+    }
+
+    private int[] shuffledOrder(SplittableRandom random) {
+        int[] order = new int[parcels];
+        for (int i = 0; i < parcels; i++) {
+            order[i] = i;
+        }
+        for (int i = parcels - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        return order;
+    }
+
+    private static void check(List<String> problems, String what, long expected, long actual) {
+        if (expected != actual) {
+            problems.add(what + ": expected " + expected + ", got " + actual);
+        }
+    }
+}
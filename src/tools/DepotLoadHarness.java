@@ -0,0 +1,197 @@
+package tools;
+
+import controller.Manager;
+import model.Customer;
+import model.Parcel;
+import model.ParcelMap;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Drives check-ins, collections and reports straight against Manager, without the UI or the HTTP API, at a fixed
+// arrival rate. Requests start on a schedule whether or not earlier ones have finished, and latency is measured from the
+// scheduled start, so queueing behind a slow operation shows up in the percentiles instead of lowering the offered load.
+// Usage: java tools.DepotLoadHarness [customerFile] [parcelFile] [requestsPerSecond] [seconds] [workers] [reportPercent]
+//   Files from tools.WorkloadGenerator work at any size; check-in and collection split the rest of the mix evenly.
+public class DepotLoadHarness {
+    private static final String[] OPERATIONS = {"check-in", "collect", "report"};
+    private static final int CHECK_IN = 0;
+    private static final int COLLECT = 1;
+    private static final int REPORT = 2;
+    private static final String REPORT_FILE = "load-harness-report.txt";
+
+    private final Manager manager;
+    private final String[] pendingIDs;                  // Parcels that can still be checked in, in file order
+    private final AtomicInteger nextCheckIn = new AtomicInteger();
+    private final ConcurrentLinkedQueue<String> awaitingCollection = new ConcurrentLinkedQueue<>();
+    private final LatencyLog[] latencies = new LatencyLog[OPERATIONS.length];
+    private final AtomicLong[] failures = new AtomicLong[OPERATIONS.length];
+    private final AtomicLong skipped = new AtomicLong();
+
+    // Constructor for DepotLoadHarness over a loaded Manager
+    public DepotLoadHarness(Manager manager) {
+        this.manager = manager;
+        for (int op = 0; op < OPERATIONS.length; op++) {
+            latencies[op] = new LatencyLog();
+            failures[op] = new AtomicLong();
+        }
+
+        // Customers already queued by the file are the first to collect; everyone else may check in
+        List<String> pending = new ArrayList<>();
+        ParcelMap parcelMap = manager.getParcelMap();
+        parcelMap.forEachByStatus(Parcel.STATUS_PENDING, parcel -> {
+            if (!manager.getQueueOfCustomers().containsParcelID(parcel.getParcelID())) {
+                pending.add(parcel.getParcelID());
+            }
+        });
+        for (Customer customer : manager.getQueueOfCustomers().getCustomerQueue()) {
+            awaitingCollection.add(customer.getParcelID());
+        }
+        this.pendingIDs = pending.toArray(new String[0]);
+    }
+
+    public static void main(String[] args) throws Exception {
+        String customerFile = args.length > 0 ? args[0] : "Custs (1).csv";
+        String parcelFile = args.length > 1 ? args[1] : "Parcels.csv";
+        double rate = args.length > 2 ? Double.parseDouble(args[2]) : 1_000;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        int workers = args.length > 4 ? Integer.parseInt(args[4]) : Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        double reportPercent = args.length > 5 ? Double.parseDouble(args[5]) : 1.0;
+
+        Manager manager = new Manager();
+        long loadStart = System.nanoTime();
+        manager.loadFiles(customerFile, parcelFile);
+        System.out.printf("Loaded %,d parcels and %,d queued customers in %.1f s%n", manager.getParcelMap().size(),
+                manager.getQueueOfCustomers().size(), (System.nanoTime() - loadStart) / 1e9);
+        manager.openReceiptArchive(Files.createTempDirectory("load-harness-receipts").toString());
+
+        DepotLoadHarness harness = new DepotLoadHarness(manager);
+        System.out.printf("Offering %,.0f requests/sec for %d s on %d workers (%.1f%% reports)%n", rate, seconds, workers, reportPercent);
+        long elapsed = harness.run(rate, seconds, workers, reportPercent);
+        harness.printResults(rate, elapsed);
+        manager.closeReceiptArchive();
+    }
+
+    // Issues requests on schedule for the given time, then waits for the stragglers; returns the elapsed nanoseconds
+    public long run(double rate, int seconds, int workers, double reportPercent) throws InterruptedException {
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers, task -> {
+            Thread thread = new Thread(task, "load-harness-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = (long) (1e9 / rate);
+        long start = System.nanoTime();
+        long end = start + seconds * 1_000_000_000L;
+        for (long n = 0; ; n++) {
+            long scheduled = start + n * interval;
+            if (scheduled >= end) {
+                break;
+            }
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            int op = pickOperation(ThreadLocalRandom.current().nextDouble(100), reportPercent);
+            pool.execute(() -> execute(op, scheduled));
+        }
+        pool.shutdown();
+        if (!pool.awaitTermination(60, TimeUnit.SECONDS)) {
+            System.err.println("Requests still running after 60 s; reporting what finished");
+            pool.shutdownNow();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static int pickOperation(double roll, double reportPercent) {
+        if (roll < reportPercent) {
+            return REPORT;
+        }
+        return roll < reportPercent + (100 - reportPercent) / 2 ? CHECK_IN : COLLECT;
+    }
+
+    // Runs one operation and records its latency from the scheduled start; an operation with nothing to act on is skipped
+    private void execute(int op, long scheduled) {
+        try {
+            switch (op) {
+                case CHECK_IN: {
+                    int index = nextCheckIn.getAndIncrement();
+                    if (index >= pendingIDs.length) {
+                        skipped.incrementAndGet();
+                        return;
+                    }
+                    String parcelID = pendingIDs[index];
+                    manager.addCustomer("Load Customer " + index, parcelID);
+                    awaitingCollection.add(parcelID);
+                    break;
+                }
+                case COLLECT: {
+                    String parcelID = awaitingCollection.poll();
+                    if (parcelID == null) {
+                        skipped.incrementAndGet();
+                        return;
+                    }
+                    manager.collectParcel(parcelID);
+                    break;
+                }
+                default:
+                    manager.writeReport(REPORT_FILE);
+            }
+        } catch (Exception e) {
+            failures[op].incrementAndGet();
+        }
+        latencies[op].record(System.nanoTime() - scheduled);
+    }
+
+    // Prints latency percentiles per operation and the sustained throughput
+    public void printResults(double offeredRate, long elapsedNanos) {
+        long total = 0;
+        System.out.printf("%-9s %10s %8s %10s %10s %10s %10s%n", "operation", "requests", "failed", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (int op = 0; op < OPERATIONS.length; op++) {
+            long[] sorted = latencies[op].sorted();
+            total += sorted.length;
+            System.out.printf("%-9s %,10d %,8d %10.3f %10.3f %10.3f %10.3f%n", OPERATIONS[op], sorted.length, failures[op].get(),
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999), percentile(sorted, 1.0));
+        }
+        System.out.printf("Completed %,d requests in %.1f s: %,.0f requests/sec sustained (%,.0f offered), %,d skipped for lack of work%n",
+                total, elapsedNanos / 1e9, total * 1e9 / elapsedNanos, offeredRate, skipped.get());
+    }
+
+    // Latency at a quantile in milliseconds
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    // Growable array of latencies shared by the workers
+    private static final class LatencyLog {
+        private long[] values = new long[1 << 14];
+        private int count;
+
+        synchronized void record(long nanos) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = nanos;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(values, count);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package tools;
+
+import util.Journal;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Measures journal commit latency and group-commit batching for each durability level, then replay throughput.
+// Usage: java tools.JournalBench [threads] [recordsPerThread] [directory]
+public class JournalBench {
+    private static final byte RECORD_TYPE = 3;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        Path dir = Files.createDirectories(Path.of(args.length > 2 ? args[2] : "journal"));
+
+        // A payload the size of a typical collection record (parcel ID + fee)
+        byte[] payload = new byte[14];
+
+        for (Journal.Durability durability : Journal.Durability.values()) {
+            Path file = dir.resolve("bench-" + durability.name().toLowerCase() + ".journal");
+            Files.deleteIfExists(file);
+            Journal journal = new Journal(file, durability);
+
+            long start = System.nanoTime();
+            List<Thread> workers = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                Thread worker = new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        journal.commit(journal.append(RECORD_TYPE, payload));
+                    }
+                }, "bench-" + t);
+                workers.add(worker);
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            long elapsed = System.nanoTime() - start;
+            journal.close();
+            Journal.Stats stats = journal.getStats();
+
+            long records = (long) threads * perThread;
+            System.out.printf("%-8s %,d records from %d threads in %.1f ms (%,.0f records/sec)%n",
+                    durability, records, threads, elapsed / 1e6, records * 1e9 / elapsed);
+            System.out.println("         " + stats);
+
+            Journal.ReplayResult replay = Journal.replay(file, 0, (sequence, type, body) -> { });
+            System.out.println("         " + replay);
+            Files.deleteIfExists(file);
+        }
+    }
+}
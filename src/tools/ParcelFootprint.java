@@ -0,0 +1,84 @@
+package tools;
+
+import model.Parcel;
+import model.ParcelMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Measures heap bytes per parcel for the old object-per-parcel layout and the columnar ParcelMap.
+// Usage: java tools.ParcelFootprint [parcelCount]   (run with a large enough -Xmx)
+public class ParcelFootprint {
+    private static final String[] DIMENSIONS = {"10x10x10", "12x12x12", "15x15x15", "20x20x20", "8x8x8", "40x40x40"};
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = (i % 2 == 0 ? "X" : "C") + i;
+        }
+
+        long base = usedHeap();
+        Map<String, LegacyParcel> legacy = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            // The old loader produced fresh dimension and status Strings per row via String.split
+            legacy.put(ids[i], new LegacyParcel(ids[i], 1 + i % 20, new String(DIMENSIONS[i % DIMENSIONS.length]),
+                    new String(Parcel.STATUS_PENDING), i % 30));
+        }
+        long legacyBytes = usedHeap() - base;
+        System.out.println("legacy entries: " + legacy.size());
+        legacy = null;
+
+        base = usedHeap();
+        ParcelMap parcelMap = new ParcelMap();
+        List<Parcel> batch = new ArrayList<>(4096);
+        for (int i = 0; i < count; i++) {
+            batch.add(new Parcel(ids[i], 1 + i % 20, new String(DIMENSIONS[i % DIMENSIONS.length]),
+                    new String(Parcel.STATUS_PENDING), i % 30));
+            if (batch.size() == 4096) {
+                parcelMap.addAll(batch);
+                batch.clear();
+            }
+        }
+        parcelMap.addAll(batch);
+        batch.clear();
+        long columnarBytes = usedHeap() - base;
+
+        System.out.printf("Parcels:              %,d (ID Strings excluded from both figures)%n", count);
+        System.out.printf("Object layout:        %,d bytes (%.1f bytes/parcel)%n", legacyBytes, (double) legacyBytes / count);
+        System.out.printf("Columnar layout:      %,d bytes (%.1f bytes/parcel)%n", columnarBytes, (double) columnarBytes / count);
+        System.out.printf("Columnar (estimated): %,d bytes (%.1f bytes/parcel)%n", parcelMap.footprintBytes(), (double) parcelMap.footprintBytes() / count);
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    // Field-for-field copy of the pre-columnar Parcel
+    private static final class LegacyParcel {
+        private final String parcelID;
+        private final double weight;
+        private final String dimensions;
+        private final String status;
+        private final int daysInDepot;
+
+        LegacyParcel(String parcelID, double weight, String dimensions, String status, int daysInDepot) {
+            this.parcelID = parcelID;
+            this.weight = weight;
+            this.dimensions = dimensions;
+            this.status = status;
+            this.daysInDepot = daysInDepot;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package tools;
+
+import controller.DiscountRules;
+import model.Parcel;
+import model.ParcelIdCodec;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Writes synthetic parcel and customer files of any size in the format Manager.loadParcels and loadCustomers read.
+// Parcel IDs are drawn per discount category (each rule in the current Discounts.csv, plus "no discount") in the
+// requested proportions, without repeats, so every rule is exercised at a known share.
+// Usage: java tools.WorkloadGenerator [parcels] [outputDir] [customerShare] [mix] [seed]
+//   mix is one weight per rule in file order followed by the no-discount weight, e.g. "20,10,5,65"; equal by default.
+//   Larger depots need longer IDs: run with -Ddepot.parcel.id.digits=N so the codec's code space covers the count.
+public class WorkloadGenerator {
+    private static final String[] DIMENSIONS = {"10x10x10", "12x12x12", "15x15x15", "20x20x20", "8x8x8", "40x40x40", "25x10x5", "30x20x10"};
+    private static final String[] FIRST_NAMES = {"Ann", "Blair", "Bob", "Cara", "Dev", "Eve", "Finn", "Gia", "Hugo", "Isla"};
+    private static final String[] LAST_NAMES = {"Jones", "Foster", "Dawson", "Singh", "Patel", "Moore", "Walsh", "Rossi", "Khan", "Reid"};
+    private static final double COLLECTED_SHARE = 0.10;
+
+    private final ParcelIdCodec codec;
+    private final List<DiscountRules.Rule> rules;
+    private final double[] weights;     // One per rule, then the no-discount category
+    private final SplittableRandom random;
+    private final int[][] pools;        // Codes of every ID per category, consumed by a partial shuffle so none repeats
+    private int[] taken;
+
+    // Constructor for WorkloadGenerator; weights may be null for an equal share per category
+    public WorkloadGenerator(ParcelIdCodec codec, DiscountRules.Table rules, double[] weights, long seed) {
+        this.codec = codec;
+        this.rules = rules.getRules();
+        int categories = this.rules.size() + 1;
+        if (weights == null) {
+            weights = new double[categories];
+            Arrays.fill(weights, 1.0);
+        }
+        if (weights.length != categories) {
+            throw new IllegalArgumentException("The mix needs " + categories + " weights (" + this.rules.size() + " rules plus no discount), got " + weights.length);
+        }
+        this.weights = weights.clone();
+        this.random = new SplittableRandom(seed);
+        this.pools = buildPools(rules);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int parcels = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        Path outputDir = Path.of(args.length > 1 ? args[1] : "workload");
+        double customerShare = args.length > 2 ? Double.parseDouble(args[2]) : 0.25;
+        double[] mix = args.length > 3 ? parseMix(args[3]) : null;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 42;
+
+        WorkloadGenerator generator = new WorkloadGenerator(ParcelIdCodec.getDefault(), DiscountRules.getInstance().current(), mix, seed);
+        Files.createDirectories(outputDir);
+        long start = System.nanoTime();
+        int[] perCategory = generator.write(parcels, customerShare, outputDir.resolve("Parcels.csv"), outputDir.resolve("Customers.csv"));
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("Wrote %,d parcels to %s in %.1f s%n", parcels, outputDir.toAbsolutePath(), elapsed / 1e9);
+        for (int c = 0; c < perCategory.length; c++) {
+            String name = c < generator.rules.size() ? generator.rules.get(c).describe() : "No discount";
+            System.out.printf("  %-60s %,12d (%.1f%%)%n", name, perCategory[c], 100.0 * perCategory[c] / Math.max(1, parcels));
+        }
+    }
+
+    // Writes the parcel file and a customer file queuing a share of the pending parcels; returns parcels per category
+    public int[] write(int parcels, double customerShare, Path parcelFile, Path customerFile) throws IOException {
+        if (parcels > codec.capacity()) {
+            throw new IllegalArgumentException(parcels + " parcels do not fit " + codec.getDigits()
+                    + "-digit IDs; run with -Ddepot.parcel.id.digits set higher");
+        }
+        int[] perCategory = new int[pools.length];
+        taken = new int[pools.length];
+        try (BufferedWriter parcelsOut = Files.newBufferedWriter(parcelFile, StandardCharsets.UTF_8);
+             BufferedWriter customersOut = Files.newBufferedWriter(customerFile, StandardCharsets.UTF_8)) {
+            StringBuilder line = new StringBuilder(64);
+            for (int i = 0; i < parcels; i++) {
+                int category = pickCategory();
+                String id = codec.decode(draw(category));
+                perCategory[category]++;
+
+                boolean collected = random.nextDouble() < COLLECTED_SHARE;
+                line.setLength(0);
+                line.append(id).append(',')
+                        .append(0.5 * (1 + random.nextInt(50))).append(',')
+                        .append(DIMENSIONS[random.nextInt(DIMENSIONS.length)]).append(',')
+                        .append(collected ? Parcel.STATUS_COLLECTED : Parcel.STATUS_PENDING).append(',')
+                        .append(random.nextInt(31)).append('\n');
+                parcelsOut.append(line);
+
+                if (!collected && random.nextDouble() < customerShare) {
+                    customersOut.append(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]).append(' ')
+                            .append(LAST_NAMES[random.nextInt(LAST_NAMES.length)]).append(',')
+                            .append(id).append('\n');
+                }
+            }
+        }
+        return perCategory;
+    }
+
+    // Picks a category by weight, skipping those whose IDs are used up
+    private int pickCategory() {
+        double total = 0;
+        for (int c = 0; c < weights.length; c++) {
+            if (taken[c] < pools[c].length) {
+                total += weights[c];
+            }
+        }
+        if (total <= 0) {
+            // Only zero-weight categories have IDs left
+            for (int c = 0; c < pools.length; c++) {
+                if (taken[c] < pools[c].length) {
+                    return c;
+                }
+            }
+        }
+        double roll = random.nextDouble() * total;
+        int last = -1;
+        for (int c = 0; c < weights.length; c++) {
+            if (taken[c] < pools[c].length) {
+                last = c;
+                roll -= weights[c];
+                if (roll < 0) {
+                    return c;
+                }
+            }
+        }
+        return last;
+    }
+
+    // Takes a random unused code from a category
+    private int draw(int category) {
+        int[] pool = pools[category];
+        int i = taken[category]++;
+        int j = i + random.nextInt(pool.length - i);
+        int code = pool[j];
+        pool[j] = pool[i];
+        pool[i] = code;
+        return code;
+    }
+
+    // Sorts every code into the category of the rule that applies to it; a rule no ID can reach gets an empty pool.
+    // The rule depends only on the prefix and the last digit, and codes run X then C with the number's last digit
+    // equal to the code's, so twenty representative IDs settle every code
+    private int[][] buildPools(DiscountRules.Table table) {
+        int categories = rules.size() + 1;
+        int capacity = codec.capacity();
+        int perPrefix = capacity / 2;
+        int[][] categoryOf = new int[2][10];
+        for (int prefix = 0; prefix < 2; prefix++) {
+            for (int digit = 0; digit < 10; digit++) {
+                String id = codec.decode(prefix * perPrefix + digit);
+                int rule = table.ruleIndex(id.charAt(0), id.charAt(id.length() - 1));
+                categoryOf[prefix][digit] = rule < 0 ? rules.size() : rule;
+            }
+        }
+
+        int[] counts = new int[categories];
+        for (int prefix = 0; prefix < 2; prefix++) {
+            for (int digit = 0; digit < 10; digit++) {
+                counts[categoryOf[prefix][digit]] += perPrefix / 10;
+            }
+        }
+        int[][] result = new int[categories][];
+        for (int c = 0; c < categories; c++) {
+            result[c] = new int[counts[c]];
+            if (counts[c] == 0 && weights[c] > 0) {
+                String name = c < rules.size() ? rules.get(c).toString() : "no discount";
+                System.err.println("No parcel ID in the configured format matches rule " + name + "; its share goes to the others");
+            }
+        }
+        int[] filled = new int[categories];
+        for (int code = 0; code < capacity; code++) {
+            int c = categoryOf[code / perPrefix][code % 10];
+            result[c][filled[c]++] = code;
+        }
+        return result;
+    }
+
+    private static double[] parseMix(String mix) {
+        String[] parts = mix.split(",");
+        List<Double> values = new ArrayList<>(parts.length);
+        for (String part : parts) {
+            double value = Double.parseDouble(part.trim());
+            if (value < 0) {
+                throw new IllegalArgumentException("Mix weights cannot be negative: " + mix);
+            }
+            values.add(value);
+        }
+        double[] weights = new double[values.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = values.get(i);
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,166 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// What changed in an observable: the ordered deltas (kind, key and optionally the affected value), or a reload when the
+// change is too broad to describe item by item. Applying the deltas in order to a copy of the old state gives the new state.
+public final class ChangeEvent {
+    public enum Kind {
+        ADDED,          // Appended; the value, if any, is the added item
+        UPDATED,        // Changed in place
+        REMOVED,        // The first item with the key was removed
+        MOVED_TO_BACK   // The first item with the key was moved to the end
+    }
+
+    // Batches with more deltas than this are published as a reload, which observers handle with a full refresh
+    static final int MAX_DELTAS = 10_000;
+
+    private final String source;
+    private final Kind[] kinds;
+    private final String[] keys;
+    private final Object[] values;
+    private final int size;
+    private final boolean reload;
+
+    private ChangeEvent(String source, Kind[] kinds, String[] keys, Object[] values, int size, boolean reload) {
+        this.source = source;
+        this.kinds = kinds;
+        this.keys = keys;
+        this.values = values;
+        this.size = size;
+        this.reload = reload;
+    }
+
+    // A single delta
+    public static ChangeEvent of(String source, Kind kind, String key) {
+        return of(source, kind, key, null);
+    }
+
+    public static ChangeEvent of(String source, Kind kind, String key, Object value) {
+        return new ChangeEvent(source, new Kind[]{kind}, new String[]{key}, new Object[]{value}, 1, false);
+    }
+
+    // An unspecified change; observers should re-read everything
+    public static ChangeEvent reload(String source) {
+        return new ChangeEvent(source, new Kind[0], new String[0], new Object[0], 0, true);
+    }
+
+    // Getters
+    public String getSource() {
+        return source;
+    }
+
+    public boolean isReload() {
+        return reload;
+    }
+
+    // Number of deltas (0 for a reload)
+    public int size() {
+        return size;
+    }
+
+    public Kind getKind(int index) {
+        return kinds[index];
+    }
+
+    public String getKey(int index) {
+        return keys[index];
+    }
+
+    public Object getValue(int index) {
+        return values[index];
+    }
+
+    // Keys of every delta of one kind, in order
+    public List<String> getKeys(Kind kind) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (kinds[i] == kind) {
+                result.add(keys[i]);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return reload ? "ChangeEvent{" + source + ", reload}" : "ChangeEvent{" + source + ", " + size + " deltas}";
+    }
+
+    // Accumulates deltas in order into one event; past MAX_DELTAS it stops recording and builds a reload
+    public static final class Builder {
+        private final String source;
+        private Kind[] kinds = new Kind[16];
+        private String[] keys = new String[16];
+        private Object[] values = new Object[16];
+        private int size;
+        private boolean reload;
+        private boolean empty = true;
+
+        // Constructor for Builder
+        public Builder(String source) {
+            this.source = source;
+        }
+
+        public Builder add(Kind kind, String key) {
+            return add(kind, key, null);
+        }
+
+        public Builder add(Kind kind, String key, Object value) {
+            empty = false;
+            if (reload) {
+                return this;
+            }
+            if (size == MAX_DELTAS) {
+                markReload();
+                return this;
+            }
+            if (size == kinds.length) {
+                int capacity = Math.min(MAX_DELTAS, size * 2);
+                kinds = Arrays.copyOf(kinds, capacity);
+                keys = Arrays.copyOf(keys, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            kinds[size] = kind;
+            keys[size] = key;
+            values[size] = value;
+            size++;
+            return this;
+        }
+
+        // Appends another event's deltas, or turns this into a reload if it was one
+        public Builder addAll(ChangeEvent event) {
+            if (event.reload) {
+                empty = false;
+                markReload();
+                return this;
+            }
+            for (int i = 0; i < event.size; i++) {
+                add(event.kinds[i], event.keys[i], event.values[i]);
+            }
+            return this;
+        }
+
+        // Whether nothing has been added
+        public boolean isEmpty() {
+            return empty;
+        }
+
+        public ChangeEvent build() {
+            if (reload) {
+                return reload(source);
+            }
+            return new ChangeEvent(source, Arrays.copyOf(kinds, size), Arrays.copyOf(keys, size), Arrays.copyOf(values, size), size, false);
+        }
+
+        private void markReload() {
+            reload = true;
+            kinds = null;
+            keys = null;
+            values = null;
+            size = 0;
+        }
+    }
+}
@@ -7,6 +7,8 @@ public class DirectoryManager {
     public static final String LOGS_DIR = "logs";
     public static final String RECEIPTS_DIR = "receipts";
     public static final String REPORTS_DIR = "reports";
+    public static final String JOURNAL_DIR = "journal";
+    public static final String SNAPSHOT_DIR = "snapshot";
 
     // Retrieves a directory by its name, creating it if it does not already exist
     public static File getDirectory(String dirName) {
@@ -0,0 +1,146 @@
+package util;
+
+import javax.swing.*;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Delivers observable changes off the mutating thread. Every registration has a mailbox that merges the events still
+// waiting for it, so a burst of changes reaches a slow observer as one event; UI observers run on the EDT, others on a pool
+public class EventDispatcher {
+    private static final EventDispatcher INSTANCE = new EventDispatcher(Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+
+    private final ExecutorService pool;
+    private final AtomicInteger scheduled = new AtomicInteger();    // Mailboxes with a delivery queued or running
+    private final Log log = Log.getInstance();
+
+    // Constructor for EventDispatcher with a fixed number of pool threads for non-UI observers
+    public EventDispatcher(int poolThreads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = task -> {
+            Thread thread = new Thread(task, "event-dispatch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.pool = Executors.newFixedThreadPool(poolThreads, factory);
+    }
+
+    // Retrieves the dispatcher shared by all observables
+    public static EventDispatcher getInstance() {
+        return INSTANCE;
+    }
+
+    // Creates the mailbox for one observer's registration with one observable
+    public Mailbox mailbox(Observer observer) {
+        return new Mailbox(observer);
+    }
+
+    // Waits until no deliveries are queued or running, or the timeout passes; returns whether it is idle
+    public boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (scheduled) {
+            while (scheduled.get() > 0) {
+                long wait = deadline - System.currentTimeMillis();
+                if (wait <= 0) {
+                    return false;
+                }
+                scheduled.wait(wait);
+            }
+        }
+        return true;
+    }
+
+    private void done() {
+        if (scheduled.decrementAndGet() == 0) {
+            synchronized (scheduled) {
+                scheduled.notifyAll();
+            }
+        }
+    }
+
+    // Pending events for one observer; at most one delivery per mailbox is queued or running at a time, so each
+    // observer sees its events in publication order. The observer is held weakly: once it is only reachable from
+    // here it is collected and the mailbox reports itself cleared
+    public final class Mailbox {
+        private final WeakReference<Observer> observer;
+        private final boolean ui;
+        private ChangeEvent.Builder pending;
+        private boolean running;
+        private boolean closed;
+
+        private Mailbox(Observer observer) {
+            this.observer = new WeakReference<>(observer);
+            this.ui = observer.isUIObserver();
+        }
+
+        // The observer, or null once it has been collected
+        public Observer getObserver() {
+            return observer.get();
+        }
+
+        // Whether the observer has been collected or the mailbox closed
+        public synchronized boolean isCleared() {
+            return closed || observer.get() == null;
+        }
+
+        // Queues an event, merging it with any not yet delivered, and schedules a delivery if none is queued
+        public void post(ChangeEvent event) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (pending == null) {
+                    pending = new ChangeEvent.Builder(event.getSource());
+                }
+                pending.addAll(event);
+                if (running) {
+                    return;
+                }
+                running = true;
+            }
+            scheduled.incrementAndGet();
+            schedule();
+        }
+
+        // Drops undelivered events; later posts are ignored
+        public synchronized void close() {
+            closed = true;
+            pending = null;
+        }
+
+        private void schedule() {
+            if (ui) {
+                SwingUtilities.invokeLater(this::deliver);
+            } else {
+                pool.execute(this::deliver);
+            }
+        }
+
+        // Delivers everything merged so far, then reschedules itself if more arrived meanwhile
+        private void deliver() {
+            ChangeEvent event;
+            synchronized (this) {
+                event = pending == null ? null : pending.build();
+                pending = null;
+            }
+            Observer target = observer.get();
+            if (event != null && target != null) {
+                try {
+                    target.onChange(event);
+                } catch (RuntimeException e) {
+                    log.logError("Observer " + target.getClass().getSimpleName() + " failed on " + event + ": " + e);
+                }
+            }
+            synchronized (this) {
+                if (pending == null) {
+                    running = false;
+                    done();
+                    return;
+                }
+            }
+            schedule();
+        }
+    }
+}
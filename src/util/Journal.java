@@ -0,0 +1,609 @@
+package util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+// Append-only binary journal with group commit.
+// Each record is [int payloadLength][long sequence][byte type][payload][int crc32], the CRC covering sequence, type and payload.
+// A torn or corrupt tail (e.g. after a crash mid-write) ends replay and is truncated before new records are appended.
+// Once a snapshot covers a prefix of the file, discardBefore() drops it so the file only grows between snapshots.
+public class Journal implements Closeable {
+    public enum Durability {
+        PER_OP,     // Every append is written and fsynced before it returns
+        BATCHED,    // commit() waits for the writer thread, which fsyncs all records queued since its last fsync at once
+        ASYNC       // commit() returns at once; the writer thread fsyncs in the background
+    }
+
+    private static final int HEADER_BYTES = 4 + 8 + 1;
+    private static final int TRAILER_BYTES = 4;
+    private static final int MAX_PAYLOAD = 1 << 20;
+    private static final int REPLAY_WINDOW = 4 * 1024 * 1024;    // Replay reads the file through a buffer this size
+    private static final long ASYNC_FLUSH_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final Path path;
+    private final Durability durability;
+    private final Thread writerThread;
+
+    // Guarded by lock: records appended but not yet written, and the sequence bookkeeping
+    private final Object lock = new Object();
+    private FileChannel channel;    // Replaced by discardBefore(); the writer thread uses it only while it holds the lock or is writing
+    private long endOffset;         // File length once every record appended so far is written
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer spare = ByteBuffer.allocate(64 * 1024);
+    private long lastSequence;
+    private long durableSequence;
+    private boolean running = true;
+    private boolean writing;        // The writer thread is writing a swapped-out batch without the lock
+    private boolean unforced;       // flush() wrote records that have not been fsynced yet
+    private IOException failure;
+
+    // Statistics, guarded by lock
+    private long records;
+    private long bytes;
+    private long fsyncs;
+    private long commits;
+    private long commitNanos;
+    private long maxCommitNanos;
+
+    // Constructor for Journal; recovers the existing file's valid length and last sequence first
+    public Journal(Path path, Durability durability) throws IOException {
+        this(path, durability, replay(path, 0, (sequence, type, payload) -> { }));
+    }
+
+    // Constructor for Journal when the file has just been replayed; truncates anything after the last valid record
+    public Journal(Path path, Durability durability, ReplayResult recovered) throws IOException {
+        this.path = path;
+        this.durability = durability;
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.truncate(recovered.getValidBytes());
+        channel.position(recovered.getValidBytes());
+        endOffset = recovered.getValidBytes();
+        lastSequence = recovered.getLastSequence();
+        durableSequence = lastSequence;
+
+        if (durability == Durability.PER_OP) {
+            writerThread = null;
+        } else {
+            writerThread = new Thread(this::writeLoop, "journal-writer");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(this::closeQuietly, "journal-shutdown"));
+    }
+
+    // Appends a record and returns its sequence number; PER_OP journals make it durable before returning
+    public long append(byte type, byte[] payload) {
+        if (payload.length > MAX_PAYLOAD) {
+            throw new IllegalArgumentException("Journal payload too large: " + payload.length + " bytes");
+        }
+        synchronized (lock) {
+            checkUsable();
+            long sequence = ++lastSequence;
+            pending = encode(pending, sequence, type, payload);
+            endOffset += recordLength(payload.length);
+            records++;
+            if (durability == Durability.PER_OP) {
+                long start = System.nanoTime();
+                writePending();
+                recordCommit(System.nanoTime() - start);
+            } else {
+                lock.notifyAll();
+            }
+            return sequence;
+        }
+    }
+
+    // Waits until the record with the given sequence is on disk (BATCHED); a no-op for PER_OP and ASYNC
+    public void commit(long sequence) {
+        if (durability != Durability.BATCHED) {
+            return;
+        }
+        long start = System.nanoTime();
+        synchronized (lock) {
+            while (durableSequence < sequence) {
+                checkUsable();
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for journal commit", e);
+                }
+            }
+            recordCommit(System.nanoTime() - start);
+        }
+    }
+
+    // Writes and fsyncs everything appended so far, whatever the durability level
+    public void sync() {
+        synchronized (lock) {
+            checkUsable();
+            writePending();
+        }
+    }
+
+    // Writes everything appended so far to the file without fsyncing, so readers of the file see it; the writer thread
+    // (or the next sync) still makes it durable. A no-op once the journal is closed, since close wrote everything
+    public void flush() {
+        synchronized (lock) {
+            if (!running) {
+                return;
+            }
+            checkUsable();
+            awaitWriter();
+            int length = pending.position();
+            if (length == 0) {
+                return;
+            }
+            try {
+                pending.flip();
+                while (pending.hasRemaining()) {
+                    channel.write(pending);
+                }
+            } catch (IOException e) {
+                failure = e;
+                throw new UncheckedIOException("Journal write failed for " + path, e);
+            } finally {
+                pending.clear();
+            }
+            bytes += length;
+            unforced = true;
+            lock.notifyAll();
+        }
+    }
+
+    // File offset just past the last appended record; records appended later start here. Pass it to discardBefore()
+    // once a snapshot covers everything up to getLastSequence()
+    public long getEndOffset() {
+        synchronized (lock) {
+            return endOffset;
+        }
+    }
+
+    // Drops every record before the given offset (taken from getEndOffset()). The records after it are copied to a new
+    // file that replaces this one, so appends pause only while the few records written since the offset are copied.
+    // A crash part way leaves either the old file or the new one, both of which replay correctly on top of the snapshot
+    public void discardBefore(long offset) throws IOException {
+        synchronized (lock) {
+            checkUsable();
+            writePending();
+            long end = endOffset;
+            if (offset <= 0 || offset > end) {
+                return;
+            }
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                long position = offset;
+                while (position < end) {
+                    position += channel.transferTo(position, end - position, out);
+                }
+                out.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            try {
+                channel.close();
+                channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                channel.position(end - offset);
+            } catch (IOException e) {
+                failure = e;    // Appends would go to the replaced file, so stop taking them
+                throw e;
+            }
+            endOffset = end - offset;
+        }
+    }
+
+    // Retrieves the durability level
+    public Durability getDurability() {
+        return durability;
+    }
+
+    // Retrieves the journal file
+    public Path getPath() {
+        return path;
+    }
+
+    // Sequence number of the last appended record
+    public long getLastSequence() {
+        synchronized (lock) {
+            return lastSequence;
+        }
+    }
+
+    // Snapshot of the write-side counters
+    public Stats getStats() {
+        synchronized (lock) {
+            return new Stats(records, bytes, fsyncs, commits, commitNanos, maxCommitNanos);
+        }
+    }
+
+    // Flushes outstanding records and stops the writer thread
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (!running) {
+                return;
+            }
+            try {
+                if (failure == null) {
+                    writePending();
+                }
+            } finally {
+                running = false;
+                lock.notifyAll();
+                channel.close();
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Failed to close journal " + path + ": " + e.getMessage());
+        }
+    }
+
+    // Writer thread: each pass writes every record queued since the previous fsync and fsyncs once (group commit)
+    private void writeLoop() {
+        while (true) {
+            ByteBuffer batch;
+            long batchEnd;
+            FileChannel out;
+            synchronized (lock) {
+                try {
+                    while (running && pending.position() == 0 && !unforced) {
+                        lock.wait();
+                    }
+                    if (durability == Durability.ASYNC) {
+                        // Let records accumulate so background fsyncs stay cheap under load
+                        long deadline = System.nanoTime() + ASYNC_FLUSH_NANOS;
+                        long remaining;
+                        while (running && (remaining = deadline - System.nanoTime()) > 0) {
+                            TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (!running) {
+                    return;     // close() writes whatever is left
+                }
+                batch = pending;
+                batchEnd = lastSequence;
+                out = channel;
+                pending = spare;
+                spare = null;
+                writing = true;
+                unforced = false;   // The fsync after this batch also covers anything flush() wrote before it
+            }
+
+            // Appenders keep filling the other buffer while this batch is written and fsynced
+            long start = System.nanoTime();
+            IOException error = null;
+            int length = batch.position();
+            try {
+                writeAndForce(out, batch);
+            } catch (IOException e) {
+                error = e;
+            }
+
+            synchronized (lock) {
+                writing = false;
+                batch.clear();
+                spare = batch;
+                if (error != null) {
+                    failure = error;
+                    lock.notifyAll();
+                    System.err.println("Journal write failed for " + path + ": " + error.getMessage());
+                    return;
+                }
+                bytes += length;
+                fsyncs++;
+                durableSequence = Math.max(durableSequence, batchEnd);
+                if (durability == Durability.ASYNC) {
+                    recordCommit(System.nanoTime() - start);
+                }
+                lock.notifyAll();
+            }
+        }
+    }
+
+    // Writes and fsyncs the pending buffer, and anything flush() left unforced, on the calling thread; callers hold the lock
+    private void writePending() {
+        awaitWriter();
+        if (pending.position() == 0 && !unforced) {
+            durableSequence = lastSequence;
+            return;
+        }
+        int length = pending.position();
+        try {
+            writeAndForce(channel, pending);
+        } catch (IOException e) {
+            failure = e;
+            throw new UncheckedIOException("Journal write failed for " + path, e);
+        } finally {
+            pending.clear();
+        }
+        bytes += length;
+        fsyncs++;
+        unforced = false;
+        durableSequence = lastSequence;
+        lock.notifyAll();
+    }
+
+    // Waits until the writer thread has finished writing its batch, so records reach the file in order; callers hold the lock
+    private void awaitWriter() {
+        while (writing) {
+            try {
+                lock.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the journal writer", e);
+            }
+        }
+    }
+
+    private static void writeAndForce(FileChannel out, ByteBuffer batch) throws IOException {
+        batch.flip();
+        while (batch.hasRemaining()) {
+            out.write(batch);
+        }
+        out.force(false);
+    }
+
+    private void recordCommit(long nanos) {
+        commits++;
+        commitNanos += nanos;
+        maxCommitNanos = Math.max(maxCommitNanos, nanos);
+    }
+
+    private void checkUsable() {
+        if (failure != null) {
+            throw new UncheckedIOException("Journal unavailable after a write failure: " + path, failure);
+        }
+        if (!running) {
+            throw new IllegalStateException("Journal is closed: " + path);
+        }
+    }
+
+    // Appends one framed record to the buffer, growing it if needed
+    private static ByteBuffer encode(ByteBuffer buffer, long sequence, byte type, byte[] payload) {
+        int size = HEADER_BYTES + payload.length + TRAILER_BYTES;
+        if (buffer.remaining() < size) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + size));
+            buffer.flip();
+            bigger.put(buffer);
+            buffer = bigger;
+        }
+        int start = buffer.position();
+        buffer.putInt(payload.length);
+        buffer.putLong(sequence);
+        buffer.put(type);
+        buffer.put(payload);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), start + 4, 8 + 1 + payload.length);
+        buffer.putInt((int) crc.getValue());
+        return buffer;
+    }
+
+    // Reads every valid record after the given sequence in order; stops at the first torn or corrupt record.
+    // The file is read through a bounded window rather than mapped whole, so its size is not limited by what one mapping
+    // can hold; a payload handed to the handler is only valid until it returns.
+    // The result's last sequence is never below afterSequence, so a journal reopened from it keeps numbering past a snapshot.
+    public static ReplayResult replay(Path path, long afterSequence, Handler handler) throws IOException {
+        long start = System.nanoTime();
+        if (!Files.exists(path)) {
+            return new ReplayResult(0, afterSequence, 0, 0, System.nanoTime() - start, false);
+        }
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = in.size();
+            ByteBuffer buf = ByteBuffer.allocate((int) Math.max(1, Math.min(size, REPLAY_WINDOW)));
+            buf.limit(0);
+            boolean endOfFile = false;
+            long lastSequence = afterSequence;
+            long applied = 0;
+            long valid = 0;
+            boolean corrupt = false;
+            CRC32 crc = new CRC32();
+            while (true) {
+                if (!endOfFile && buf.remaining() < recordLength(MAX_PAYLOAD)) {
+                    endOfFile = refill(in, buf, size);
+                }
+                if (buf.remaining() < HEADER_BYTES + TRAILER_BYTES) {
+                    break;
+                }
+                int recordStart = buf.position();
+                int length = buf.getInt(recordStart);
+                if (length < 0 || length > MAX_PAYLOAD || buf.remaining() < HEADER_BYTES + length + TRAILER_BYTES) {
+                    corrupt = true;
+                    break;
+                }
+                crc.reset();
+                crc.update(buf.array(), recordStart + 4, 8 + 1 + length);
+                int stored = buf.getInt(recordStart + HEADER_BYTES + length);
+                if ((int) crc.getValue() != stored) {
+                    corrupt = true;
+                    break;
+                }
+                long sequence = buf.getLong(recordStart + 4);
+                byte type = buf.get(recordStart + 12);
+                if (sequence > afterSequence) {
+                    handler.apply(sequence, type, buf.slice(recordStart + HEADER_BYTES, length));
+                    applied++;
+                }
+                lastSequence = Math.max(lastSequence, sequence);
+                buf.position(recordStart + recordLength(length));
+                valid += recordLength(length);
+            }
+            corrupt |= valid < size;
+            return new ReplayResult(applied, lastSequence, valid, size, System.nanoTime() - start, corrupt);
+        }
+    }
+
+    // Moves the unread bytes to the front of the window and reads after them until it is full; true once the file
+    // (as long as it was when replay started) has been read to the end
+    private static boolean refill(FileChannel in, ByteBuffer buf, long size) throws IOException {
+        buf.compact();
+        int read = 0;
+        while (buf.hasRemaining() && in.position() < size && read >= 0) {
+            read = in.read(buf);
+        }
+        buf.flip();
+        return read < 0 || in.position() >= size;
+    }
+
+    // Bytes a record with the given payload length occupies in the file
+    public static int recordLength(int payloadLength) {
+        return HEADER_BYTES + payloadLength + TRAILER_BYTES;
+    }
+
+    // Reads and verifies the one record starting at a file offset, for callers that index record offsets themselves
+    public static ByteBuffer readRecord(Path path, long offset, long expectedSequence) throws IOException {
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            readFully(in, header, offset);
+            int length = header.getInt(0);
+            if (length < 0 || length > MAX_PAYLOAD) {
+                throw new IOException("Bad record length " + length + " at offset " + offset + " in " + path);
+            }
+            ByteBuffer record = ByteBuffer.allocate(recordLength(length));
+            readFully(in, record, offset);
+            CRC32 crc = new CRC32();
+            crc.update(record.array(), 4, 8 + 1 + length);
+            if ((int) crc.getValue() != record.getInt(HEADER_BYTES + length)) {
+                throw new IOException("Checksum mismatch at offset " + offset + " in " + path);
+            }
+            if (record.getLong(4) != expectedSequence) {
+                throw new IOException("Expected sequence " + expectedSequence + " at offset " + offset + " in " + path
+                        + " but found " + record.getLong(4));
+            }
+            return record.slice(HEADER_BYTES, length);
+        }
+    }
+
+    private static void readFully(FileChannel in, ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file at offset " + (offset + buffer.position()));
+            }
+        }
+    }
+
+    // Applies one replayed record
+    public interface Handler {
+        void apply(long sequence, byte type, ByteBuffer payload) throws IOException;
+    }
+
+    // Outcome of a replay: records applied, the last sequence seen and how much of the file was valid
+    public static class ReplayResult {
+        private final long records;
+        private final long lastSequence;
+        private final long validBytes;
+        private final long fileBytes;
+        private final long elapsedNanos;
+        private final boolean truncatedTail;
+
+        ReplayResult(long records, long lastSequence, long validBytes, long fileBytes, long elapsedNanos, boolean truncatedTail) {
+            this.records = records;
+            this.lastSequence = lastSequence;
+            this.validBytes = validBytes;
+            this.fileBytes = fileBytes;
+            this.elapsedNanos = elapsedNanos;
+            this.truncatedTail = truncatedTail;
+        }
+
+        public long getRecords() {
+            return records;
+        }
+
+        public long getLastSequence() {
+            return lastSequence;
+        }
+
+        public long getValidBytes() {
+            return validBytes;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        // Whether bytes after the last valid record were found (and will be discarded)
+        public boolean hasTruncatedTail() {
+            return truncatedTail;
+        }
+
+        public double getRecordsPerSecond() {
+            return elapsedNanos == 0 ? 0 : records * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Replayed %d records up to sequence %d, %d of %d bytes valid, %.1f ms (%.0f records/sec)%s",
+                    records, lastSequence, validBytes, fileBytes, elapsedNanos / 1e6, getRecordsPerSecond(),
+                    truncatedTail ? ", torn tail discarded" : "");
+        }
+    }
+
+    // Write-side counters: how many records shared each fsync and how long commits waited
+    public static class Stats {
+        private final long records;
+        private final long bytes;
+        private final long fsyncs;
+        private final long commits;
+        private final long commitNanos;
+        private final long maxCommitNanos;
+
+        Stats(long records, long bytes, long fsyncs, long commits, long commitNanos, long maxCommitNanos) {
+            this.records = records;
+            this.bytes = bytes;
+            this.fsyncs = fsyncs;
+            this.commits = commits;
+            this.commitNanos = commitNanos;
+            this.maxCommitNanos = maxCommitNanos;
+        }
+
+        public long getRecords() {
+            return records;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getFsyncs() {
+            return fsyncs;
+        }
+
+        public double getRecordsPerFsync() {
+            return fsyncs == 0 ? 0 : (double) records / fsyncs;
+        }
+
+        public double getAverageCommitMicros() {
+            return commits == 0 ? 0 : commitNanos / 1e3 / commits;
+        }
+
+        public double getMaxCommitMicros() {
+            return maxCommitNanos / 1e3;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d records, %d bytes, %d fsyncs (%.1f records/fsync), commit avg %.1f us, max %.1f us",
+                    records, bytes, fsyncs, getRecordsPerFsync(), getAverageCommitMicros(), getMaxCommitMicros());
+        }
+    }
+}
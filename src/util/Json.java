@@ -0,0 +1,272 @@
+package util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Minimal JSON support for the HTTP API: an object writer and a parser for flat objects of strings, numbers and booleans
+public class Json {
+    private Json() {
+    }
+
+    // Writes one JSON object field by field; nested values are passed in already encoded
+    public static class ObjectWriter {
+        private final StringBuilder out = new StringBuilder(128).append('{');
+        private boolean first = true;
+
+        public ObjectWriter field(String name, String value) {
+            name(name);
+            if (value == null) {
+                out.append("null");
+            } else {
+                quote(out, value);
+            }
+            return this;
+        }
+
+        public ObjectWriter field(String name, long value) {
+            name(name);
+            out.append(value);
+            return this;
+        }
+
+        public ObjectWriter field(String name, double value) {
+            name(name);
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                out.append("null");
+            } else {
+                out.append(value);
+            }
+            return this;
+        }
+
+        public ObjectWriter field(String name, boolean value) {
+            name(name);
+            out.append(value);
+            return this;
+        }
+
+        // Adds a field whose value is already JSON, such as a nested object or array
+        public ObjectWriter raw(String name, String json) {
+            name(name);
+            out.append(json);
+            return this;
+        }
+
+        private void name(String name) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            quote(out, name);
+            out.append(':');
+        }
+
+        @Override
+        public String toString() {
+            return out + "}";
+        }
+    }
+
+    // Joins already encoded values into a JSON array
+    public static String array(Iterable<String> values) {
+        StringBuilder out = new StringBuilder().append('[');
+        boolean first = true;
+        for (String value : values) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            out.append(value);
+        }
+        return out.append(']').toString();
+    }
+
+    // Appends a string as a quoted, escaped JSON string
+    public static void quote(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    // Parses a flat JSON object; values come back as String, Double, Boolean or null. Throws IllegalArgumentException
+    // for anything else, including nested objects and arrays
+    public static Map<String, Object> parseObject(String text) {
+        Parser parser = new Parser(text);
+        Map<String, Object> result = parser.object();
+        parser.skipSpace();
+        if (parser.pos != text.length()) {
+            throw parser.error("Unexpected text after the object");
+        }
+        return result;
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Map<String, Object> object() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            expect('{');
+            skipSpace();
+            if (peek() == '}') {
+                pos++;
+                return result;
+            }
+            while (true) {
+                skipSpace();
+                String name = string();
+                skipSpace();
+                expect(':');
+                skipSpace();
+                result.put(name, value());
+                skipSpace();
+                char c = next();
+                if (c == '}') {
+                    return result;
+                }
+                if (c != ',') {
+                    throw error("Expected ',' or '}'");
+                }
+            }
+        }
+
+        private Object value() {
+            char c = peek();
+            if (c == '"') {
+                return string();
+            }
+            if (c == '-' || (c >= '0' && c <= '9')) {
+                return number();
+            }
+            if (text.startsWith("true", pos)) {
+                pos += 4;
+                return Boolean.TRUE;
+            }
+            if (text.startsWith("false", pos)) {
+                pos += 5;
+                return Boolean.FALSE;
+            }
+            if (text.startsWith("null", pos)) {
+                pos += 4;
+                return null;
+            }
+            throw error("Expected a string, number, boolean or null");
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder out = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return out.toString();
+                }
+                if (c != '\\') {
+                    out.append(c);
+                    continue;
+                }
+                char e = next();
+                switch (e) {
+                    case 'b':
+                        out.append('\b');
+                        break;
+                    case 'f':
+                        out.append('\f');
+                        break;
+                    case 'n':
+                        out.append('\n');
+                        break;
+                    case 'r':
+                        out.append('\r');
+                        break;
+                    case 't':
+                        out.append('\t');
+                        break;
+                    case 'u':
+                        if (pos + 4 > text.length()) {
+                            throw error("Truncated \\u escape");
+                        }
+                        try {
+                            out.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException ex) {
+                            throw error("Invalid \\u escape");
+                        }
+                        pos += 4;
+                        break;
+                    default:
+                        out.append(e);     // \" \\ \/
+                }
+            }
+        }
+
+        private Double number() {
+            int start = pos;
+            while (pos < text.length() && "+-.eE0123456789".indexOf(text.charAt(pos)) >= 0) {
+                pos++;
+            }
+            try {
+                return Double.valueOf(text.substring(start, pos));
+            } catch (NumberFormatException e) {
+                throw error("Invalid number");
+            }
+        }
+
+        void skipSpace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private char peek() {
+            if (pos >= text.length()) {
+                throw error("Unexpected end of input");
+            }
+            return text.charAt(pos);
+        }
+
+        private char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private void expect(char c) {
+            if (next() != c) {
+                throw error("Expected '" + c + "'");
+            }
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + pos + " of the JSON body");
+        }
+    }
+}
@@ -1,19 +1,28 @@
 package util;
 
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.function.Supplier;
 
 public class Log {
+    public enum Level { DEBUG, INFO, WARN, ERROR }
+
+    private static final String LOG_FILE_BASE = "DepotSystem";
+
     private static Log instance;
-    private StringBuilder logBuffer;
+    private final LogAppender appender;
+    private volatile Level threshold;
 
-    // Constructor for Log
+    // Constructor for Log; settings can be overridden with -Ddepot.log.* system properties
     private Log() {
-        logBuffer = new StringBuilder();
+        threshold = Level.valueOf(System.getProperty("depot.log.level", "INFO").toUpperCase());
+        appender = new LogAppender(
+                Integer.getInteger("depot.log.capacity", 8192),
+                LogAppender.OverflowPolicy.valueOf(System.getProperty("depot.log.overflow", "BLOCK").toUpperCase()),
+                Integer.getInteger("depot.log.sampleRate", 100),
+                DirectoryManager.getDirectory(DirectoryManager.LOGS_DIR),
+                LOG_FILE_BASE,
+                Long.getLong("depot.log.maxFileBytes", 10L * 1024 * 1024),
+                Boolean.parseBoolean(System.getProperty("depot.log.gzip", "true")),
+                Boolean.parseBoolean(System.getProperty("depot.log.console", "true")));
     }
 
     // Creates a new instance
@@ -24,62 +33,150 @@ public class Log {
         return instance;
     }
 
+    // Sets the lowest level that is written
+    public void setLevel(Level level) {
+        threshold = level;
+    }
+
+    public Level getLevel() {
+        return threshold;
+    }
+
+    // Checks whether messages at the given level are written
+    public boolean isEnabled(Level level) {
+        return level.compareTo(threshold) >= 0;
+    }
+
+    public boolean isDebugEnabled() {
+        return Level.DEBUG.compareTo(threshold) >= 0;
+    }
+
+    // Logs debug messages
+    public void logDebug(String message) {
+        log(Level.DEBUG, message);
+    }
+
+    public void logDebug(Supplier<String> message) {
+        log(Level.DEBUG, message);
+    }
+
+    public void logDebug(String pattern, Object arg) {
+        if (isDebugEnabled()) {
+            logEvent(Level.DEBUG, substitute(pattern, arg, null, null, 1));
+        }
+    }
+
+    public void logDebug(String pattern, Object arg1, Object arg2) {
+        if (isDebugEnabled()) {
+            logEvent(Level.DEBUG, substitute(pattern, arg1, arg2, null, 2));
+        }
+    }
+
+    public void logDebug(String pattern, Object arg1, Object arg2, Object arg3) {
+        if (isDebugEnabled()) {
+            logEvent(Level.DEBUG, substitute(pattern, arg1, arg2, arg3, 3));
+        }
+    }
+
     // Logs info messages
     public void logInfo(String message) {
-        logEvent("[INFO]", message);
+        log(Level.INFO, message);
     }
 
-    // Logs error messages
-    public void logError(String message) {
-        logEvent("[ERROR]", message);
+    public void logInfo(Supplier<String> message) {
+        log(Level.INFO, message);
+    }
+
+    public void logInfo(String pattern, Object arg) {
+        if (isEnabled(Level.INFO)) {
+            logEvent(Level.INFO, substitute(pattern, arg, null, null, 1));
+        }
     }
 
-    // Logs the events with timestamps
-    private void logEvent(String level, String message) {
-        String timestamp = getTimestamp();
-        String formattedMessage = String.format("%s[%s] %s", level, timestamp, message);
-        logBuffer.append(formattedMessage).append("\n");
-        System.out.println(formattedMessage); // Optional: Log to console
+    public void logInfo(String pattern, Object arg1, Object arg2) {
+        if (isEnabled(Level.INFO)) {
+            logEvent(Level.INFO, substitute(pattern, arg1, arg2, null, 2));
+        }
     }
 
-    // Generates the current timestamp
-    private String getTimestamp() {
-        return LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+    // Logs warning messages
+    public void logWarn(String message) {
+        log(Level.WARN, message);
     }
 
-    // Saves the current log buffer to a file
-    public synchronized void saveToFile(String fileName) {
-        File logsDir = DirectoryManager.getDirectory(DirectoryManager.LOGS_DIR);
+    // Logs error messages
+    public void logError(String message) {
+        log(Level.ERROR, message);
+    }
+
+    public void logError(Supplier<String> message) {
+        log(Level.ERROR, message);
+    }
 
-        DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
-        String timestamp = LocalDateTime.now().format(dtf);
+    // Logs a message at the given level
+    public void log(Level level, String message) {
+        if (isEnabled(level)) {
+            logEvent(level, message);
+        }
+    }
 
-        String baseName = fileName;
-        String extension = "";
-        int dotIndex = fileName.lastIndexOf('.');
-        if (dotIndex != -1) {
-            baseName = fileName.substring(0, dotIndex);
-            extension = fileName.substring(dotIndex);
+    // Logs a lazily built message; the supplier only runs if the level is enabled
+    public void log(Level level, Supplier<String> message) {
+        if (isEnabled(level)) {
+            logEvent(level, message.get());
         }
+    }
 
-        String timestampedFileName = baseName + "_" + timestamp + extension;
+    // Logs a repetitive message at most as often as the call site's sampler allows
+    public void log(Level level, LogSampler sampler, Supplier<String> message) {
+        if (isEnabled(level) && sampler.tryAcquire()) {
+            long suppressed = sampler.takeSuppressed();
+            String text = message.get();
+            logEvent(level, suppressed == 0 ? text : text + " (" + suppressed + " similar messages suppressed)");
+        }
+    }
 
+    // Hands the event to the background writer; formatting happens off the caller's thread
+    private void logEvent(Level level, String message) {
+        appender.append(prefix(level), message);
+    }
 
-        File logFile = new File(logsDir, timestampedFileName);
+    private static String prefix(Level level) {
+        switch (level) {
+            case DEBUG:
+                return "[DEBUG]";
+            case WARN:
+                return "[WARN]";
+            case ERROR:
+                return "[ERROR]";
+            default:
+                return "[INFO]";
+        }
+    }
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(logFile, true))) {
-            writer.write(logBuffer.toString());
-            writer.flush();
-            logBuffer.setLength(0);
-            System.out.println("Logs saved successfully to: " + logFile.getAbsolutePath());
-        } catch (IOException e) {
-            System.err.println("Error saving log to file '" + logFile.getAbsolutePath() + "': " + e.getMessage());
+    // Replaces successive "{}" placeholders with the given arguments
+    private static String substitute(String pattern, Object arg1, Object arg2, Object arg3, int argCount) {
+        StringBuilder sb = new StringBuilder(pattern.length() + 32);
+        int from = 0;
+        for (int i = 0; i < argCount; i++) {
+            int at = pattern.indexOf("{}", from);
+            if (at < 0) {
+                break;
+            }
+            sb.append(pattern, from, at).append(i == 0 ? arg1 : i == 1 ? arg2 : arg3);
+            from = at + 2;
         }
+        return sb.append(pattern, from, pattern.length()).toString();
     }
 
-    // Retrieves all log events currently in the log buffer
-    public String getAllLogEvents() {
-        return logBuffer.toString();
+    // Blocks until all events logged so far have been written to disk
+    public void flush() {
+        appender.flush();
+        System.out.println("Logs saved successfully to: " + appender.getCurrentFile().getAbsolutePath());
     }
-}
 
+    // Retrieves the number of events discarded because the buffer was full
+    public long getDroppedCount() {
+        return appender.getDroppedCount();
+    }
+}
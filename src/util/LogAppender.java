@@ -0,0 +1,273 @@
+package util;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPOutputStream;
+
+// Drains a LogRingBuffer to size-rotated files on a background writer thread
+public class LogAppender {
+    public enum OverflowPolicy { BLOCK, DROP, SAMPLE }
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter ROTATION_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FLUSH_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final LogRingBuffer ring;
+    private final OverflowPolicy overflowPolicy;
+    private final int sampleRate;
+    private final File directory;
+    private final String baseName;
+    private final long maxFileBytes;
+    private final boolean gzipRotated;
+    private final boolean console;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong totalDropped = new AtomicLong();
+    private final AtomicLong overflowCount = new AtomicLong();
+    private final Thread writerThread;
+    private volatile boolean running = true;
+    private volatile boolean sleeping;
+    private volatile long flushedUpTo;
+
+    // Writer-thread state
+    private OutputStream out;
+    private File currentFile;
+    private long currentBytes;
+    private int rotationCount;
+    private long cachedSecond = Long.MIN_VALUE;
+    private String cachedTimestamp;
+    private final StringBuilder line = new StringBuilder(256);
+
+    // Constructor for LogAppender; starts the writer thread and registers a shutdown flush
+    public LogAppender(int capacity, OverflowPolicy overflowPolicy, int sampleRate, File directory, String baseName,
+                       long maxFileBytes, boolean gzipRotated, boolean console) {
+        this.ring = new LogRingBuffer(capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.sampleRate = Math.max(1, sampleRate);
+        this.directory = directory;
+        this.baseName = baseName;
+        this.maxFileBytes = maxFileBytes;
+        this.gzipRotated = gzipRotated;
+        this.console = console;
+
+        writerThread = new Thread(this::drainLoop, "log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "log-shutdown"));
+    }
+
+    // Publishes an event, applying the overflow policy when the ring is full
+    public void append(String level, String message) {
+        long now = System.currentTimeMillis();
+        if (!running) {
+            printDirect(level, now, message);
+            return;
+        }
+        if (!ring.tryPublish(level, now, message)) {
+            switch (overflowPolicy) {
+                case DROP:
+                    dropped.incrementAndGet();
+                    return;
+                case SAMPLE:
+                    if (overflowCount.incrementAndGet() % sampleRate != 0) {
+                        dropped.incrementAndGet();
+                        return;
+                    }
+                    publishBlocking(level, now, message);
+                    break;
+                default:
+                    publishBlocking(level, now, message);
+            }
+        }
+        if (sleeping) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    private void publishBlocking(String level, long timestamp, String message) {
+        int spins = 0;
+        while (!ring.tryPublish(level, timestamp, message)) {
+            if (!running) {
+                printDirect(level, timestamp, message);
+                return;
+            }
+            LockSupport.unpark(writerThread);
+            if (++spins < 100) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(50_000);
+            }
+        }
+    }
+
+    // Blocks until every event published before this call is written and flushed to disk
+    public void flush() {
+        long target = ring.publishedCount();
+        long deadline = System.nanoTime() + FLUSH_TIMEOUT_NANOS;
+        while (flushedUpTo < target && writerThread.isAlive() && System.nanoTime() < deadline) {
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(1_000_000);
+        }
+    }
+
+    // Stops accepting events, drains what is left and closes the current file
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.NANOSECONDS.toMillis(FLUSH_TIMEOUT_NANOS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Number of events discarded by the DROP or SAMPLE policies
+    public long getDroppedCount() {
+        return totalDropped.get() + dropped.get();
+    }
+
+    // Retrieves the file currently being written
+    public File getCurrentFile() {
+        return currentFile != null ? currentFile : new File(directory, baseName + ".log");
+    }
+
+    // Writer loop: drain, flush when idle, park until woken
+    private void drainLoop() {
+        try {
+            openCurrentFile();
+            while (running || ring.hasNext()) {
+                if (!drainAvailable()) {
+                    flushOut();
+                    sleeping = true;
+                    if (!ring.hasNext() && running) {
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    }
+                    sleeping = false;
+                }
+            }
+            drainAvailable();
+            flushOut();
+        } catch (IOException e) {
+            running = false;
+            System.err.println("Log writer stopped: " + e.getMessage());
+        } finally {
+            closeOut();
+        }
+    }
+
+    // Writes every published event; returns false if there was nothing to write
+    private boolean drainAvailable() throws IOException {
+        boolean wrote = false;
+        while (ring.hasNext()) {
+            String formatted = format(ring.nextLevel(), ring.nextTimestamp(), ring.nextMessage());
+            ring.release();
+            writeLine(formatted);
+            wrote = true;
+        }
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            totalDropped.addAndGet(lost);
+            writeLine(format("[WARN]", System.currentTimeMillis(), lost + " log events dropped due to overflow"));
+        }
+        return wrote;
+    }
+
+    private void writeLine(String formatted) throws IOException {
+        if (console) {
+            System.out.println(formatted);
+        }
+        byte[] bytes = (formatted + "\n").getBytes(StandardCharsets.UTF_8);
+        if (currentBytes > 0 && currentBytes + bytes.length > maxFileBytes) {
+            rotate();
+        }
+        out.write(bytes);
+        currentBytes += bytes.length;
+    }
+
+    // Fallback for events published after shutdown; does not touch writer-thread state
+    private void printDirect(String level, long timestamp, String message) {
+        String time = LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault()).format(TIMESTAMP_FORMAT);
+        System.out.println(level + "[" + time + "] " + message);
+    }
+
+    private String format(String level, long timestamp, String message) {
+        line.setLength(0);
+        return line.append(level).append('[').append(timestamp(timestamp)).append("] ").append(message).toString();
+    }
+
+    // Formats the timestamp once per second rather than once per event
+    private String timestamp(long epochMillis) {
+        long second = epochMillis / 1000;
+        if (second != cachedSecond) {
+            cachedTimestamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()).format(TIMESTAMP_FORMAT);
+            cachedSecond = second;
+        }
+        return cachedTimestamp;
+    }
+
+    private void flushOut() throws IOException {
+        long consumed = ring.consumedCount();
+        out.flush();
+        flushedUpTo = consumed;
+    }
+
+    private void openCurrentFile() throws IOException {
+        currentFile = new File(directory, baseName + ".log");
+        currentBytes = currentFile.length();
+        out = new BufferedOutputStream(new FileOutputStream(currentFile, true), 64 * 1024);
+    }
+
+    // Moves the full file aside (optionally gzipped) and starts a new one
+    private void rotate() throws IOException {
+        out.close();
+        String stamp = LocalDateTime.now().format(ROTATION_FORMAT);
+        File rotated = new File(directory, baseName + "_" + stamp + "_" + (++rotationCount) + ".log");
+        if (!currentFile.renameTo(rotated)) {
+            System.err.println("Failed to rotate log file: " + currentFile.getAbsolutePath());
+        } else if (gzipRotated) {
+            compress(rotated);
+        }
+        openCurrentFile();
+    }
+
+    private void compress(File file) {
+        File gz = new File(file.getPath() + ".gz");
+        try (InputStream in = new FileInputStream(file);
+             OutputStream zip = new GZIPOutputStream(new FileOutputStream(gz))) {
+            in.transferTo(zip);
+        } catch (IOException e) {
+            System.err.println("Failed to compress log file '" + file.getAbsolutePath() + "': " + e.getMessage());
+            return;
+        }
+        if (!file.delete()) {
+            System.err.println("Failed to delete compressed log file: " + file.getAbsolutePath());
+        }
+    }
+
+    private void closeOut() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                System.err.println("Error closing log file: " + e.getMessage());
+            }
+        }
+    }
+}
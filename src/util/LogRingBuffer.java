@@ -0,0 +1,96 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bounded lock-free multi-producer / single-consumer ring of preallocated log slots
+public class LogRingBuffer {
+    private final int capacity;
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final String[] levels;
+    private final long[] timestamps;
+    private final String[] messages;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    // Constructor for LogRingBuffer; capacity is rounded up to a power of two
+    public LogRingBuffer(int requestedCapacity) {
+        int cap = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.capacity = cap;
+        this.mask = cap - 1;
+        this.sequences = new AtomicLongArray(cap);
+        this.levels = new String[cap];
+        this.timestamps = new long[cap];
+        this.messages = new String[cap];
+        for (int i = 0; i < cap; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    // Claims a slot and publishes the event; returns false if the ring is full
+    public boolean tryPublish(String level, long timestamp, String message) {
+        long pos = tail.get();
+        while (true) {
+            long diff = sequences.get((int) pos & mask) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    break;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+        int slot = (int) pos & mask;
+        levels[slot] = level;
+        timestamps[slot] = timestamp;
+        messages[slot] = message;
+        sequences.set(slot, pos + 1);
+        return true;
+    }
+
+    // Checks whether the next slot has been published (consumer only)
+    public boolean hasNext() {
+        long h = head;
+        return sequences.get((int) h & mask) == h + 1;
+    }
+
+    // Accessors for the next published slot (consumer only, valid until release)
+    public String nextLevel() {
+        return levels[(int) head & mask];
+    }
+
+    public long nextTimestamp() {
+        return timestamps[(int) head & mask];
+    }
+
+    public String nextMessage() {
+        return messages[(int) head & mask];
+    }
+
+    // Frees the consumed slot for producers (consumer only)
+    public void release() {
+        long h = head;
+        int slot = (int) h & mask;
+        messages[slot] = null;
+        sequences.set(slot, h + capacity);
+        head = h + 1;
+    }
+
+    // Number of events claimed by producers so far
+    public long publishedCount() {
+        return tail.get();
+    }
+
+    // Number of events released by the consumer so far
+    public long consumedCount() {
+        return head;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
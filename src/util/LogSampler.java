@@ -0,0 +1,49 @@
+package util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-call-site limiter for repetitive log messages; keep one as a static final field next to the call
+public class LogSampler {
+    private final long intervalNanos;
+    private final long everyNth;
+    private final AtomicLong nextAllowed = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    private LogSampler(long intervalNanos, long everyNth) {
+        this.intervalNanos = intervalNanos;
+        this.everyNth = everyNth;
+    }
+
+    // Lets at most one message through per interval
+    public static LogSampler perInterval(long interval, TimeUnit unit) {
+        return new LogSampler(unit.toNanos(interval), 0);
+    }
+
+    // Lets the first and then every nth message through
+    public static LogSampler everyNth(long n) {
+        return new LogSampler(0, Math.max(1, n));
+    }
+
+    // Decides whether this call should be logged; counts it as suppressed otherwise
+    public boolean tryAcquire() {
+        boolean allowed;
+        if (everyNth > 0) {
+            allowed = calls.getAndIncrement() % everyNth == 0;
+        } else {
+            long now = System.nanoTime();
+            long next = nextAllowed.get();
+            allowed = (next == Long.MIN_VALUE || now - next >= 0) && nextAllowed.compareAndSet(next, now + intervalNanos);
+        }
+        if (!allowed) {
+            suppressed.incrementAndGet();
+        }
+        return allowed;
+    }
+
+    // Returns and resets the number of calls suppressed since the last one let through
+    public long takeSuppressed() {
+        return suppressed.getAndSet(0);
+    }
+}
@@ -1,26 +1,122 @@
 package util;
 
-import java.util.ArrayList;
+import java.awt.*;
+import java.awt.event.HierarchyEvent;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public abstract class Observable {
-    private List<Observer> observers = new ArrayList<>();
+    // Registrations are copied on write, so publishing never races with observers being added or removed. Observers
+    // are held weakly through their mailboxes, so callers must keep them reachable for as long as they should be notified
+    private final List<EventDispatcher.Mailbox> observers = new CopyOnWriteArrayList<>();
+    private final EventDispatcher dispatcher = EventDispatcher.getInstance();
+
+    // Open batch scopes and the changes published while any is open, guarded by batchLock
+    private final Object batchLock = new Object();
+    private int batchDepth;
+    private ChangeEvent.Builder batched;
 
     // Adds an observer to the list of observers for this object
     public void addObserver(Observer o) {
-        observers.add(o);
+        observers.add(dispatcher.mailbox(o));
+    }
+
+    // Adds an observer that is removed again as soon as its owner, typically the panel or table showing it, stops being
+    // displayable, which happens when its window is disposed
+    public void addObserver(Observer o, Component owner) {
+        addObserver(o);
+        owner.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.DISPLAYABILITY_CHANGED) != 0 && !owner.isDisplayable()) {
+                removeObserver(o);
+            }
+        });
+    }
+
+    // Number of registered observers that are still alive
+    public int getObserverCount() {
+        expunge();
+        return observers.size();
     }
 
     // Removes an observer from the list of observers for this object
     public void removeObserver(Observer o) {
-        observers.remove(o);
+        for (EventDispatcher.Mailbox mailbox : observers) {
+            if (mailbox.getObserver() == o) {
+                mailbox.close();
+                observers.remove(mailbox);
+            }
+        }
     }
 
-    // Notifies all registered observers of a change in this object
+    // Notifies all registered observers that this object changed in an unspecified way
     protected void notifyObservers(String observableType) {
-        for (Observer ob : observers) {
-            ob.update(observableType);
+        publish(ChangeEvent.reload(observableType));
+    }
+
+    // Posts a change to every registered observer's mailbox, or folds it into the open batch; observers receive it
+    // asynchronously through the dispatcher, so a slow observer never holds up the mutating thread
+    protected void publish(ChangeEvent event) {
+        synchronized (batchLock) {
+            if (batchDepth > 0) {
+                if (batched == null) {
+                    batched = new ChangeEvent.Builder(event.getSource());
+                }
+                batched.addAll(event);
+                return;
+            }
+        }
+        boolean cleared = false;
+        for (EventDispatcher.Mailbox mailbox : observers) {
+            if (mailbox.isCleared()) {
+                cleared = true;
+            } else {
+                mailbox.post(event);
+            }
+        }
+        if (cleared) {
+            expunge();
         }
     }
-}
 
+    // Drops the registrations of observers that have been collected or removed
+    private void expunge() {
+        observers.removeIf(EventDispatcher.Mailbox::isCleared);
+    }
+
+    // Opens a batch scope: changes from any thread are held until the outermost scope closes, then published as one event.
+    // Use with try-with-resources around bulk work such as loads, replays or bulk status updates.
+    public Batch batch() {
+        synchronized (batchLock) {
+            batchDepth++;
+        }
+        return new Batch();
+    }
+
+    private void endBatch() {
+        ChangeEvent.Builder pending;
+        synchronized (batchLock) {
+            if (--batchDepth > 0 || batched == null) {
+                return;
+            }
+            pending = batched;
+            batched = null;
+        }
+        publish(pending.build());
+    }
+
+    // An open batch scope; closing it more than once has no further effect
+    public final class Batch implements AutoCloseable {
+        private boolean closed;
+
+        private Batch() {
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                endBatch();
+            }
+        }
+    }
+}
@@ -3,4 +3,14 @@ package util;
 public interface Observer {
     // Updates the observer when notified of changes in the observable object
     void update(String observableType);
+
+    // Receives the typed change; observers that apply deltas override this, the rest keep reacting to update(String)
+    default void onChange(ChangeEvent event) {
+        update(event.getSource());
+    }
+
+    // Whether changes must be delivered on the Swing event thread; Swing components and table models are by default
+    default boolean isUIObserver() {
+        return this instanceof java.awt.Component || this instanceof javax.swing.table.TableModel;
+    }
 }
@@ -0,0 +1,241 @@
+package view;
+
+import model.Customer;
+import model.QueueOfCustomers;
+import util.ChangeEvent;
+import util.Observer;
+
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.util.HashMap;
+
+// Table model over the customer queue. The queue is a linked list, so the model keeps the same Customer references
+// (no per-row copies) in a ring buffer it can index, applies queue deltas to it and fires one row event per change.
+// Taking from the front and adding at the back are O(1); removing from the middle shifts the rows on its shorter side.
+// Rows are found by parcel ID through an index of positions, so a delta never scans the rows for its customer.
+public class CustomerTableModel extends AbstractTableModel implements Observer {
+    static final String[] COLUMNS = {"Queue Number", "Name", "Parcel ID"};
+    private static final Class<?>[] COLUMN_TYPES = {Integer.class, String.class, String.class};
+
+    private final QueueOfCustomers queue;
+    private Customer[] ring = new Customer[16];
+    private long headPosition;      // Position of row 0; a row's position only changes when a removal shifts it
+    private int size;
+    private final HashMap<String, FirstRow> firstRows = new HashMap<>();   // Parcel ID -> its first queued row
+    private boolean reloadedAhead;      // The last reload may have read changes whose events are still pending
+
+    // Constructor for CustomerTableModel; copies the current queue order and observes it until the owner's window is disposed
+    public CustomerTableModel(QueueOfCustomers queue, Component owner) {
+        this.queue = queue;
+        queue.addObserver(this, owner);
+        copyQueue();
+    }
+
+    @Override
+    public int getRowCount() {
+        return size;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return COLUMN_TYPES[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Customer c = getCustomerAt(row);
+        switch (column) {
+            case 0:
+                return c.getQueueNumber();
+            case 1:
+                return c.getName();
+            case 2:
+                return c.getParcelID();
+            default:
+                throw new IndexOutOfBoundsException("Column " + column);
+        }
+    }
+
+    // Customer shown at a model row
+    public Customer getCustomerAt(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + ", size " + size);
+        }
+        return ring[slot(headPosition + row)];
+    }
+
+    // Re-reads the whole queue and repaints every row
+    public void reload() {
+        copyQueue();
+        fireTableDataChanged();
+    }
+
+    @Override
+    public void update(String observableType) {
+        if (QueueOfCustomers.SOURCE.equals(observableType)) {
+            reload();
+        }
+    }
+
+    // Applies queue deltas in order, falling back to a reload if one does not match the rows. Events arrive on the
+    // event thread after the change, so a reload may already include changes whose events are still on their way;
+    // until the row count matches the queue again, deltas are followed by a check and any drift is reloaded away
+    @Override
+    public void onChange(ChangeEvent event) {
+        if (!QueueOfCustomers.SOURCE.equals(event.getSource())) {
+            return;
+        }
+        if (event.isReload() || !applyDeltas(event)) {
+            reload();
+        } else if (reloadedAhead && size != queue.size()) {
+            reload();
+        } else {
+            reloadedAhead = false;
+        }
+    }
+
+    private boolean applyDeltas(ChangeEvent event) {
+        for (int i = 0; i < event.size(); i++) {
+            switch (event.getKind(i)) {
+                case ADDED: {
+                    Customer c = (Customer) event.getValue(i);
+                    if (c == null) {
+                        return false;
+                    }
+                    addLast(c);
+                    fireTableRowsInserted(size - 1, size - 1);
+                    break;
+                }
+                case REMOVED: {
+                    int row = rowFor(event.getKey(i));
+                    if (row < 0) {
+                        return false;
+                    }
+                    remove(row);
+                    fireTableRowsDeleted(row, row);
+                    break;
+                }
+                case MOVED_TO_BACK: {
+                    int row = rowFor(event.getKey(i));
+                    if (row < 0) {
+                        return false;
+                    }
+                    Customer c = remove(row);
+                    fireTableRowsDeleted(row, row);
+                    addLast(c);
+                    fireTableRowsInserted(size - 1, size - 1);
+                    break;
+                }
+                default:
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    // First row for a parcel ID, or -1; the queue always removes or moves the first customer queued for a parcel
+    private int rowFor(String parcelID) {
+        FirstRow first = firstRows.get(parcelID);
+        return first == null ? -1 : (int) (first.position - headPosition);
+    }
+
+    private void copyQueue() {
+        reloadedAhead = true;
+        ring = new Customer[16];
+        headPosition = 0;
+        size = 0;
+        firstRows.clear();
+        synchronized (queue) {
+            for (Customer c : queue.getCustomerQueue()) {
+                addLast(c);
+            }
+        }
+    }
+
+    private void addLast(Customer c) {
+        if (size == ring.length) {
+            Customer[] bigger = new Customer[ring.length * 2];
+            for (int i = 0; i < size; i++) {
+                long position = headPosition + i;
+                bigger[(int) (position & (bigger.length - 1))] = ring[slot(position)];
+            }
+            ring = bigger;
+        }
+        long position = headPosition + size;
+        ring[slot(position)] = c;
+        size++;
+        FirstRow first = firstRows.get(c.getParcelID());
+        if (first == null) {
+            firstRows.put(c.getParcelID(), new FirstRow(position));
+        } else {
+            first.count++;
+        }
+    }
+
+    // Removes a row, shifting whichever side of it is shorter and moving the index entries of the rows it shifts
+    private Customer remove(int row) {
+        Customer removed = getCustomerAt(row);
+        long position = headPosition + row;
+        if (row < size / 2) {
+            for (long p = position; p > headPosition; p--) {
+                move(p - 1, p);
+            }
+            ring[slot(headPosition)] = null;
+            headPosition++;
+        } else {
+            long last = headPosition + size - 1;
+            for (long p = position; p < last; p++) {
+                move(p + 1, p);
+            }
+            ring[slot(last)] = null;
+        }
+        size--;
+
+        FirstRow first = firstRows.get(removed.getParcelID());
+        if (--first.count == 0) {
+            firstRows.remove(removed.getParcelID());
+        } else {
+            // Another customer is queued for the same parcel; the next one after the removed row becomes the first
+            for (int r = row; r < size; r++) {
+                if (getCustomerAt(r).getParcelID().equals(removed.getParcelID())) {
+                    first.position = headPosition + r;
+                    break;
+                }
+            }
+        }
+        return removed;
+    }
+
+    private void move(long from, long to) {
+        Customer c = ring[slot(from)];
+        ring[slot(to)] = c;
+        FirstRow first = firstRows.get(c.getParcelID());
+        if (first.position == from) {
+            first.position = to;
+        }
+    }
+
+    private int slot(long position) {
+        return (int) (position & (ring.length - 1));
+    }
+
+    // Position of the first row queued for a parcel ID, and how many rows share that parcel ID
+    private static final class FirstRow {
+        private long position;
+        private int count = 1;
+
+        FirstRow(long position) {
+            this.position = position;
+        }
+    }
+}
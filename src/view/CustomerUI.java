@@ -1,28 +1,24 @@
 package view;
 
 import controller.Manager;
-import model.Customer;
 import util.Log;
-import util.Observer;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 
-public class CustomerUI implements Observer {
+public class CustomerUI {
     private JFrame frame;
     private Manager manager;
     private Log log = Log.getInstance();
 
-    private DefaultTableModel customerTableModel;
+    private CustomerTableModel customerTableModel;
     private JTable customerTable;
 
     // Constructor for CustomerUI
     public CustomerUI(Manager manager) {
         this.manager = manager;
-        manager.getQueueOfCustomers().addObserver(this);
 
         log.logInfo("Initializing CustomerUI.");
         initUI();
@@ -44,12 +40,8 @@ public class CustomerUI implements Observer {
             }
         });
 
-        customerTableModel = new DefaultTableModel(new String[]{"Queue Number", "Name", "Parcel ID"}, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        // The model follows the queue's change events itself, one row event per change
+        customerTableModel = new CustomerTableModel(manager.getQueueOfCustomers(), frame.getRootPane());
         customerTable = new JTable(customerTableModel);
         JScrollPane scrollPane = new JScrollPane(customerTable);
         scrollPane.setBorder(BorderFactory.createTitledBorder("Customer Queue"));
@@ -72,12 +64,12 @@ public class CustomerUI implements Observer {
 
         controlPanel.add(addButton);
         controlPanel.add(backButton);
+        controlPanel.add(new LoadProgressBar(manager.getLoadProgress()));
         frame.add(controlPanel, BorderLayout.SOUTH);
 
-        refreshCustomerTable();
-
         frame.setLocationRelativeTo(null);
         frame.setVisible(true);
+        log.logInfo("CustomerUI displayed. Live observers on the queue: " + manager.getQueueOfCustomers().getObserverCount());
     }
 
     // Displays a confirmation dialog when the user attempts to exit the application.
@@ -86,7 +78,9 @@ public class CustomerUI implements Observer {
         int choice = JOptionPane.showConfirmDialog(frame, "Are you sure you want to exit?", "Exit Confirmation", JOptionPane.YES_NO_OPTION);
         if (choice == JOptionPane.YES_OPTION) {
             log.logInfo("User confirmed application exit. Saving logs.");
-            manager.getLog().saveToFile("DepotSystemLogs.txt");
+            manager.closeJournal();
+            manager.closeReceiptArchive();
+            manager.getLog().flush();
             System.out.println("Logs saved to file.");
             System.exit(0);
         } else {
@@ -94,28 +88,11 @@ public class CustomerUI implements Observer {
         }
     }
 
-    // Handles updates from observed objects.
-    @Override
-    public void update(String observableType) {
-        if ("QueueOfCustomers".equals(observableType)) {
-            log.logInfo("QueueOfCustomers update received. Refreshing customer table.");
-            refreshCustomerTable();
-        }
-    }
-
-    // Refreshes the customer table with the latest data from the customer queue.
-    private void refreshCustomerTable() {
-        log.logInfo("Refreshing customer table...");
-        customerTableModel.setRowCount(0);
-        for (Customer c : manager.getQueueOfCustomers().getCustomerQueue()) {
-            customerTableModel.addRow(new Object[]{c.getQueueNumber(), c.getName(), c.getParcelID()});
-            log.logInfo("Added customer to table: QueueNumber=" + c.getQueueNumber() + ", Name=" + c.getName() + ", ParcelID=" + c.getParcelID());
-        }
-        log.logInfo("Customer table refreshed successfully.");
-    }
-
     // Handles the process of adding a new customer to the queue.
     private void addCustomerToQueue() {
+        if (!WorkerUIHelper.checkAcceptingChanges(frame, manager)) {
+            return;
+        }
         log.logInfo("Add Customer to Queue process initiated.");
         JTextField nameField = new JTextField();
         JTextField parcelIdField = new JTextField();
@@ -132,8 +109,7 @@ public class CustomerUI implements Observer {
                 manager.addCustomer(name, parcelID);
                 JOptionPane.showMessageDialog(frame, "Customer added successfully to the queue!", "Success", JOptionPane.INFORMATION_MESSAGE);
                 log.logInfo("Customer added successfully: Name=" + name + ", ParcelID=" + parcelID);
-                refreshCustomerTable();
-            } catch (IllegalArgumentException ex) {
+            } catch (IllegalArgumentException | IllegalStateException ex) {
                 log.logError("Failed to add customer: " + ex.getMessage());
                 JOptionPane.showMessageDialog(frame, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
             }
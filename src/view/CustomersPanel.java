@@ -4,20 +4,17 @@ import controller.Manager;
 import model.Customer;
 import model.Parcel;
 import util.Log;
-import util.Observer;
 import util.Observable;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.util.List;
 
-public class CustomersPanel extends JPanel implements Observer {
+public class CustomersPanel extends JPanel {
     private Manager manager;
     private WorkerUI workerUI;
     private Log log = Log.getInstance();
 
-    private DefaultTableModel customerTableModel;
+    private CustomerTableModel customerTableModel;
     private JTable customerTable;
 
     // Constructor for CustomerPanel
@@ -27,17 +24,11 @@ public class CustomersPanel extends JPanel implements Observer {
 
         log.logInfo("Initializing CustomersPanel.");
 
-        manager.getQueueOfCustomers().addObserver(this);
-
         setLayout(new BorderLayout());
         setBorder(BorderFactory.createTitledBorder("Customer Queue"));
 
-        customerTableModel = new DefaultTableModel(new String[]{"Queue Number", "Name", "Parcel ID"}, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        // The model follows the queue's change events itself, one row event per change
+        customerTableModel = new CustomerTableModel(manager.getQueueOfCustomers(), this);
         customerTable = new JTable(customerTableModel);
 
         JScrollPane scrollPane = new JScrollPane(customerTable);
@@ -58,7 +49,7 @@ public class CustomersPanel extends JPanel implements Observer {
 
         processNextButton.addActionListener(e -> {
             log.logInfo("Process Next Customer button clicked.");
-            processNextCustomer();
+            WorkerUIHelper.runChange(this, manager, this::processNextCustomer);
         });
         generateReportButton.addActionListener(e -> {
             log.logInfo("Generate Report button clicked.");
@@ -73,35 +64,14 @@ public class CustomersPanel extends JPanel implements Observer {
             addCustomerToQueue();
         });
 
-        refreshCustomerTable();
         log.logInfo("CustomersPanel initialized successfully.");
     }
 
-    // Updates the UI based on notifications from observable objects.
-    @Override
-    public void update(String observableType) {
-        if ("QueueOfCustomers".equals(observableType)) {
-            refreshCustomerTable();
-        }
-    }
-
-    // Refreshes the customer table to reflect the current state of the customer queue.
-    private void refreshCustomerTable() {
-        log.logInfo("Refreshing customer table...");
-        customerTableModel.setRowCount(0);
-
-        int customerCount = 0;
-        for (Customer c : manager.getQueueOfCustomers().getCustomerQueue()) {
-            customerTableModel.addRow(new Object[]{c.getQueueNumber(), c.getName(), c.getParcelID()});
-            log.logInfo("Added customer to table: QueueNumber=" + c.getQueueNumber() + ", Name=" + c.getName() + ", ParcelID=" + c.getParcelID());
-            customerCount++;
-        }
-
-        log.logInfo("Customer table refreshed. Total customers displayed: " + customerCount);
-    }
-
     // Processes the next customer in the queue.
     private void processNextCustomer() {
+        if (!WorkerUIHelper.checkAcceptingChanges(this, manager)) {
+            return;
+        }
         log.logInfo("Process Next Customer initiated.");
 
         if (manager.getQueueOfCustomers().isEmpty()) {
@@ -110,7 +80,7 @@ public class CustomersPanel extends JPanel implements Observer {
             return;
         }
 
-        Customer currentCustomer = manager.getQueueOfCustomers().getCustomer();
+        Customer currentCustomer = manager.takeNextCustomer();
         Parcel currentParcel = manager.getParcelMap().findParcel(currentCustomer.getParcelID());
 
         if (currentParcel == null) {
@@ -152,12 +122,15 @@ public class CustomersPanel extends JPanel implements Observer {
             if (processChoice == JOptionPane.YES_OPTION) {
                 log.logInfo("Processing parcel: " + currentParcel.getParcelID());
                 double fee = finalFee;
-                currentParcel.setStatus("Collected");
-                manager.getCollectedParcels().add(currentParcel);
-                manager.addToTotalFees(fee);
+                if (!manager.getParcelMap().tryCollect(currentParcel.getParcelID())) {
+                    log.logError("Parcel was collected by another worker: " + currentParcel.getParcelID());
+                    JOptionPane.showMessageDialog(this, "This parcel has already been collected.", "Information", JOptionPane.INFORMATION_MESSAGE);
+                    return;
+                }
+                manager.recordCollection(currentParcel, fee);
                 workerUI.showCurrentParcel(currentParcel);
 
-                boolean removed = manager.getQueueOfCustomers().removeCustomerByParcelID(currentCustomer.getParcelID());
+                boolean removed = manager.removeCustomer(currentCustomer.getParcelID());
                 if (removed) {
                     log.logInfo("Customer removed from queue: " + currentCustomer.getName() + " [Parcel ID: " + currentCustomer.getParcelID() + "]");
                     JOptionPane.showMessageDialog(
@@ -182,12 +155,9 @@ public class CustomersPanel extends JPanel implements Observer {
                 }
 
                 log.logInfo("Parcel processed: " + currentParcel.getParcelID() + ". Final Fee: £" + String.format("%.2f", fee));
-                refreshCustomerTable();
-                manager.getParcelMap().notifyParcelMapObservers("ParcelMap");
             } else {
                 log.logInfo("Processing cancelled for customer: " + currentCustomer.getName());
-                manager.getQueueOfCustomers().add(currentCustomer);
-                refreshCustomerTable();
+                manager.requeueCustomer(currentCustomer);
             }
         } else if (initialChoice == JOptionPane.NO_OPTION) {
             log.logInfo("User chose not to proceed with customer: " + currentCustomer.getName());
@@ -204,7 +174,7 @@ public class CustomersPanel extends JPanel implements Observer {
             );
 
             if (queueChoice == 0) {
-                boolean removed = manager.getQueueOfCustomers().removeCustomerByParcelID(currentCustomer.getParcelID());
+                boolean removed = manager.removeCustomer(currentCustomer.getParcelID());
                 if (removed) {
                     log.logInfo("Customer removed from queue: " + currentCustomer.getName() + " [Parcel ID: " + currentCustomer.getParcelID() + "]");
                     JOptionPane.showMessageDialog(
@@ -223,7 +193,7 @@ public class CustomersPanel extends JPanel implements Observer {
                     );
                 }
             } else if (queueChoice == 1) {
-                manager.getQueueOfCustomers().add(currentCustomer);
+                manager.requeueCustomer(currentCustomer);
                 log.logInfo("Customer moved to back of queue: " + currentCustomer.getName() + " [Parcel ID: " + currentCustomer.getParcelID() + "]");
                 JOptionPane.showMessageDialog(
                         this,
@@ -233,12 +203,14 @@ public class CustomersPanel extends JPanel implements Observer {
                 );
             }
 
-            refreshCustomerTable();
         }
     }
 
     // Initiates the process for adding a new customer to the queue.
     private void addCustomerToQueue() {
+        if (!WorkerUIHelper.checkAcceptingChanges(this, manager)) {
+            return;
+        }
         log.logInfo("Initiating Add Customer to Queue process.");
 
         JTextField nameField = new JTextField();
@@ -264,9 +236,7 @@ public class CustomersPanel extends JPanel implements Observer {
                         JOptionPane.INFORMATION_MESSAGE);
                 log.logInfo("Customer added successfully to the queue: Name=" + name + ", Parcel ID=" + parcelID);
 
-                // Refresh the table after addition
-                refreshCustomerTable();
-            } catch (IllegalArgumentException ex) {
+            } catch (IllegalArgumentException | IllegalStateException ex) {
                 log.logError("Failed to add customer: " + ex.getMessage());
                 // Display error message from the Manager's validation
                 JOptionPane.showMessageDialog(this,
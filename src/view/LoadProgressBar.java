@@ -0,0 +1,43 @@
+package view;
+
+import controller.LoadProgress;
+
+import javax.swing.*;
+
+// Progress bar for the startup load; polls the load progress on a Swing timer and hides itself once the load is done
+public class LoadProgressBar extends JProgressBar {
+    private static final int POLL_MILLIS = 200;
+
+    private final LoadProgress progress;
+    private final Timer timer;
+
+    // Constructor for LoadProgressBar
+    public LoadProgressBar(LoadProgress progress) {
+        super(0, 1000);
+        this.progress = progress;
+        setStringPainted(true);
+        timer = new Timer(POLL_MILLIS, e -> refresh());
+        refresh();
+        if (progress.isRunning()) {
+            timer.start();
+        }
+    }
+
+    // Shows the current phase and fraction, or hides the bar once loading has finished
+    private void refresh() {
+        if (!progress.isRunning()) {
+            timer.stop();
+            setVisible(false);
+            return;
+        }
+        setVisible(true);
+        setValue((int) (progress.getFraction() * 1000));
+        setString(progress.toString());
+    }
+
+    @Override
+    public void removeNotify() {
+        timer.stop();
+        super.removeNotify();
+    }
+}
@@ -26,8 +26,8 @@ public class MainUI {
         log.logInfo("Displaying Main Menu.");
         frame = new JFrame("Depot System - Main Menu");
         frame.setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
-        frame.setSize(400, 200);
-        frame.setLayout(new GridLayout(3, 1));
+        frame.setSize(400, 230);
+        frame.setLayout(new GridLayout(4, 1));
 
         JLabel welcomeLabel = new JLabel("Welcome to Depot System", SwingConstants.CENTER);
         frame.add(welcomeLabel);
@@ -37,6 +37,7 @@ public class MainUI {
 
         frame.add(customerButton);
         frame.add(workerButton);
+        frame.add(new LoadProgressBar(manager.getLoadProgress()));    // Data keeps loading in the background
         customerButton.addActionListener(e -> {
             log.logInfo("Navigating to Customer UI.");
             frame.dispose();
@@ -81,7 +82,9 @@ public class MainUI {
         int choice = JOptionPane.showConfirmDialog(frame, "Are you sure you want to exit?", "Exit Confirmation", JOptionPane.YES_NO_OPTION);
         if (choice == JOptionPane.YES_OPTION) {
             log.logInfo("User confirmed application exit. Saving logs.");
-            manager.getLog().saveToFile("DepotSystemLogs.txt");
+            manager.closeJournal();
+            manager.closeReceiptArchive();
+            manager.getLog().flush();
             System.out.println("Logs saved to file.");
             log.logInfo("Application exited successfully.");
             System.exit(0);
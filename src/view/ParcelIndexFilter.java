@@ -0,0 +1,56 @@
+package view;
+
+import model.ParcelMap;
+
+import javax.swing.*;
+import java.util.BitSet;
+
+// Row filter for the Filter Parcels dialog. The matching rows are taken from the status, age and weight indexes once,
+// when the filter is built; after that only rows the table reports as inserted or updated are checked again, from the columns
+public class ParcelIndexFilter extends RowFilter<ParcelTableModel, Integer> {
+    private final ParcelMap parcelMap;
+    private final String status;
+    private final int minDays;          // Integer.MIN_VALUE when no age was given
+    private final double minWeight;     // Negative infinity when no weight was given
+    private final BitSet matches = new BitSet();
+
+    // Constructor for ParcelIndexFilter; minDays and minWeight may be null to leave that criterion out
+    public ParcelIndexFilter(ParcelMap parcelMap, String status, Integer minDays, Double minWeight) {
+        this.parcelMap = parcelMap;
+        this.status = status;
+        this.minDays = minDays == null ? Integer.MIN_VALUE : minDays;
+        this.minWeight = minWeight == null ? Double.NEGATIVE_INFINITY : minWeight;
+
+        if (minDays != null) {
+            parcelMap.forEachIndexOlderThan(status, minDays, matches::set);
+            if (minWeight != null) {
+                BitSet heavier = new BitSet();
+                parcelMap.forEachIndexHeavierThan(status, minWeight, heavier::set);
+                matches.and(heavier);
+            }
+        } else if (minWeight != null) {
+            parcelMap.forEachIndexHeavierThan(status, minWeight, matches::set);
+        } else {
+            parcelMap.forEachIndexByStatus(status, matches::set);
+        }
+    }
+
+    // Number of rows the filter currently lets through
+    public int size() {
+        return matches.cardinality();
+    }
+
+    @Override
+    public boolean include(Entry<? extends ParcelTableModel, ? extends Integer> entry) {
+        return matches.get(entry.getIdentifier());
+    }
+
+    // Re-reads status, age and weight for changed rows; the sorter calls this before it re-filters them
+    void recheck(int firstRow, int lastRow) {
+        int end = Math.min(lastRow, parcelMap.size() - 1);
+        for (int row = Math.max(0, firstRow); row <= end; row++) {
+            matches.set(row, status.equalsIgnoreCase(parcelMap.getStatusAt(row))
+                    && parcelMap.getDaysInDepotAt(row) > minDays && parcelMap.getWeightAt(row) > minWeight);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package view;
+
+import model.Parcel;
+import model.ParcelMap;
+import util.ChangeEvent;
+import util.Observer;
+
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+
+// Table model that reads parcels straight from the ParcelMap: row i is the parcel at insertion index i.
+// Nothing is copied per row; change events become row-level insert and update notifications, so an edit repaints one row.
+public class ParcelTableModel extends AbstractTableModel implements Observer {
+    static final String[] COLUMNS = {"ID", "Weight (KGs)", "Dimensions (WxHxL)", "Status", "Days in Depot"};
+    private static final Class<?>[] COLUMN_TYPES = {String.class, Double.class, String.class, String.class, Integer.class};
+
+    private final ParcelMap parcelMap;
+    private int rowCount;           // Rows announced to listeners; catches up with the map on the next event
+    private int cachedRow = -1;     // Parcel views are live, so the last one read can serve the rest of its row
+    private Parcel cachedParcel;
+
+    // Constructor for ParcelTableModel; observes the map until the owner's window is disposed
+    public ParcelTableModel(ParcelMap parcelMap, Component owner) {
+        this.parcelMap = parcelMap;
+        this.rowCount = parcelMap.size();
+        parcelMap.addObserver(this, owner);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return COLUMN_TYPES[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Parcel p = getParcelAt(row);
+        switch (column) {
+            case 0:
+                return p.getParcelID();
+            case 1:
+                return p.getWeight();
+            case 2:
+                return p.getDimensions();
+            case 3:
+                return p.getStatus();
+            case 4:
+                return p.getDaysInDepot();
+            default:
+                throw new IndexOutOfBoundsException("Column " + column);
+        }
+    }
+
+    // Parcel shown at a model row
+    public Parcel getParcelAt(int row) {
+        if (row != cachedRow) {
+            cachedParcel = parcelMap.getParcelAt(row);
+            cachedRow = row;
+        }
+        return cachedParcel;
+    }
+
+    // Model row of a parcel, or -1 if it is not shown
+    public int rowOf(String parcelID) {
+        int row = parcelMap.indexOf(parcelID);
+        return row < rowCount ? row : -1;
+    }
+
+    // Re-reads the row count and repaints every row
+    public void reload() {
+        rowCount = parcelMap.size();
+        cachedRow = -1;
+        fireTableDataChanged();
+    }
+
+    @Override
+    public void update(String observableType) {
+        if (ParcelMap.SOURCE.equals(observableType)) {
+            reload();
+        }
+    }
+
+    // Turns parcel deltas into row events: updated rows are repainted, appended parcels inserted at the end.
+    // The dispatcher delivers on the event thread and merges bursts, so a batch of changes costs one pass here
+    @Override
+    public void onChange(ChangeEvent event) {
+        if (!ParcelMap.SOURCE.equals(event.getSource())) {
+            return;
+        }
+        if (event.isReload()) {
+            reload();
+            return;
+        }
+        for (String parcelID : event.getKeys(ChangeEvent.Kind.UPDATED)) {
+            int row = rowOf(parcelID);
+            if (row >= 0) {
+                fireTableRowsUpdated(row, row);
+            }
+        }
+        int size = parcelMap.size();
+        if (size > rowCount) {
+            int first = rowCount;
+            rowCount = size;
+            fireTableRowsInserted(first, size - 1);
+        }
+    }
+}
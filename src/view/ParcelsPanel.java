@@ -2,22 +2,28 @@ package view;
 
 import controller.Manager;
 import model.Customer;
+import model.Dimensions;
 import model.Parcel;
+import model.ParcelMap;
 import util.Log;
-import util.Observer;
+import util.LogSampler;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableRowSorter;
 import java.awt.*;
-import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
-public class ParcelsPanel extends JPanel implements Observer {
+public class ParcelsPanel extends JPanel {
     private Manager manager;
     private WorkerUI workerUI;
-    private DefaultTableModel parcelTableModel;
+    private ParcelTableModel parcelTableModel;
+    private TableRowSorter<ParcelTableModel> parcelSorter;   // Search and filter results are row filters over the full model
     private JTable parcelTable;
     private Log log = Log.getInstance();
+    private static final LogSampler REFRESH_SAMPLER = LogSampler.perInterval(1, TimeUnit.SECONDS);
 
     public ParcelsPanel(Manager manager, WorkerUI workerUI) {
         this.manager = manager;
@@ -25,19 +31,40 @@ public class ParcelsPanel extends JPanel implements Observer {
 
         log.logInfo("Initializing ParcelsPanel.");
 
-        // Observe ParcelMap changes
-        manager.getParcelMap().addObserver(this);
-
         setLayout(new BorderLayout());
         setBorder(BorderFactory.createTitledBorder("Parcels"));
 
-        parcelTableModel = new DefaultTableModel(new String[]{"ID", "Weight (KGs)", "Dimensions (WxHxL)", "Status", "Days in Depot"}, 0) {
+        // The model reads the ParcelMap directly and follows its change events, one row event per change
+        parcelTableModel = new ParcelTableModel(manager.getParcelMap(), this);
+        parcelTable = new JTable(parcelTableModel);
+        parcelSorter = new TableRowSorter<>(parcelTableModel) {
+            // An index filter brings its match set up to date for changed rows before the sorter re-filters them
             @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // All cells non editable
+            public void rowsInserted(int firstRow, int endRow) {
+                recheckFilter(firstRow, endRow);
+                super.rowsInserted(firstRow, endRow);
+            }
+
+            @Override
+            public void rowsUpdated(int firstRow, int endRow) {
+                recheckFilter(firstRow, endRow);
+                super.rowsUpdated(firstRow, endRow);
+            }
+
+            @Override
+            public void rowsUpdated(int firstRow, int endRow, int column) {
+                recheckFilter(firstRow, endRow);
+                super.rowsUpdated(firstRow, endRow, column);
+            }
+
+            private void recheckFilter(int firstRow, int endRow) {
+                if (getRowFilter() instanceof ParcelIndexFilter) {
+                    ((ParcelIndexFilter) getRowFilter()).recheck(firstRow, endRow);
+                }
             }
         };
-        parcelTable = new JTable(parcelTableModel);
+        parcelSorter.setSortsOnUpdates(true);     // Re-checks the active search or filter against rows the deltas repaint
+        parcelTable.setRowSorter(parcelSorter);
         JScrollPane scrollPane = new JScrollPane(parcelTable);
         add(scrollPane, BorderLayout.CENTER);
 
@@ -46,6 +73,7 @@ public class ParcelsPanel extends JPanel implements Observer {
         JButton processParcelButton = new JButton("Process Selected Parcel");
         JButton editParcelButton = new JButton("Edit Selected Parcel");
         JButton searchParcelButton = new JButton("Search Parcel");
+        JButton filterParcelsButton = new JButton("Filter Parcels");
         JButton refreshButton = new JButton("Refresh Parcels");
         JButton addParcelButton = new JButton("Add Parcel");
         JButton viewCollectedButton = new JButton("View Collected Parcels");
@@ -53,6 +81,7 @@ public class ParcelsPanel extends JPanel implements Observer {
         buttonPanel.add(processParcelButton);
         buttonPanel.add(editParcelButton);
         buttonPanel.add(searchParcelButton);
+        buttonPanel.add(filterParcelsButton);
         buttonPanel.add(refreshButton);
         buttonPanel.add(addParcelButton);
         buttonPanel.add(viewCollectedButton);
@@ -62,7 +91,7 @@ public class ParcelsPanel extends JPanel implements Observer {
         // Listeners
         processParcelButton.addActionListener(e -> {
             log.logInfo("Process Selected Parcel button clicked.");
-            processSelectedParcel();
+            WorkerUIHelper.runChange(this, manager, this::processSelectedParcel);
         });
         editParcelButton.addActionListener(e -> {
             log.logInfo("Edit Selected Parcel button clicked.");
@@ -72,6 +101,10 @@ public class ParcelsPanel extends JPanel implements Observer {
             log.logInfo("Search Parcel button clicked.");
             searchParcel();
         });
+        filterParcelsButton.addActionListener(e -> {
+            log.logInfo("Filter Parcels button clicked.");
+            filterParcels();
+        });
         refreshButton.addActionListener(e -> {
             log.logInfo("Refresh Parcels button clicked.");
             refreshParcelTable();
@@ -85,57 +118,39 @@ public class ParcelsPanel extends JPanel implements Observer {
             showCollectedParcels();
         });
 
-        refreshParcelTable();
         log.logInfo("ParcelsPanel initialized successfully.");
     }
 
-    // Updates the view based on the type of observable change
-    @Override
-    public void update(String observableType) {
-        if ("ParcelMap".equals(observableType)) {
-            refreshParcelTable();
-        }
-    }
-
-    // Refreshes the parcel table by clearing and repopulating it with the latest data from the ParcelMap
+    // Shows every parcel again, clearing any search or filter; the model itself is kept current by change events
     private void refreshParcelTable() {
-        log.logInfo("Refreshing parcel table...");
-        try {
-            parcelTableModel.setRowCount(0);
-            List<Parcel> allParcels = manager.getParcelMap().getAllParcels();
-
-            for (Parcel p : allParcels) {
-                parcelTableModel.addRow(new Object[]{
-                        p.getParcelID(),
-                        p.getWeight(),
-                        p.getDimensions(),
-                        p.getStatus(),
-                        p.getDaysInDepot()
-                });
-                log.logInfo("Added parcel to table: ID=" + p.getParcelID() +
-                        ", Weight=" + p.getWeight() +
-                        ", Dimensions=" + p.getDimensions() +
-                        ", Status=" + p.getStatus() +
-                        ", DaysInDepot=" + p.getDaysInDepot());
-            }
+        log.logDebug("Refreshing parcel table...");
+        parcelSorter.setRowFilter(null);
+        parcelTableModel.reload();
+        log.log(Log.Level.INFO, REFRESH_SAMPLER, () -> "Parcel table refreshed successfully with " + parcelTableModel.getRowCount() + " parcels.");
+    }
 
-            log.logInfo("Parcel table refreshed successfully with " + allParcels.size() + " parcels.");
-        } catch (Exception e) {
-            log.logError("Error occurred while refreshing parcel table: " + e.getMessage());
+    // Parcel ID of the selected row, or null if nothing is selected
+    private String selectedParcelID() {
+        int selectedRow = parcelTable.getSelectedRow();
+        if (selectedRow == -1) {
+            return null;
         }
+        return parcelTableModel.getParcelAt(parcelTable.convertRowIndexToModel(selectedRow)).getParcelID();
     }
 
     // Processes the selected parcel from the table
     private void processSelectedParcel() {
+        if (!WorkerUIHelper.checkAcceptingChanges(this, manager)) {
+            return;
+        }
         log.logInfo("Initiating process for selected parcel.");
-        int selectedRow = parcelTable.getSelectedRow(); // Get the selected row
-        if (selectedRow == -1) {
+        String parcelID = selectedParcelID(); // Get Parcel ID from the table
+        if (parcelID == null) {
             log.logError("No parcel selected for processing.");
             JOptionPane.showMessageDialog(this, "Select a parcel to process.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
-        String parcelID = (String) parcelTableModel.getValueAt(selectedRow, 0); // Get Parcel ID from the table
         Parcel selectedParcel = manager.getParcelMap().findParcel(parcelID);
 
         if (selectedParcel == null) {
@@ -144,7 +159,7 @@ public class ParcelsPanel extends JPanel implements Observer {
             return;
         }
 
-        if ("Collected".equalsIgnoreCase(selectedParcel.getStatus())) {
+        if (selectedParcel.isCollected()) {
             log.logInfo("Parcel already collected: ID=" + parcelID);
             JOptionPane.showMessageDialog(this, "This parcel has already been collected.", "Information", JOptionPane.INFORMATION_MESSAGE);
             return;
@@ -153,16 +168,13 @@ public class ParcelsPanel extends JPanel implements Observer {
         log.logInfo("Processing parcel: ID=" + parcelID);
 
         // Find the associated customer in the queue (if any)
-        Customer associatedCustomer = manager.getQueueOfCustomers().getCustomerQueue().stream()
-                .filter(customer -> customer.getParcelID().equals(parcelID))
-                .findFirst()
-                .orElse(null);
+        Customer associatedCustomer = manager.getQueueOfCustomers().findByParcelID(parcelID);
 
         double totalFee = manager.getWorker().calculateFee(selectedParcel);
         double discount = manager.getWorker().calculateDiscount(selectedParcel.getParcelID(), totalFee);
         double finalFee = totalFee - discount;
 
-        log.logInfo(String.format("Fee calculated for parcel: ID=%s, Total Fee=£%.2f, Discount=£%.2f, Final Fee=£%.2f",
+        log.logInfo(() -> String.format("Fee calculated for parcel: ID=%s, Total Fee=£%.2f, Discount=£%.2f, Final Fee=£%.2f",
                 parcelID, totalFee, discount, finalFee));
 
         String feeDetails = String.format(
@@ -194,14 +206,17 @@ public class ParcelsPanel extends JPanel implements Observer {
 
             if (processChoice == JOptionPane.YES_OPTION) {
                 log.logInfo("Processing confirmed for parcel: ID=" + parcelID);
-                selectedParcel.setStatus("Collected");
-                manager.getCollectedParcels().add(selectedParcel);
-                manager.addToTotalFees(finalFee);
+                if (!manager.getParcelMap().tryCollect(parcelID)) {
+                    log.logError("Parcel was collected by another worker: ID=" + parcelID);
+                    JOptionPane.showMessageDialog(this, "This parcel has already been collected.", "Information", JOptionPane.INFORMATION_MESSAGE);
+                    return;
+                }
+                manager.recordCollection(selectedParcel, finalFee);
 
                 workerUI.showCurrentParcel(selectedParcel);
 
                 if (associatedCustomer != null) {
-                    boolean removed = manager.getQueueOfCustomers().removeCustomerByParcelID(parcelID);
+                    boolean removed = manager.removeCustomer(parcelID);
                     if (removed) {
                         log.logInfo("Customer removed from queue: Name=" + associatedCustomer.getName() + ", ParcelID=" + parcelID);
                         JOptionPane.showMessageDialog(
@@ -228,8 +243,6 @@ public class ParcelsPanel extends JPanel implements Observer {
                 }
 
                 log.logInfo("Parcel processing completed: ID=" + parcelID + ", Final Fee=£" + String.format("%.2f", finalFee));
-                refreshParcelTable();
-                manager.getParcelMap().notifyParcelMapObservers("ParcelMap");
             }
         } else {
             log.logInfo("User canceled parcel collection for: ID=" + parcelID);
@@ -247,7 +260,7 @@ public class ParcelsPanel extends JPanel implements Observer {
             );
 
             if (queueChoice == 0 && associatedCustomer != null) {
-                boolean removed = manager.getQueueOfCustomers().removeCustomerByParcelID(parcelID);
+                boolean removed = manager.removeCustomer(parcelID);
                 if (removed) {
                     log.logInfo("Customer removed from queue: Name=" + associatedCustomer.getName() + ", ParcelID=" + parcelID);
                     JOptionPane.showMessageDialog(
@@ -258,9 +271,8 @@ public class ParcelsPanel extends JPanel implements Observer {
                     );
                 }
             } else if (queueChoice == 1 && associatedCustomer != null) {
-                boolean removed = manager.getQueueOfCustomers().removeCustomerByParcelID(parcelID);
-                if (removed) {
-                    manager.getQueueOfCustomers().add(associatedCustomer);
+                boolean moved = manager.moveCustomerToBack(parcelID);
+                if (moved) {
                     log.logInfo("Customer moved to back of queue: Name=" + associatedCustomer.getName() + ", ParcelID=" + parcelID);
                     JOptionPane.showMessageDialog(
                             this,
@@ -278,14 +290,14 @@ public class ParcelsPanel extends JPanel implements Observer {
                     );
                 }
             }
-
-            refreshParcelTable();
-            manager.getParcelMap().notifyParcelMapObservers("ParcelMap");
         }
     }
 
     // Handles the process of adding and validating a new parcel to the system
     private void addParcel() {
+        if (!WorkerUIHelper.checkAcceptingChanges(this, manager)) {
+            return;
+        }
         log.logInfo("Initiating add parcel process.");
 
         JTextField parcelIDField = new JTextField();
@@ -347,17 +359,13 @@ public class ParcelsPanel extends JPanel implements Observer {
 
             log.logInfo("Validation passed. Preparing parcel for addition.");
 
-            // Concatenate dimensions
-            String dimensions = String.format("%.2fx%.2fx%.2f", width, height, length);
+            Dimensions dimensions = Dimensions.of(width, height, length);
 
             Parcel newParcel = new Parcel(pid, weight, dimensions, "Pending", days);
             log.logInfo("New parcel created: " + newParcel.toString());
 
             manager.addNewParcel(newParcel);
             log.logInfo("Parcel added to the system: ID=" + pid);
-
-            refreshParcelTable();
-            log.logInfo("Parcel table refreshed after addition.");
         } else {
             log.logInfo("Add parcel process canceled by user.");
         }
@@ -365,16 +373,18 @@ public class ParcelsPanel extends JPanel implements Observer {
 
     // Handles the process of editing and validating an existing parcel in the system
     private void editSelectedParcel() {
+        if (!WorkerUIHelper.checkAcceptingChanges(this, manager)) {
+            return;
+        }
         log.logInfo("Initiating edit parcel process.");
-        int selectedRow = parcelTable.getSelectedRow();
+        String parcelID = selectedParcelID();
 
-        if (selectedRow == -1) {
+        if (parcelID == null) {
             log.logError("No parcel selected for editing.");
             JOptionPane.showMessageDialog(this, "Select a parcel to edit.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
-        String parcelID = (String) parcelTableModel.getValueAt(selectedRow, 0);
         log.logInfo("Selected parcel for editing: ID=" + parcelID);
 
         Parcel parcel = manager.searchParcel(parcelID);
@@ -386,11 +396,12 @@ public class ParcelsPanel extends JPanel implements Observer {
 
         log.logInfo("Parcel found: " + parcel);
 
-        // Extract existing dimensions
-        String[] dims = parcel.getDimensions().split("x");
-        String existingWidth = dims.length > 0 ? dims[0] : "";
-        String existingHeight = dims.length > 1 ? dims[1] : "";
-        String existingLength = dims.length > 2 ? dims[2] : "";
+        // Prefill the existing dimensions; unparseable CSV values start empty
+        Dimensions dims = parcel.getDimensionsValue();
+        boolean known = dims != null && dims.isValid();
+        String existingWidth = known ? Dimensions.formatSide(dims.getWidth()) : "";
+        String existingHeight = known ? Dimensions.formatSide(dims.getHeight()) : "";
+        String existingLength = known ? Dimensions.formatSide(dims.getLength()) : "";
 
         JTextField weightField = new JTextField(String.valueOf(parcel.getWeight()));
         JTextField widthField = new JTextField(existingWidth);
@@ -444,17 +455,12 @@ public class ParcelsPanel extends JPanel implements Observer {
                 return;
             }
 
-            // Format dimensions without forcing two decimal places
-            DecimalFormat df = new DecimalFormat("#.##");
-            String newDimensions = df.format(width) + "x" + df.format(height) + "x" + df.format(length);
+            Dimensions newDimensions = Dimensions.of(width, height, length);
 
             log.logInfo(String.format("Updating parcel: ID=%s, Weight=%.2f, Dimensions=%s, Days=%d", parcelID, weight, newDimensions, days));
 
             manager.updateParcel(parcelID, weight, newDimensions, days);
             log.logInfo("Parcel updated successfully: ID=" + parcelID);
-
-            refreshParcelTable();
-            log.logInfo("Parcel table refreshed after editing.");
         } else {
             log.logInfo("User canceled parcel edits for ID=" + parcelID);
         }
@@ -481,14 +487,13 @@ public class ParcelsPanel extends JPanel implements Observer {
 
         log.logInfo("Parcel found: " + parcel);
 
-        // Display the found parcel in the table
-        parcelTableModel.setRowCount(0);
-        parcelTableModel.addRow(new Object[]{
-                parcel.getParcelID(),
-                parcel.getWeight(),
-                parcel.getDimensions(),
-                parcel.getStatus(),
-                parcel.getDaysInDepot()
+        // Display only the found parcel in the table
+        int row = parcelTableModel.rowOf(parcel.getParcelID());
+        parcelSorter.setRowFilter(new RowFilter<ParcelTableModel, Integer>() {
+            @Override
+            public boolean include(Entry<? extends ParcelTableModel, ? extends Integer> entry) {
+                return entry.getIdentifier() == row;
+            }
         });
         log.logInfo("Parcel details displayed in the table: ID=" + parcel.getParcelID());
 
@@ -497,11 +502,49 @@ public class ParcelsPanel extends JPanel implements Observer {
         log.logInfo("Parcel displayed in CurrentParcelPanel: ID=" + parcel.getParcelID());
     }
 
+    // Filters the table by status and minimum age or weight using the parcel indexes; the filter is re-checked as rows change
+    private void filterParcels() {
+        JComboBox<String> statusBox = new JComboBox<>(new String[]{Parcel.STATUS_PENDING, Parcel.STATUS_COLLECTED});
+        JTextField daysField = new JTextField();
+        JTextField weightField = new JTextField();
+
+        Object[] msg = {
+                "Status:", statusBox,
+                "More than days in depot (optional):", daysField,
+                "Heavier than kg (optional):", weightField
+        };
+
+        int option = JOptionPane.showConfirmDialog(this, msg, "Filter Parcels", JOptionPane.OK_CANCEL_OPTION);
+        if (option != JOptionPane.OK_OPTION) {
+            log.logInfo("Parcel filter cancelled by user.");
+            return;
+        }
+
+        String status = (String) statusBox.getSelectedItem();
+        String daysText = daysField.getText().trim();
+        String weightText = weightField.getText().trim();
+
+        Integer minDays;
+        Double minWeight;
+        try {
+            minDays = daysText.isEmpty() ? null : Integer.parseInt(daysText);
+            minWeight = weightText.isEmpty() ? null : Double.parseDouble(weightText);
+        } catch (NumberFormatException e) {
+            log.logError("Validation failed: Non-numeric parcel filter values.");
+            JOptionPane.showMessageDialog(this, "Please enter valid numeric values for days and weight.", "Invalid Input", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        ParcelIndexFilter filter = new ParcelIndexFilter(manager.getParcelMap(), status, minDays, minWeight);
+        parcelSorter.setRowFilter(filter);
+        log.logInfo(String.format("Parcel filter applied: status=%s, days>%s, weight>%s, %d matches", status, minDays, minWeight, filter.size()));
+    }
+
     // Displays a table of collected parcels to the user.
     private void showCollectedParcels() {
         log.logInfo("Displaying collected parcels.");
 
-        List<Parcel> collected = manager.getCollectedParcels();
+        List<Parcel> collected = new ArrayList<>(manager.getCollectedParcels());
 
         if (collected.isEmpty()) {
             log.logInfo("No collected parcels to display.");
@@ -49,6 +49,7 @@ public class WorkerUI {
             new MainUI(manager);
         });
         topPanel.add(backButton);
+        topPanel.add(new LoadProgressBar(manager.getLoadProgress()));
         mainPanel.add(topPanel, BorderLayout.NORTH);
 
         parcelsPanel = new ParcelsPanel(manager, this);
@@ -63,7 +64,8 @@ public class WorkerUI {
 
         frame.setLocationRelativeTo(null);
         frame.setVisible(true);
-        log.logInfo("WorkerUI setup completed and displayed.");
+        log.logInfo("WorkerUI setup completed and displayed. Live observers: " + manager.getParcelMap().getObserverCount() +
+                " on parcels, " + manager.getQueueOfCustomers().getObserverCount() + " on the queue.");
     }
 
     // Displays a Confirmation Window to exit the Depot Application
@@ -72,7 +74,9 @@ public class WorkerUI {
         int choice = JOptionPane.showConfirmDialog(frame, "Are you sure you want to exit?", "Exit Confirmation", JOptionPane.YES_NO_OPTION);
         if (choice == JOptionPane.YES_OPTION) {
             log.logInfo("Saving logs and exiting application.");
-            manager.getLog().saveToFile("Logs.txt");
+            manager.closeJournal();
+            manager.closeReceiptArchive();
+            manager.getLog().flush();
             System.out.println("Logs saved to file.");
             System.exit(0);
         } else {
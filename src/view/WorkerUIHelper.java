@@ -1,5 +1,6 @@
 package view;
 
+import controller.DiscountRules;
 import controller.Manager;
 import model.Parcel;
 import util.Log;
@@ -11,6 +12,34 @@ import java.time.format.DateTimeFormatter;
 public class WorkerUIHelper {
     private static final Log log = Log.getInstance();
 
+    // Tells the user to wait when the depot is still loading; returns whether changes can be made now
+    public static boolean checkAcceptingChanges(java.awt.Component parent, Manager manager) {
+        if (manager.isAcceptingChanges()) {
+            return true;
+        }
+        log.logInfo("Change attempted while changes are refused: " + manager.getRefusalMessage());
+        if (Manager.LOADING_MESSAGE.equals(manager.getRefusalMessage())) {
+            JOptionPane.showMessageDialog(parent, Manager.LOADING_MESSAGE, "Please Wait", JOptionPane.INFORMATION_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(parent, manager.getRefusalMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+        return false;
+    }
+
+    // Runs a button action that changes the depot. If the journal fails part-way, the manager stops accepting changes
+    // and throws; the failure is shown here instead of escaping to the event thread with the action half done
+    public static void runChange(java.awt.Component parent, Manager manager, Runnable action) {
+        try {
+            action.run();
+        } catch (IllegalStateException e) {
+            if (manager.isAcceptingChanges()) {
+                throw e;
+            }
+            log.logError("Change failed: " + e.getMessage());
+            JOptionPane.showMessageDialog(parent, e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
     // Displays a confirmation popup for parcel collection
     public static void showCollectionPopup(java.awt.Component parent, Manager manager, Parcel parcel, Runnable onConfirm) {
         log.logInfo("Displaying collection popup for parcel: " + parcel.getParcelID());
@@ -25,7 +54,7 @@ public class WorkerUIHelper {
 
         int choice = JOptionPane.showConfirmDialog(parent, feeDetails, "Confirm Collection", JOptionPane.YES_NO_OPTION);
         if (choice == JOptionPane.YES_OPTION) {
-            log.logInfo("Parcel collection confirmed: " + parcel.getParcelID() + ". Final Fee: £" + String.format("%.2f", finalFee));
+            log.logInfo(() -> "Parcel collection confirmed: " + parcel.getParcelID() + ". Final Fee: £" + String.format("%.2f", finalFee));
             onConfirm.run();
         } else {
             log.logInfo("Parcel collection canceled: " + parcel.getParcelID());
@@ -48,7 +77,7 @@ public class WorkerUIHelper {
     public static void showFeesAndDiscounts(java.awt.Component parent) {
         log.logInfo("Displaying fee structure and discounts.");
 
-        //Display the fee structure and discount
+        //Display the fee structure and the discount rules currently in force
         String feeStructure = """
                 Fee Structure:
                 -----------------------------
@@ -58,10 +87,7 @@ public class WorkerUIHelper {
 
                 Discounts:
                 -----------------------------
-                - Parcel IDs starting with 'X' and ending with '0': 20% discount
-                - Parcel IDs starting with 'X' and ending with '5': 10% discount
-                - Parcel IDs starting with 'C': 5% discount
-            """;
+                """ + DiscountRules.getInstance().current().describe();
 
         //Show the fee structure to the user in a popup
         JOptionPane.showMessageDialog(parent, feeStructure, "Fees and Discounts", JOptionPane.INFORMATION_MESSAGE);